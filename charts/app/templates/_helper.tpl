@@ -42,6 +42,13 @@ app.kubernetes.io/name: {{ include "labs-helmchart-base.name" . }}
 app.kubernetes.io/instance: {{ include "labs-helmchart-base.buildInstanceName" . }}
 {{- end }}
 
+{{/*
+Workload kind: StatefulSet (stable pod names for Kafka static membership) or Deployment.
+*/}}
+{{- define "labs-helmchart-base.workloadKind" -}}
+{{- ternary "StatefulSet" "Deployment" (default false .Values.rollout.staticMembership) -}}
+{{- end }}
+
 {{/*
 Create the instance name  [package]-[pd|npd]-[name]-[type]
 */}}
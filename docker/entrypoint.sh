@@ -43,5 +43,14 @@ for secret_file in "$SECRETS_DIR"/*.env; do
   load_env_from_file "$secret_file"
 done
 
+# Imagen de arranque rápido (docker/Dockerfile.aot): archivo CDS del entrenamiento y código de Spring AOT
+JAVA_OPTS="${JAVA_OPTS:-}"
+if [ -f "/app/${JAR_NAME}.jsa" ]; then
+  JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=/app/${JAR_NAME}.jsa -Xshare:auto"
+fi
+if [ "${SPRING_AOT_ENABLED:-false}" = "true" ]; then
+  JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+fi
+
 echo "Starting Java application"
-exec java -jar "/app/${JAR_NAME}.jar" "$@"
+exec java $JAVA_OPTS -jar "/app/${JAR_NAME}.jar" "$@"
@@ -0,0 +1,82 @@
+#!/bin/bash
+# Tiempo hasta readiness de una o varias imágenes contra un Kafka y un Redis locales.
+# Uso: docker/startup-benchmark.sh [-n runs] image [image...]
+#   docker/startup-benchmark.sh -n 5 gkedeploy:plain gkedeploy:aot
+
+set -euo pipefail
+
+RUNS=5
+if [ "${1:-}" = "-n" ]; then
+  RUNS="$2"
+  shift 2
+fi
+if [ $# -eq 0 ]; then
+  echo "Usage: $0 [-n runs] image [image...]" >&2
+  exit 2
+fi
+
+BROKER=startup-bench-broker
+REDIS=startup-bench-redis
+APP=startup-bench-app
+PORT=19081
+DIR="$(cd "$(dirname "$0")" && pwd)"
+SECRETS="$(mktemp -d)"
+
+cleanup() {
+  docker rm -f "$APP" "$REDIS" "$BROKER" > /dev/null 2>&1 || true
+  rm -rf "$SECRETS"
+}
+trap cleanup EXIT
+
+# Redis y la app comparten la red del broker: todo queda en localhost con la configuración por defecto de la imagen
+echo "Starting Kafka and Redis"
+docker run -d --name "$BROKER" -p "$PORT:9081" apache/kafka:3.7.1 > /dev/null
+docker run -d --name "$REDIS" --network "container:$BROKER" redis:7 redis-server --requirepass password > /dev/null
+
+until docker exec "$BROKER" /opt/kafka/bin/kafka-topics.sh --bootstrap-server localhost:9092 \
+    --create --if-not-exists --topic uppercase --partitions 3 > /dev/null 2>&1; do
+  sleep 1
+done
+
+# El entrypoint.sh carga las variables desde /etc/secrets/*.env
+cat > "$SECRETS/app.env" <<ENV
+KAFKA_BOOTSTRAP_SERVERS=localhost:9092
+REDIS_HOST=localhost
+REDIS_PASSWORD=password
+SPRING_KAFKA_ENABLED=true
+ENV
+
+now_ms() {
+  date +%s%3N
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+for image in "$@"; do
+  times=()
+  for run in $(seq 1 "$RUNS"); do
+    # Grupo nuevo en cada corrida: el miembro anterior no retrasa el rebalanceo
+    start=$(now_ms)
+    docker run -d --name "$APP" --network "container:$BROKER" \
+      -e SPRING_APPLICATION_NAME="startup-bench-$run-$start" \
+      -v "$SECRETS:/etc/secrets:ro" \
+      -v "$DIR/entrypoint.sh:/bench/entrypoint.sh:ro" \
+      --entrypoint /bin/bash "$image" /bench/entrypoint.sh > /dev/null
+
+    until curl -fs "localhost:$PORT/actuator/health/readiness" > /dev/null 2>&1; do
+      if [ "$(docker inspect -f '{{.State.Running}}' "$APP")" != "true" ]; then
+        docker logs "$APP" | tail -20
+        exit 1
+      fi
+      sleep 0.1
+    done
+    elapsed=$(( $(now_ms) - start ))
+    times+=("$elapsed")
+
+    echo "$image run $run: ready in ${elapsed} ms ($(docker logs "$APP" 2>&1 | grep -o 'Started GKEDeployApp in [0-9.]* seconds' || true))"
+    docker rm -f "$APP" > /dev/null
+  done
+  echo "$image median time to ready: $(printf '%s\n' "${times[@]}" | median) ms"
+done
@@ -0,0 +1,93 @@
+package com.labs.repartitioner.parallel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reparto de los registros de {@value #PARTITIONS} particiones entre los workers del motor paralelo,
+ * con una latencia de Redis simulada de {@code rttMicros} por escritura. {@code PARTITION} deja una
+ * escritura en vuelo por partición, como un hilo de stream que espera a Redis; {@code KEY} es el orden
+ * por clave de {@code engine.type=parallel}. Mide registros por segundo, commit incluido: cada invocación
+ * termina cuando los {@link OffsetTracker} de todas las particiones están al día.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelEngineBenchmark {
+
+    static final int RECORDS = 2000;
+    static final int PARTITIONS = 3;
+
+    public enum Ordering { PARTITION, KEY }
+
+    @Param({"PARTITION", "KEY"})
+    public Ordering ordering;
+
+    @Param({"32"})
+    public int workers;
+
+    @Param({"500"})
+    public long rttMicros;
+
+    private ExecutorService pool;
+    private KeyOrderedExecutor executor;
+    private Executor redis;
+    private OffsetTracker[] trackers;
+    private long offset;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        pool = Executors.newFixedThreadPool(workers);
+        executor = new KeyOrderedExecutor(pool);
+        redis = CompletableFuture.delayedExecutor(rttMicros, TimeUnit.MICROSECONDS, pool);
+        trackers = new OffsetTracker[PARTITIONS];
+        for (int p = 0; p < PARTITIONS; p++) {
+            trackers[p] = new OffsetTracker();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void dispatchAndCommit() throws InterruptedException {
+        for (int i = 0; i < RECORDS; i++) {
+            OffsetTracker tracker = trackers[i % PARTITIONS];
+            long recordOffset = offset + i / PARTITIONS;
+            tracker.received(recordOffset);
+            String lane = ordering == Ordering.PARTITION ? "partition-" + i % PARTITIONS : "KEY-" + sequence++;
+            executor.submit(lane, () -> CompletableFuture.supplyAsync(() -> true, redis))
+                    .whenComplete((r, e) -> tracker.completed(recordOffset));
+        }
+        offset += RECORDS / PARTITIONS + 1;
+        for (OffsetTracker tracker : trackers) {
+            if (!tracker.awaitIdle(TimeUnit.MINUTES.toMillis(1))) {
+                throw new IllegalStateException("records still pending: " + tracker.pending());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.topology.AsyncRedisSink;
+import com.labs.repartitioner.topology.BatchRedisSink;
+import com.labs.repartitioner.topology.RedisSink;
+import com.labs.repartitioner.topology.TopologyMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino de escritura a Redis (sink batch o async hasta el flush del commit) contra el Redis
+ * en proceso, standalone o en cluster de tres nodos. Mide claves nuevas por segundo: cada invocación
+ * escribe {@value #KEYS} claves distintas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSinkBenchmark {
+
+    static final int KEYS = 1000;
+
+    @Param({"BATCH", "ASYNC"})
+    public RedisSinkMode mode;
+
+    @Param({"100", "500"})
+    public int batchSize;
+
+    /** En cluster el batch sale en un pipeline por nodo; el async lo enruta Lettuce comando a comando */
+    @Param({"false", "true"})
+    public boolean cluster;
+
+    private RedisStandIn redis;
+    private RedisSink sink;
+    private long sequence;
+
+    @Setup
+    public void setup() throws IOException {
+        redis = new RedisStandIn(RedisValueCodec.JSON, cluster);
+        sink = switch (mode) {
+            case BATCH -> new BatchRedisSink(redis.batchWriter(), batchSize,
+                    new TopologyMetrics(new SimpleMeterRegistry(), mode));
+            // batchSize hace de ventana de comandos en vuelo en el modo async
+            case ASYNC -> new AsyncRedisSink(redis.asyncWriter(), batchSize, Duration.ofSeconds(30));
+            case WRITE_BEHIND -> throw new IllegalArgumentException("write-behind writes from a Kafka consumer");
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void resetServer() {
+        redis.reset();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        redis.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void writeAndFlush() {
+        for (int i = 0; i < KEYS; i++) {
+            sink.add("KEY-" + sequence++, "value");
+        }
+        sink.flush();
+    }
+}
@@ -0,0 +1,85 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisConfig;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.support.InMemoryRedisCluster;
+import com.labs.repartitioner.support.InMemoryRedisServer;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+
+/**
+ * {@link InMemoryRedisServer} (o un {@link InMemoryRedisCluster} de {@value #CLUSTER_NODES} nodos) con la
+ * misma cadena de cliente que la aplicación: Lettuce, el RedisTemplate de {@link RedisConfig} y los dos
+ * writers del sink.
+ */
+public class RedisStandIn implements AutoCloseable {
+
+    static final int CLUSTER_NODES = 3;
+
+    private final InMemoryRedisServer server;
+    private final InMemoryRedisCluster cluster;
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisBatchWriter batchWriter;
+    private final RedisAsyncWriter asyncWriter;
+
+    public RedisStandIn(RedisValueCodec codec) throws IOException {
+        this(codec, false);
+    }
+
+    public RedisStandIn(RedisValueCodec codec, boolean clusterMode) throws IOException {
+        if (clusterMode) {
+            server = null;
+            cluster = new InMemoryRedisCluster(CLUSTER_NODES);
+            connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(cluster.addresses()));
+        } else {
+            server = new InMemoryRedisServer();
+            cluster = null;
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", server.port()));
+        }
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        var config = new RedisConfig();
+        RedisTemplate<String, Object> template = config.objectRedisTemplate(connectionFactory,
+                config.valueSerializer(codec, config.serializer(config.objectMapper())));
+        template.afterPropertiesSet();
+        asyncWriter = new RedisAsyncWriter(connectionFactory, template);
+        batchWriter = new RedisBatchWriter(asyncWriter);
+    }
+
+    /** El servidor standalone; {@code null} en modo cluster. */
+    public InMemoryRedisServer server() {
+        return server;
+    }
+
+    public void reset() {
+        if (cluster != null) {
+            cluster.reset();
+        } else {
+            server.reset();
+        }
+    }
+
+    public RedisBatchWriter batchWriter() {
+        return batchWriter;
+    }
+
+    public RedisAsyncWriter asyncWriter() {
+        return asyncWriter;
+    }
+
+    @Override
+    public void close() throws IOException {
+        asyncWriter.destroy();
+        connectionFactory.destroy();
+        if (cluster != null) {
+            cluster.close();
+        } else {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisConfig;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de serialización y deserialización de un valor del tópico con cada codec de
+ * {@code redis.codec}. El tamaño en Redis de cada combinación se imprime al preparar el estado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisValueCodecBenchmark {
+
+    @Param({"JSON", "UTF8", "BINARY"})
+    public RedisValueCodec codec;
+
+    @Param({"16", "256"})
+    public int valueLength;
+
+    private RedisSerializer<Object> serializer;
+    private String value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        var config = new RedisConfig();
+        serializer = config.valueSerializer(codec, config.serializer(config.objectMapper()));
+        value = "v".repeat(valueLength);
+        encoded = serializer.serialize(value);
+        System.out.printf("encoded-size codec=%s valueLength=%d bytes=%d%n", codec, valueLength, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+}
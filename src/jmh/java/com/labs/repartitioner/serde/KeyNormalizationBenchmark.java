@@ -0,0 +1,53 @@
+package com.labs.repartitioner.serde;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalización de la clave en la topología: {@link UpperCaseKeyDeserializer} sobre los bytes
+ * frente al camino anterior de decodificar a String, {@code toUpperCase} y volver a codificar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyNormalizationBenchmark {
+
+    @Param({"order-12345", "cliente-ñandú-0001"})
+    public String key;
+
+    private final UpperCaseKeyDeserializer deserializer = new UpperCaseKeyDeserializer();
+    private byte[] raw;
+
+    @Setup
+    public void setup() {
+        raw = key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] bytes() {
+        // El deserializador trabaja en sitio: se copia como lo haría el consumer con un registro nuevo
+        return deserializer.deserialize("uppercase", raw.clone());
+    }
+
+    @Benchmark
+    public byte[] string() {
+        return new String(raw.clone(), StandardCharsets.UTF_8).toUpperCase(Locale.ROOT)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
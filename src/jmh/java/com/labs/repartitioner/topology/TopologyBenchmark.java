@@ -0,0 +1,119 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.redis.RedisStandIn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyConfig;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.BuiltInDslStoreSuppliers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * La topología completa en un {@link TopologyTestDriver} (RocksDB, changelog y sink a Redis en
+ * proceso). La cardinalidad de claves decide cuántos registros llegan a Redis y cuántos corta el
+ * filtro de claves vistas. El driver hace commit tras cada registro: el sink vacía y RocksDB hace
+ * flush en cada uno, por eso {@code storeType=in_memory} separa ese coste del de la topología.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopologyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int cardinality;
+
+    @Param({"BATCH", "ASYNC"})
+    public RedisSinkMode sinkMode;
+
+    /** Tipo del store de la tabla ({@code dsl.store.suppliers.class}) */
+    @Param({"rocksDB", "in_memory"})
+    public String storeType;
+
+    private RedisStandIn redis;
+    private TopologyTestDriver driver;
+    private TestInputTopic<byte[], byte[]> input;
+    private byte[][] keys;
+    private final byte[] value = "value".getBytes(StandardCharsets.UTF_8);
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        redis = new RedisStandIn(RedisValueCodec.JSON);
+
+        var topology = new KeyUpperCaseTopology(redis.batchWriter(), redis.asyncWriter(), new SimpleMeterRegistry(),
+                new RecordTracer(0.001, List.of(), 50, new SimpleMeterRegistry()),
+                new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)));
+        ReflectionTestUtils.setField(topology, "sinkMode", sinkMode);
+        ReflectionTestUtils.setField(topology, "batchSize", 500);
+        ReflectionTestUtils.setField(topology, "flushInterval", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(topology, "maxInFlight", 1000);
+        ReflectionTestUtils.setField(topology, "awaitTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(topology, "seenKeysMaxSize", DataSize.ofMegabytes(16));
+
+        var properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "topology-benchmark");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        properties.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        properties.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        properties.put(StreamsConfig.DSL_STORE_SUPPLIERS_CLASS_CONFIG, "in_memory".equals(storeType)
+                ? BuiltInDslStoreSuppliers.InMemoryDslStoreSuppliers.class
+                : BuiltInDslStoreSuppliers.RocksDBDslStoreSuppliers.class);
+        properties.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("topology-benchmark").toString());
+
+        driver = new TopologyTestDriver(topology.createTopology(
+                new StreamsBuilder(new TopologyConfig(new StreamsConfig(properties)))), properties);
+        input = driver.createInputTopic(TopicEnum.UPPERCASE.getName(), new ByteArraySerializer(), new ByteArraySerializer());
+
+        keys = new byte[cardinality][];
+        for (int i = 0; i < cardinality; i++) {
+            keys[i] = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        driver.close();
+        System.out.printf("redis cardinality=%d mode=%s store=%s keys=%d SET=%d%n", cardinality, sinkMode,
+                storeType, redis.server().size(), redis.server().commandCount("SET"));
+        redis.close();
+    }
+
+    @Benchmark
+    public void pipeRecord() {
+        // El deserializador normaliza en sitio: cada registro lleva su propia copia de la clave
+        input.pipeInput(keys[next].clone(), value);
+        next = next + 1 == cardinality ? 0 : next + 1;
+    }
+}
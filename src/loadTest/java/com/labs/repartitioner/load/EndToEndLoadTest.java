@@ -0,0 +1,240 @@
+package com.labs.repartitioner.load;
+
+import com.labs.repartitioner.GKEDeployApp;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.support.InMemoryRedisServer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga de extremo a extremo: la aplicación completa (topología, sink de Redis, métricas y
+ * health) contra un Kafka embebido y el {@link InMemoryRedisServer}. Envía {@code load.records}
+ * registros con el reparto {@code load.distribution} y mide:
+ * <ul>
+ *   <li>registros por segundo, del primer envío al último registro procesado y escrito;</li>
+ *   <li>latencia de proceso: del envío a la llegada del registro al changelog del store;</li>
+ *   <li>latencia hasta Redis: del envío de una clave nueva a su SET;</li>
+ *   <li>SET por segundo recibidos por Redis.</li>
+ * </ul>
+ * La caché de los stores va a 0 para que cada registro llegue al changelog al procesarse y no en el commit.
+ * Se lanza con {@code gradle loadTest -Pload.distribution=zipfian}; el informe queda en build/reports/load-test.
+ */
+@SpringBootTest(classes = GKEDeployApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.application.name=" + EndToEndLoadTest.APP,
+                "spring.kafka.enabled=true",
+                "spring.data.redis.host=localhost",
+                "spring.data.redis.password=load",
+                "spring.kafka.streams.properties.statestore.cache.max.bytes=0",
+                "spring.kafka.streams.properties.num.standby.replicas=0",
+                "streams.thread-scaling.enabled=false",
+                "logging.level.org.apache.kafka=WARN",
+                "logging.level.kafka=WARN",
+                "logging.level.state.change.logger=WARN"
+        })
+@EmbeddedKafka(kraft = true, partitions = 3, bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class EndToEndLoadTest {
+
+    static final String APP = "LOAD_TEST";
+    private static final String CHANGELOG = APP + "-" + TopicEnum.UPPERCASE_STORAGE.getName() + "-changelog";
+
+    private static final InMemoryRedisServer REDIS = startRedis();
+
+    private final KeyDistribution distribution = KeyDistribution.from(System.getProperty("load.distribution", "uniform"));
+    private final long records = Long.getLong("load.records", 100_000);
+    private final long keys = Long.getLong("load.keys", 10_000);
+    /** Registros previos a la medición, con claves propias, para calentar la JIT, RocksDB y las conexiones */
+    private final long warmupRecords = Long.getLong("load.warmup-records", 20_000);
+    private final double zipfExponent = Double.parseDouble(System.getProperty("load.zipf-exponent", "0.99"));
+    /** Registros por segundo que se envían; 0 envía tan rápido como acepte el productor */
+    private final long rate = Long.getLong("load.rate", 0);
+    private final Duration timeout = Duration.parse(System.getProperty("load.timeout", "PT5M"));
+    private final Path reportDir = Path.of(System.getProperty("load.report-dir", "build/reports/load-test"));
+
+    @Autowired EmbeddedKafkaBroker broker;
+    @Autowired StreamsBuilderFactoryBean factoryBean;
+
+    @Value("${redis.sink.mode}")
+    private String sinkMode;
+
+    private final LatencyRecorder processedLatency = new LatencyRecorder();
+    private final LatencyRecorder redisLatency = new LatencyRecorder();
+    /** Hora de envío de las claves (en mayúsculas, como en Redis) que aún no han llegado a Redis */
+    private final Map<String, Long> firstSent = new ConcurrentHashMap<>();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile boolean measuring;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.data.redis.port", REDIS::port);
+        registry.add("spring.kafka.streams.state-dir", Files.createTempDirectory("load-test-state")::toString);
+        registry.add("redis.sink.mode", () -> System.getProperty("load.sink-mode", "batch"));
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS.close();
+    }
+
+    @Test
+    void run() throws Exception {
+        awaitTrue("Kafka Streams RUNNING", () -> factoryBean.getKafkaStreams() != null
+                && factoryBean.getKafkaStreams().state() == KafkaStreams.State.RUNNING);
+        REDIS.onWrite(this::onRedisWrite);
+
+        Thread observer = new Thread(this::observeChangelog, "load-test-changelog-observer");
+        observer.setDaemon(true);
+        observer.start();
+
+        try (var producer = producer()) {
+            Set<String> seen = new HashSet<>();
+            long warmupKeys = distribution.warmupKeys(keys);
+            for (long i = 0; i < warmupKeys; i++) {
+                String key = KeyDistribution.key(i);
+                seen.add(key);
+                producer.send(new ProducerRecord<>(TopicEnum.UPPERCASE.getName(), key, "warmup"));
+            }
+            long warmupSets = warmupKeys + Math.min(warmupRecords, keys);
+            for (long i = 0; i < warmupRecords; i++) {
+                producer.send(new ProducerRecord<>(TopicEnum.UPPERCASE.getName(), "warmup-" + i % keys, "warmup"));
+            }
+            producer.flush();
+            awaitTrue("warm-up processed", () -> processed.get() >= warmupKeys + warmupRecords);
+            awaitTrue("warm-up written to Redis", () -> REDIS.commandCount("SET") >= warmupSets);
+
+            long setsBefore = REDIS.commandCount("SET");
+            long processedBefore = processed.get();
+            measuring = true;
+
+            Supplier<String> generator = distribution.generator(keys, zipfExponent, new Random(42));
+            long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+            long start = System.nanoTime();
+            for (long i = 0; i < records; i++) {
+                if (intervalNanos > 0) {
+                    LockSupport.parkNanos(start + i * intervalNanos - System.nanoTime());
+                }
+                String key = generator.get();
+                long now = System.currentTimeMillis();
+                if (seen.add(key)) {
+                    firstSent.put(key.toUpperCase(Locale.ROOT), now);
+                }
+                producer.send(new ProducerRecord<>(TopicEnum.UPPERCASE.getName(), null, now, key, "value-" + i));
+            }
+            producer.flush();
+
+            awaitTrue("records processed", () -> processed.get() - processedBefore >= records);
+            awaitTrue("new keys written to Redis", firstSent::isEmpty);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            measuring = false;
+
+            long sets = REDIS.commandCount("SET") - setsBefore;
+            var report = new LoadReport(distribution.name().toLowerCase(Locale.ROOT).replace('_', '-'), sinkMode,
+                    records, keys, seconds, records / seconds, processedLatency.summary(), redisLatency.summary(),
+                    sets, sets / seconds);
+            System.out.println(report.format());
+            System.out.println("Report: " + report.write(reportDir));
+
+            assertEquals(records, report.processed().count());
+            assertTrue(sets >= report.redis().count());
+        } finally {
+            observer.interrupt();
+        }
+    }
+
+    private void onRedisWrite(String key) {
+        long now = System.currentTimeMillis();
+        Long sent = firstSent.remove(key);
+        if (sent != null && measuring) {
+            redisLatency.record(now - sent);
+        }
+    }
+
+    /** Lee el changelog del store: lleva el timestamp del registro de entrada. */
+    private void observeChangelog() {
+        try (var consumer = new KafkaConsumer<byte[], byte[]>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.GROUP_ID_CONFIG, APP + "-observer",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class))) {
+            consumer.subscribe(List.of(CHANGELOG));
+            while (!Thread.currentThread().isInterrupted()) {
+                var batch = consumer.poll(Duration.ofMillis(50));
+                long now = System.currentTimeMillis();
+                for (ConsumerRecord<byte[], byte[]> record : batch) {
+                    if (measuring) {
+                        processedLatency.record(now - record.timestamp());
+                    }
+                    processed.incrementAndGet();
+                }
+            }
+        } catch (org.apache.kafka.common.errors.InterruptException e) {
+            // fin de la medición
+        }
+    }
+
+    private KafkaProducer<String, String> producer() {
+        return new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class));
+    }
+
+    private void awaitTrue(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + what + " after " + timeout);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static InMemoryRedisServer startRedis() {
+        try {
+            return new InMemoryRedisServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.labs.repartitioner.load;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Reparto de las claves que genera la prueba de carga sobre un espacio de {@code keys} claves.
+ * Las claves van en minúsculas para que la topología haga el paso a mayúsculas.
+ */
+public enum KeyDistribution {
+    /** Todas las claves del espacio con la misma probabilidad */
+    UNIFORM,
+    /** Pocas claves calientes y una cola larga, con exponente {@code load.zipf-exponent} */
+    ZIPFIAN,
+    /** Cada registro trae una clave que no se ha visto: todos acaban en Redis */
+    ALL_NEW,
+    /** Claves ya escritas en un calentamiento previo: ninguna debería llegar a Redis */
+    ALL_REPEAT;
+
+    public static KeyDistribution from(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    /** Las claves que deben existir antes de medir; vacío salvo en {@link #ALL_REPEAT}. */
+    public long warmupKeys(long keys) {
+        return this == ALL_REPEAT ? keys : 0;
+    }
+
+    public Supplier<String> generator(long keys, double zipfExponent, Random random) {
+        return switch (this) {
+            case UNIFORM, ALL_REPEAT -> () -> key(Math.floorMod(random.nextLong(), keys));
+            case ZIPFIAN -> zipfian(keys, zipfExponent, random);
+            case ALL_NEW -> new Supplier<>() {
+                private long next = keys;
+
+                @Override
+                public String get() {
+                    return key(next++);
+                }
+            };
+        };
+    }
+
+    public static String key(long index) {
+        return "key-" + index;
+    }
+
+    /** Muestreo por búsqueda binaria sobre la función de distribución acumulada del rango. */
+    private static Supplier<String> zipfian(long keys, double exponent, Random random) {
+        int n = Math.toIntExact(keys);
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        double total = sum;
+        return () -> {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * total);
+            return key(rank >= 0 ? rank : Math.min(n - 1, -rank - 1));
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.labs.repartitioner.load;
+
+import java.util.Arrays;
+
+/** Latencias en milisegundos guardadas sin agregar, para calcular percentiles exactos al final. */
+class LatencyRecorder {
+
+    private long[] values = new long[1024];
+    private int count;
+
+    synchronized void record(long millis) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = Math.max(0, millis);
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized void reset() {
+        count = 0;
+    }
+
+    /** @return {@link Summary} de lo grabado; percentiles -1 si no hay muestras */
+    synchronized Summary summary() {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return new Summary(count, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? -1 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    record Summary(long count, long p50, long p99, long p999, long max) { }
+}
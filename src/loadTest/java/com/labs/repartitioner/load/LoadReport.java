@@ -0,0 +1,41 @@
+package com.labs.repartitioner.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Resultado de una ejecución de {@link EndToEndLoadTest}.
+ *
+ * @param processed latencia desde el envío hasta que el registro llega al changelog del store (todos los registros)
+ * @param redis     latencia desde el envío hasta el SET en Redis (sólo la primera aparición de cada clave)
+ */
+record LoadReport(String distribution, String sinkMode, long records, long keys, double seconds,
+                  double recordsPerSecond, LatencyRecorder.Summary processed, LatencyRecorder.Summary redis,
+                  long redisOps, double redisOpsPerSecond) {
+
+    String format() {
+        return String.format(Locale.ROOT, """
+                === Load test: %s keys=%d records=%d sink=%s ===
+                duration            %10.1f s
+                throughput          %10.0f records/s
+                processed latency   p50=%d ms  p99=%d ms  p999=%d ms  max=%d ms  (n=%d)
+                redis latency       p50=%d ms  p99=%d ms  p999=%d ms  max=%d ms  (n=%d)
+                redis SET           %10d ops  %10.0f ops/s
+                """, distribution, keys, records, sinkMode, seconds, recordsPerSecond,
+                processed.p50(), processed.p99(), processed.p999(), processed.max(), processed.count(),
+                redis.p50(), redis.p99(), redis.p999(), redis.max(), redis.count(), redisOps, redisOpsPerSecond);
+    }
+
+    /** Escribe el informe como JSON en {@code <dir>/<distribution>-<sinkMode>.json}. */
+    Path write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(distribution + "-" + sinkMode + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+        return file;
+    }
+}
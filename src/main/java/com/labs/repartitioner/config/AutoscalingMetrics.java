@@ -0,0 +1,351 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.constant.TopicEnum;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Señal de escalado horizontal: lag del grupo por partición y registros por segundo que llegan al tópico
+ * de entrada (admin client), más la saturación de Redis del sink, se resumen en
+ * {@code autoscaling.desired.replicas}, acotado por las particiones del tópico de entrada entre los hilos
+ * de stream vivos del pod. Lag y ritmo de entrada son del grupo completo, así que todas las instancias
+ * publican el mismo valor: el chart lo reduce a una serie con una regla de grabación con {@code max}, que
+ * es la que leen el HPA y KEDA.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class AutoscalingMetrics implements MeterBinder, SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoscalingMetrics.class);
+
+    private final StreamsBuilderFactoryBean factoryBean;
+    private final KafkaAdmin kafkaAdmin;
+    private final ObjectProvider<NewTopic> topics;
+
+    /** Crea el cliente de administración; los tests lo sustituyen */
+    Function<Map<String, Object>, Admin> adminFactory = Admin::create;
+
+    /** Reloj de las tasas entre muestras; los tests lo sustituyen */
+    LongSupplier nanoTime = System::nanoTime;
+
+    @Value("${autoscaling.sample-interval:PT15S}")
+    private Duration sampleInterval;
+
+    /** Espera máxima de cada consulta al admin client */
+    @Value("${autoscaling.admin-timeout:PT10S}")
+    private Duration adminTimeout;
+
+    /** Lag que se acepta por réplica; 0 no escala por lag */
+    @Value("${autoscaling.target.lag-per-replica:10000}")
+    private long lagPerReplica;
+
+    /** Registros por segundo que absorbe una réplica; 0 no escala por throughput */
+    @Value("${autoscaling.target.records-per-second-per-replica:0}")
+    private double recordsPerSecondPerReplica;
+
+    /** Fracción del tiempo de los hilos esperando a Redis que se quiere mantener; 0 no escala por Redis */
+    @Value("${autoscaling.target.redis-saturation:0.7}")
+    private double targetRedisSaturation;
+
+    private volatile Sample sample = Sample.EMPTY;
+    private MeterRegistry registry;
+    private MultiGauge partitionLag;
+    private ScheduledExecutorService sampler;
+    private Admin admin;
+    private double lastRedisSeconds = -1;
+    private long lastSampleNanos;
+    private Map<TopicPartition, Long> lastInputEnd;
+    private long lastInputNanos;
+
+    public AutoscalingMetrics(StreamsBuilderFactoryBean factoryBean, KafkaAdmin kafkaAdmin,
+                              ObjectProvider<NewTopic> topics) {
+        this.factoryBean = factoryBean;
+        this.kafkaAdmin = kafkaAdmin;
+        this.topics = topics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        partitionLag = MultiGauge.builder("autoscaling.consumer.lag")
+                .description("Records not yet committed by the application group, per input partition")
+                .baseUnit("records")
+                .register(registry);
+        gauge("autoscaling.consumer.lag.total", "Records not yet committed by the application group", "records",
+                s -> s.totalLag());
+        gauge("autoscaling.records.in.rate", "Records per second produced to the input topic", null,
+                Sample::inRate);
+        gauge("autoscaling.records.out.rate", "Records per second processed by this instance", null,
+                Sample::outRate);
+        gauge("autoscaling.redis.saturation", "Share of stream thread time spent waiting for Redis", null,
+                Sample::redisSaturation);
+        gauge("autoscaling.max.replicas", "Replicas that can still get a task: input partitions / stream threads",
+                null, Sample::maxReplicas);
+        gauge("autoscaling.desired.replicas", "Replicas needed for the current backlog, throughput and Redis load",
+                null, Sample::desiredReplicas);
+    }
+
+    private void gauge(String name, String description, String unit, ToDoubleFunction<Sample> value) {
+        Gauge.builder(name, this, metrics -> value.applyAsDouble(metrics.sample))
+                .description(description)
+                .baseUnit(unit)
+                .register(registry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "autoscaling-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sampleInterval.toMillis();
+        sampler.scheduleWithFixedDelay(this::sampleQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        if (admin != null) {
+            admin.close(Duration.ofSeconds(1));
+        }
+    }
+
+    Sample current() {
+        return sample;
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            log.warn("Autoscaling sample failed", e);
+        }
+    }
+
+    synchronized Sample sample() {
+        Properties streamsConfig = factoryBean.getStreamsConfiguration();
+        String applicationId = streamsConfig == null ? null : streamsConfig.getProperty(StreamsConfig.APPLICATION_ID_CONFIG);
+        KafkaStreams ks = factoryBean.getKafkaStreams();
+        int threads = streamThreads(ks, streamsConfig);
+
+        Map<TopicPartition, Long> lag = Map.of();
+        double inRate = 0;
+        int partitions = configuredPartitions();
+        try {
+            TopicDescription input = admin().describeTopics(List.of(TopicEnum.UPPERCASE.getName()))
+                    .allTopicNames().get(adminTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .get(TopicEnum.UPPERCASE.getName());
+            partitions = input.partitions().size();
+            inRate = inputRate(input);
+            if (applicationId != null) {
+                lag = groupLag(applicationId, input);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Autoscaling lag not available: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return sample;
+        }
+
+        long totalLag = lag.values().stream().mapToLong(Long::longValue).sum();
+        double outRate = ks == null ? 0 : sum(ks, "stream-thread-metrics", "process-rate", tags -> true);
+        double saturation = redisSaturation(threads);
+        int maxReplicas = Math.max(1, (partitions + threads - 1) / threads);
+        int desired = desiredReplicas(totalLag, inRate, saturation, replicas(ks), maxReplicas);
+
+        if (partitionLag != null) {
+            partitionLag.register(lag.entrySet().stream()
+                    .map(e -> MultiGauge.Row.of(Tags.of("topic", e.getKey().topic(),
+                            "partition", String.valueOf(e.getKey().partition())), e.getValue()))
+                    .collect(Collectors.toList()), true);
+        }
+        return sample = new Sample(totalLag, inRate, outRate, saturation, maxReplicas, desired);
+    }
+
+    /**
+     * Lag por partición consumida por el grupo (entrada y repartition): offset final menos el
+     * último commit. Las particiones de entrada aún sin commit cuentan desde el primer offset.
+     */
+    private Map<TopicPartition, Long> groupLag(String applicationId, TopicDescription input)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        long timeout = adminTimeout.toMillis();
+        Map<TopicPartition, Long> position = new HashMap<>();
+        Map<TopicPartition, OffsetAndMetadata> committed = admin().listConsumerGroupOffsets(applicationId)
+                .partitionsToOffsetAndMetadata().get(timeout, TimeUnit.MILLISECONDS);
+        committed.forEach((tp, offset) -> {
+            if (offset != null) {
+                position.put(tp, offset.offset());
+            }
+        });
+
+        Map<TopicPartition, OffsetSpec> uncommitted = input.partitions().stream()
+                .map(p -> new TopicPartition(input.name(), p.partition()))
+                .filter(tp -> !position.containsKey(tp))
+                .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.earliest()));
+        if (!uncommitted.isEmpty()) {
+            admin().listOffsets(uncommitted).all().get(timeout, TimeUnit.MILLISECONDS)
+                    .forEach((tp, info) -> position.put(tp, info.offset()));
+        }
+
+        Map<TopicPartition, OffsetSpec> latest = position.keySet().stream()
+                .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
+        Map<TopicPartition, Long> lag = new HashMap<>();
+        admin().listOffsets(latest).all().get(timeout, TimeUnit.MILLISECONDS)
+                .forEach((tp, info) -> lag.put(tp, Math.max(0, info.offset() - position.get(tp))));
+        return lag;
+    }
+
+    /**
+     * Registros por segundo escritos en el tópico de entrada desde la muestra anterior, según el avance de
+     * sus offsets finales. Es la carga de todo el grupo, no la de este pod, y no incluye la relectura del
+     * tópico de repartition. La primera muestra da 0.
+     */
+    private double inputRate(TopicDescription input)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        Map<TopicPartition, OffsetSpec> latest = input.partitions().stream()
+                .map(p -> new TopicPartition(input.name(), p.partition()))
+                .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
+        Map<TopicPartition, Long> end = new HashMap<>();
+        admin().listOffsets(latest).all().get(adminTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .forEach((tp, info) -> end.put(tp, info.offset()));
+        long now = nanoTime.getAsLong();
+        double rate = 0;
+        if (lastInputEnd != null && now > lastInputNanos) {
+            long produced = end.entrySet().stream()
+                    .mapToLong(e -> Math.max(0, e.getValue() - lastInputEnd.getOrDefault(e.getKey(), e.getValue())))
+                    .sum();
+            rate = produced / ((now - lastInputNanos) / 1e9);
+        }
+        lastInputEnd = end;
+        lastInputNanos = now;
+        return rate;
+    }
+
+    /** Tiempo de los hilos esperando a Redis desde la muestra anterior, sobre el tiempo disponible. */
+    private double redisSaturation(int threads) {
+        // En batch las escrituras se miden en batch.write; en async la espera se concentra en el commit
+        double seconds = Math.max(totalSeconds("redis.sink.batch.write"), totalSeconds("redis.sink.commit.wait"));
+        long now = nanoTime.getAsLong();
+        double saturation = 0;
+        if (lastRedisSeconds >= 0 && now > lastSampleNanos) {
+            double window = (now - lastSampleNanos) / 1e9 * threads;
+            saturation = Math.min(1, Math.max(0, (seconds - lastRedisSeconds) / window));
+        }
+        lastRedisSeconds = seconds;
+        lastSampleNanos = now;
+        return saturation;
+    }
+
+    private double totalSeconds(String timer) {
+        return registry == null ? 0 : registry.find(timer).timers().stream()
+                .mapToDouble(t -> t.totalTime(TimeUnit.SECONDS)).sum();
+    }
+
+    int desiredReplicas(long totalLag, double inRate, double saturation, int currentReplicas, int maxReplicas) {
+        double desired = 1;
+        if (lagPerReplica > 0) {
+            desired = Math.max(desired, (double) totalLag / lagPerReplica);
+        }
+        if (recordsPerSecondPerReplica > 0) {
+            desired = Math.max(desired, inRate / recordsPerSecondPerReplica);
+        }
+        if (targetRedisSaturation > 0) {
+            desired = Math.max(desired, currentReplicas * saturation / targetRedisSaturation);
+        }
+        return (int) Math.min(Math.ceil(desired), maxReplicas);
+    }
+
+    /** Hilos vivos del pod: {@code streams.thread-scaling} puede tener más que {@code num.stream.threads}. */
+    private static int streamThreads(KafkaStreams ks, Properties streamsConfig) {
+        if (ks != null && ks.state().isRunningOrRebalancing()) {
+            int live = ks.metadataForLocalThreads().size();
+            if (live > 0) {
+                return live;
+            }
+        }
+        return Integer.parseInt(streamsConfig == null ? "1"
+                : streamsConfig.getProperty(StreamsConfig.NUM_STREAM_THREADS_CONFIG, "1"));
+    }
+
+    private static int replicas(KafkaStreams ks) {
+        if (ks == null || !ks.state().isRunningOrRebalancing()) {
+            return 1;
+        }
+        return Math.max(1, ks.metadataForAllStreamsClients().size());
+    }
+
+    private static double sum(KafkaStreams ks, String group, String name, Predicate<Map<String, String>> tags) {
+        double total = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : ks.metrics().entrySet()) {
+            MetricName metric = entry.getKey();
+            if (name.equals(metric.name()) && group.equals(metric.group()) && tags.test(metric.tags())
+                    && entry.getValue().metricValue() instanceof Number value && !Double.isNaN(value.doubleValue())) {
+                total += value.doubleValue();
+            }
+        }
+        return total;
+    }
+
+    /** Particiones que crea {@link KafkaTopicConfig} para el tópico de entrada, si el broker no responde. */
+    private int configuredPartitions() {
+        return topics.orderedStream()
+                .filter(topic -> TopicEnum.UPPERCASE.getName().equals(topic.name()))
+                .map(topic -> Math.max(1, topic.numPartitions()))
+                .findFirst()
+                .orElse(1);
+    }
+
+    private Admin admin() {
+        if (admin == null) {
+            admin = adminFactory.apply(kafkaAdmin.getConfigurationProperties());
+        }
+        return admin;
+    }
+
+    record Sample(long totalLag, double inRate, double outRate, double redisSaturation,
+                  int maxReplicas, int desiredReplicas) {
+        static final Sample EMPTY = new Sample(0, 0, 0, 0, 1, 1);
+    }
+}
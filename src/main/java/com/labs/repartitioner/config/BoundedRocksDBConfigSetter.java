@@ -0,0 +1,167 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.constant.RocksDBProfile;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RateLimiter;
+import org.rocksdb.WriteBufferManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Acota la memoria nativa de RocksDB: todas las instancias de store del proceso (una por partición)
+ * comparten un block cache y un {@link WriteBufferManager} que cuenta las memtables dentro del mismo
+ * cache, así el total no crece con las particiones asignadas ni con la cardinalidad de claves.
+ * El presupuesto es {@code rocksdb.memory.budget} o, si no se indica, una fracción de la memoria
+ * del contenedor. Kafka Streams instancia la clase (rocksdb.config.setter), no Spring.
+ * Con {@code rocksdb.io.rate-limit} los flush y compactaciones comparten además un límite de I/O que
+ * sube a {@code rocksdb.restore.io.rate-limit} mientras se restaura algún store ({@link #setRestoring}).
+ */
+public class BoundedRocksDBConfigSetter implements RocksDBConfigSetter {
+
+    public static final String BUDGET_CONFIG = "rocksdb.memory.budget";
+    public static final String CONTAINER_FRACTION_CONFIG = "rocksdb.memory.container-fraction";
+    public static final String WRITE_BUFFER_RATIO_CONFIG = "rocksdb.memory.write-buffer-ratio";
+    public static final String PROFILE_CONFIG = "rocksdb.profile";
+    public static final String IO_RATE_LIMIT_CONFIG = "rocksdb.io.rate-limit";
+    public static final String RESTORE_IO_RATE_LIMIT_CONFIG = "rocksdb.restore.io.rate-limit";
+
+    /** Parte del cache reservada a índices y filtros (alta prioridad) */
+    private static final double INDEX_FILTER_BLOCK_RATIO = 0.1;
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedRocksDBConfigSetter.class);
+
+    private static SharedMemory sharedMemory;
+    private static IoRateLimit ioRateLimit;
+    private static boolean restoring;
+
+    private BloomFilter filter;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        SharedMemory memory = sharedMemory(configs);
+
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(memory.cache());
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        options.setWriteBufferManager(memory.writeBufferManager());
+        IoRateLimit rateLimit = ioRateLimit(configs);
+        if (rateLimit != null) {
+            options.setRateLimiter(rateLimit.limiter());
+        }
+
+        switch (RocksDBProfile.from(String.valueOf(configs.getOrDefault(PROFILE_CONFIG, "default")))) {
+            case POINT_LOOKUP -> {
+                filter = new BloomFilter(10, false);
+                tableConfig.setFilterPolicy(filter);
+                tableConfig.setDataBlockIndexType(DataBlockIndexType.kDataBlockBinaryAndHash);
+                // Casi todas las lecturas encuentran la clave: el último nivel no necesita filtro
+                options.setOptimizeFiltersForHits(true);
+            }
+            case WRITE_HEAVY -> {
+                options.setMaxWriteBufferNumber(4);
+                options.setMinWriteBufferNumberToMerge(2);
+                options.setLevel0FileNumCompactionTrigger(8);
+                options.setMaxBackgroundJobs(4);
+            }
+            case DEFAULT -> { }
+        }
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    /** El cache y el write buffer manager son compartidos: no se cierran con cada store. */
+    @Override
+    public void close(String storeName, Options options) {
+        if (filter != null) {
+            filter.close();
+            filter = null;
+        }
+    }
+
+    /** @return la memoria compartida, o {@code null} si todavía no se abrió ningún store. */
+    public static synchronized SharedMemory sharedMemory() {
+        return sharedMemory;
+    }
+
+    static synchronized SharedMemory sharedMemory(Map<String, Object> configs) {
+        if (sharedMemory == null) {
+            long budget = budget(configs, containerMemory());
+            double writeBufferRatio = Double.parseDouble(String.valueOf(configs.getOrDefault(WRITE_BUFFER_RATIO_CONFIG, "0.5")));
+            var cache = new LRUCache(budget, -1, false, INDEX_FILTER_BLOCK_RATIO);
+            var writeBufferManager = new WriteBufferManager((long) (budget * writeBufferRatio), cache);
+            sharedMemory = new SharedMemory(budget, cache, writeBufferManager);
+            log.info("RocksDB shared memory budget {} bytes ({} for memtables)", budget, (long) (budget * writeBufferRatio));
+        }
+        return sharedMemory;
+    }
+
+    /** @return el límite de I/O compartido, o {@code null} si {@code rocksdb.io.rate-limit} no está configurado. */
+    public static synchronized IoRateLimit ioRateLimit() {
+        return ioRateLimit;
+    }
+
+    static synchronized IoRateLimit ioRateLimit(Map<String, Object> configs) {
+        if (ioRateLimit == null) {
+            long normal = bytes(configs.get(IO_RATE_LIMIT_CONFIG));
+            if (normal <= 0) {
+                return null;
+            }
+            long restore = Math.max(normal, bytes(configs.getOrDefault(RESTORE_IO_RATE_LIMIT_CONFIG, "1GB")));
+            ioRateLimit = new IoRateLimit(new RateLimiter(restoring ? restore : normal), normal, restore);
+            log.info("RocksDB flush/compaction I/O limited to {} bytes/s ({} while restoring)", normal, restore);
+        }
+        return ioRateLimit;
+    }
+
+    /**
+     * Perfil de carga masiva mientras haya restauraciones: los flush y compactaciones del changelog
+     * restaurado no esperan al límite pensado para proteger las lecturas del tráfico normal.
+     */
+    public static synchronized void setRestoring(boolean active) {
+        if (restoring == active) {
+            return;
+        }
+        restoring = active;
+        if (ioRateLimit != null) {
+            long bytesPerSecond = active ? ioRateLimit.restore() : ioRateLimit.normal();
+            ioRateLimit.limiter().setBytesPerSecond(bytesPerSecond);
+            log.info("RocksDB I/O limit set to {} bytes/s ({})", bytesPerSecond, active ? "restoring" : "normal");
+        }
+    }
+
+    private static long bytes(Object value) {
+        return value == null || String.valueOf(value).isBlank() ? 0 : DataSize.parse(String.valueOf(value).trim()).toBytes();
+    }
+
+    static long budget(Map<String, Object> configs, long containerMemory) {
+        Object budget = configs.get(BUDGET_CONFIG);
+        if (budget != null && !String.valueOf(budget).isBlank()) {
+            return DataSize.parse(String.valueOf(budget).trim()).toBytes();
+        }
+        double fraction = Double.parseDouble(String.valueOf(configs.getOrDefault(CONTAINER_FRACTION_CONFIG, "0.25")));
+        if (fraction <= 0 || fraction >= 1) {
+            throw new IllegalArgumentException(CONTAINER_FRACTION_CONFIG + " must be between 0 and 1: " + fraction);
+        }
+        return (long) (containerMemory * fraction);
+    }
+
+    /** La JVM ya informa el límite del cgroup del contenedor como memoria total. */
+    private static long containerMemory() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getTotalMemorySize();
+    }
+
+    public record SharedMemory(long budget, Cache cache, WriteBufferManager writeBufferManager) { }
+
+    public record IoRateLimit(RateLimiter limiter, long normal, long restore) { }
+}
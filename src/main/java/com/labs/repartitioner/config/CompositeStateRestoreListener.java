@@ -0,0 +1,39 @@
+package com.labs.repartitioner.config;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+
+import java.util.List;
+
+/**
+ * Kafka Streams admite un único listener de restauración: éste reenvía cada evento a todos los
+ * {@code delegates}, en orden.
+ */
+class CompositeStateRestoreListener implements StateRestoreListener {
+
+    private final List<StateRestoreListener> delegates;
+
+    CompositeStateRestoreListener(List<StateRestoreListener> delegates) {
+        this.delegates = List.copyOf(delegates);
+    }
+
+    @Override
+    public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+        delegates.forEach(l -> l.onRestoreStart(partition, storeName, startingOffset, endingOffset));
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+        delegates.forEach(l -> l.onBatchRestored(partition, storeName, batchEndOffset, numRestored));
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+        delegates.forEach(l -> l.onRestoreEnd(partition, storeName, totalRestored));
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition partition, String storeName, long totalRestored) {
+        delegates.forEach(l -> l.onRestoreSuspended(partition, storeName, totalRestored));
+    }
+}
@@ -1,12 +1,20 @@
 package com.labs.repartitioner.config;
 
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KafkaStreams.State;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.Status;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
 import org.springframework.stereotype.Component;
 
@@ -19,12 +27,31 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+/**
+ * Estado de las topologías para los probes. La vista se recalcula en segundo plano (cambios de estado,
+ * fin de restauraciones y un muestreo periódico del lag) y los probes sólo leen la última foto.
+ * El liveness mira el {@link State}; el readiness ({@link KafkaReadinessCheck}) además exige que no
+ * haya restauraciones en curso y que el lag de consumo esté bajo el umbral.
+ */
 @Component("kafkaHealthCheck")
-@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
-public class KafkaHealthCheck implements org.springframework.boot.actuate.health.HealthIndicator {
+@ConditionalOnExpression(KafkaHealthCheck.ENABLED)
+public class KafkaHealthCheck implements org.springframework.boot.actuate.health.HealthIndicator,
+        SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaHealthCheck.class);
+
+    /** Kafka habilitado y la topología como motor; con {@code engine.type=parallel} responde {@code parallelEngine} */
+    public static final String ENABLED = "${spring.kafka.enabled:true} and "
+            + "!'${engine.type:streams}'.equalsIgnoreCase('parallel')";
 
     private final ObjectProvider<List<StreamsBuilderFactoryBean>> factoriesProvider;
+    private final ObjectProvider<StateRestoreListener> restoreListeners;
+    private final RebalancePauseTimer pauseTimer;
 
     @Value("${spring.application.name:app}")
     private String appName;
@@ -33,66 +60,250 @@ public class KafkaHealthCheck implements org.springframework.boot.actuate.health
     @Value("${health.kafka.rebalancing-max:PT3M}")
     private Duration rebalancingMax;
 
+    /** Cada cuánto se recalcula la foto aunque no haya eventos (lag y timeout de rebalanceo) */
+    @Value("${health.kafka.sample-interval:PT5S}")
+    private Duration sampleInterval;
+
+    /** Registros pendientes de consumir por encima de los cuales la instancia no recibe tráfico; -1 lo ignora */
+    @Value("${health.kafka.readiness.max-lag:-1}")
+    private long maxLag;
+
+    /** Si es false, la instancia no está lista mientras restaura algún store */
+    @Value("${health.kafka.readiness.allow-restoring:false}")
+    private boolean allowRestoring;
+
     /** Timestamp por topología cuando entra a REBALANCING */
     private final ConcurrentMap<String, Instant> rebalancingSince = new ConcurrentHashMap<>();
 
-    public KafkaHealthCheck(ObjectProvider<List<StreamsBuilderFactoryBean>> factoriesProvider) {
+    /** Particiones de changelog en restauración por topología */
+    private final ConcurrentMap<String, ConcurrentMap<TopicPartition, Restoration>> restorations = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService sampler;
+    private volatile Snapshot snapshot;
+
+    public KafkaHealthCheck(ObjectProvider<List<StreamsBuilderFactoryBean>> factoriesProvider,
+                            ObjectProvider<StateRestoreListener> restoreListeners,
+                            RebalancePauseTimer pauseTimer) {
         this.factoriesProvider = factoriesProvider;
+        this.restoreListeners = restoreListeners;
+        this.pauseTimer = pauseTimer;
+    }
+
+    /** Registra los listeners antes de que arranquen las topologías y programa el muestreo. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<StreamsBuilderFactoryBean> factories = factories();
+        for (int i = 0; i < factories.size(); i++) {
+            String key = topologyKey(i);
+            factories.get(i).setStateListener((newState, oldState) -> onStateChange(key, newState));
+            factories.get(i).setStateRestoreListener(new CompositeStateRestoreListener(
+                    Stream.concat(Stream.of(new RestoreTracker(key)), restoreListeners.orderedStream()).toList()));
+        }
+
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kafka-health-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // La primera foto la calcula el primer probe
+        long interval = sampleInterval.toMillis();
+        sampler.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
     }
 
     @Override
     public Health health() {
-        List<StreamsBuilderFactoryBean> factories =
-                Optional.ofNullable(factoriesProvider.getIfAvailable())
-                        .orElseGet(Collections::emptyList);
+        return current().liveness();
+    }
+
+    public Health readiness() {
+        return current().readiness();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    void onStateChange(String key, State newState) {
+        if (newState == State.REBALANCING) {
+            rebalancingSince.putIfAbsent(key, Instant.now());
+        } else {
+            rebalancingSince.remove(key);
+        }
+        pauseTimer.onStateChange(key, newState);
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        // El listener corre en el hilo de stream: el recálculo va al hilo del muestreo
+        if (sampler != null && !sampler.isShutdown()) {
+            sampler.execute(this::refreshQuietly);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Kafka health refresh failed", e);
+        }
+    }
+
+    synchronized Snapshot refresh() {
+        List<StreamsBuilderFactoryBean> factories = factories();
 
         if (factories.isEmpty()) {
-            return Health.unknown().withDetail("reason", "No StreamsBuilderFactoryBean beans found").build();
+            Health unknown = Health.unknown().withDetail("reason", "No StreamsBuilderFactoryBean beans found").build();
+            return snapshot = new Snapshot(unknown, unknown);
         }
 
         boolean anyDown = false;
+        boolean anyNotReady = false;
         Map<String, Object> details = new LinkedHashMap<>();
+        Map<String, Object> readinessDetails = new LinkedHashMap<>();
 
         for (int i = 0; i < factories.size(); i++) {
-            StreamsBuilderFactoryBean f = factories.get(i);
-            String key = appName + "-topology-" + i;
-
-            KafkaStreams ks = f.getKafkaStreams();
-            if (ks == null) {
-                rebalancingSince.remove(key);
-                details.put(key, Map.of("state", "NOT_INITIALIZED", "threadCount", 0));
-                anyDown = true;
-                continue;
+            String key = topologyKey(i);
+            Map<String, Object> detail = new LinkedHashMap<>();
+            boolean alive = topologyDetail(key, factories.get(i).getKafkaStreams(), detail);
+            details.put(key, detail);
+            anyDown |= !alive;
+
+            Map<String, Object> readiness = new LinkedHashMap<>(detail);
+            String notReady = notReadyReason(alive, detail);
+            if (notReady != null) {
+                readiness.put("notReady", notReady);
+                anyNotReady = true;
             }
+            readinessDetails.put(key, readiness);
+        }
 
-            State state = ks.state();
-
-            if (state == State.REBALANCING) {
-                Instant since = rebalancingSince.computeIfAbsent(key, k -> Instant.now());
-                Duration elapsed = Duration.between(since, Instant.now());
-                boolean timeout = elapsed.compareTo(rebalancingMax) > 0;
-
-                details.put(key, Map.of(
-                        "state", timeout ? "REBALANCING_TIMEOUT" : "REBALANCING",
-                        "rebalancingFor", elapsed.toString(),
-                        "threshold", rebalancingMax.toString(),
-                        "threadCount", ks.localThreadsMetadata().size()
-                ));
-                if (timeout) anyDown = true;
-                continue;
-            } else {
-                rebalancingSince.remove(key);
+        Health liveness = Health.status(anyDown ? Status.DOWN : Status.UP)
+                .withDetail("application", appName).withDetails(details).build();
+        Health readiness = Health.status(anyNotReady ? Status.OUT_OF_SERVICE : Status.UP)
+                .withDetail("application", appName).withDetails(readinessDetails).build();
+        return snapshot = new Snapshot(liveness, readiness);
+    }
+
+    /** @return si la topología está viva; rellena {@code detail} con lo que verán los probes */
+    private boolean topologyDetail(String key, KafkaStreams ks, Map<String, Object> detail) {
+        if (ks == null) {
+            rebalancingSince.remove(key);
+            detail.put("state", "NOT_INITIALIZED");
+            detail.put("threadCount", 0);
+            return false;
+        }
+
+        State state = ks.state();
+        boolean alive;
+        if (state == State.REBALANCING) {
+            Instant since = rebalancingSince.computeIfAbsent(key, k -> Instant.now());
+            Duration elapsed = Duration.between(since, Instant.now());
+            boolean timeout = elapsed.compareTo(rebalancingMax) > 0;
+
+            detail.put("state", timeout ? "REBALANCING_TIMEOUT" : "REBALANCING");
+            detail.put("rebalancingFor", elapsed.toString());
+            detail.put("threshold", rebalancingMax.toString());
+            alive = !timeout;
+        } else {
+            rebalancingSince.remove(key);
+            detail.put("state", state.name());
+            alive = state == State.RUNNING;
+        }
+
+        detail.put("threadCount", state.isRunningOrRebalancing() ? ks.metadataForLocalThreads().size() : 0);
+        detail.put("consumerLag", consumerLag(ks));
+        detail.put("restoringRecords", restorations.getOrDefault(key, new ConcurrentHashMap<>()).values().stream()
+                .mapToLong(Restoration::remaining).sum());
+        return alive;
+    }
+
+    private String notReadyReason(boolean alive, Map<String, Object> detail) {
+        if (!alive) {
+            return "state " + detail.get("state");
+        }
+        if (!allowRestoring && (long) detail.get("restoringRecords") > 0) {
+            return "restoring state stores";
+        }
+        if (maxLag >= 0 && (long) detail.get("consumerLag") > maxLag) {
+            return "consumer lag above " + maxLag;
+        }
+        return null;
+    }
+
+    /** Suma el {@code records-lag} por partición de los consumidores principales (no el de restauración). */
+    static long consumerLag(KafkaStreams ks) {
+        double lag = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : ks.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if ("records-lag".equals(name.name())
+                    && "consumer-fetch-manager-metrics".equals(name.group())
+                    && name.tags().containsKey("partition")
+                    && !name.tags().getOrDefault("client-id", "").endsWith("restore-consumer")
+                    && entry.getValue().metricValue() instanceof Number value
+                    && !Double.isNaN(value.doubleValue())) {
+                lag += value.doubleValue();
             }
+        }
+        return (long) lag;
+    }
+
+    private List<StreamsBuilderFactoryBean> factories() {
+        return Optional.ofNullable(factoriesProvider.getIfAvailable()).orElseGet(Collections::emptyList);
+    }
+
+    private String topologyKey(int index) {
+        return appName + "-topology-" + index;
+    }
 
-            boolean up = (state == State.RUNNING);
-            details.put(key, Map.of(
-                    "state", state.name(),
-                    "threadCount", ks.localThreadsMetadata().size()
-            ));
-            if (!up) anyDown = true;
+    private record Snapshot(Health liveness, Health readiness) { }
+
+    private record Restoration(long endingOffset, long restoredOffset) {
+        long remaining() {
+            return Math.max(0, endingOffset - restoredOffset);
         }
+    }
 
-        Status overall = anyDown ? Status.DOWN : Status.UP;
-        return Health.status(overall).withDetail("application", appName).withDetails(details).build();
+    /** Sigue el avance de cada partición de changelog restaurada por la topología {@code key}. */
+    class RestoreTracker implements StateRestoreListener {
+        private final String key;
+
+        RestoreTracker(String key) {
+            this.key = key;
+        }
+
+        private ConcurrentMap<TopicPartition, Restoration> partitions() {
+            return restorations.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+
+        @Override
+        public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+            partitions().put(partition, new Restoration(endingOffset, startingOffset));
+            scheduleRefresh();
+        }
+
+        @Override
+        public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+            partitions().computeIfPresent(partition, (p, r) -> new Restoration(r.endingOffset(), batchEndOffset));
+        }
+
+        @Override
+        public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+            partitions().remove(partition);
+            scheduleRefresh();
+        }
+
+        @Override
+        public void onRestoreSuspended(TopicPartition partition, String storeName, long totalRestored) {
+            partitions().remove(partition);
+            scheduleRefresh();
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.labs.repartitioner.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness de Kafka Streams: además del estado, saca la instancia del servicio mientras restaura
+ * stores o su lag supera {@code health.kafka.readiness.max-lag}. Lee la foto de {@link KafkaHealthCheck}.
+ */
+@Component("kafkaReadiness")
+@ConditionalOnExpression(KafkaHealthCheck.ENABLED)
+public class KafkaReadinessCheck implements HealthIndicator {
+
+    private final KafkaHealthCheck kafkaHealthCheck;
+
+    public KafkaReadinessCheck(KafkaHealthCheck kafkaHealthCheck) {
+        this.kafkaHealthCheck = kafkaHealthCheck;
+    }
+
+    @Override
+    public Health health() {
+        return kafkaHealthCheck.readiness();
+    }
+}
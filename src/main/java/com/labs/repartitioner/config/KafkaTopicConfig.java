@@ -2,6 +2,7 @@ package com.labs.repartitioner.config;
 
 import com.labs.repartitioner.constant.TopicEnum;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.config.TopicBuilder;
@@ -17,4 +18,14 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
+
+    /** Tópico de claves nuevas que drena RedisWriteBehindConsumer (redis.sink.mode=write-behind) */
+    @Bean
+    @ConditionalOnExpression(RedisWriteBehindConfig.ENABLED)
+    public NewTopic createRedisSinkTopic() {
+        return TopicBuilder.name(TopicEnum.REDIS_SINK.getName())
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
 }
@@ -0,0 +1,135 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.topology.UpperCaseKeyPartitioner;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Con {@code topology.co-partitioned=true} la topología no reparticiona, así que cada registro debe
+ * llegar ya a la partición de su clave normalizada. Antes de que arranque Kafka Streams se leen los
+ * últimos registros de cada partición y se comprueba el contrato de {@link UpperCaseKeyPartitioner}.
+ * Si Kafka no responde el contrato queda sin validar, y eso cuenta como una violación.
+ */
+@Component
+@ConditionalOnExpression("${spring.kafka.enabled:true} and ${topology.co-partitioned:false}")
+public class PartitioningContractValidator implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitioningContractValidator.class);
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerSupplier;
+
+    /** Registros a revisar por partición */
+    @Value("${topology.co-partitioned-validation.sample-size:100}")
+    private int sampleSize;
+
+    @Value("${topology.co-partitioned-validation.timeout:PT10S}")
+    private Duration timeout;
+
+    /** Si es false sólo se registra el error (o que no se pudo validar) y la aplicación arranca igual */
+    @Value("${topology.co-partitioned-validation.fail-on-violation:true}")
+    private boolean failOnViolation;
+
+    @Autowired
+    public PartitioningContractValidator(KafkaProperties kafkaProperties) {
+        this(() -> new KafkaConsumer<>(kafkaProperties.buildConsumerProperties(null),
+                new ByteArrayDeserializer(), new ByteArrayDeserializer()));
+    }
+
+    PartitioningContractValidator(Supplier<Consumer<byte[], byte[]>> consumerSupplier) {
+        this.consumerSupplier = consumerSupplier;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Result result = validate();
+        if (!result.validated()) {
+            String message = "Co-partitioning contract of " + TopicEnum.UPPERCASE.getName()
+                    + " not validated: Kafka not reachable";
+            if (failOnViolation) {
+                throw new IllegalStateException(message + "; retry, disable topology.co-partitioned or "
+                        + "topology.co-partitioned-validation.fail-on-violation");
+            }
+            log.warn(message);
+            return;
+        }
+        if (result.violations() == 0) {
+            log.info("Co-partitioning contract holds for {} sampled records of {}",
+                    result.checked(), TopicEnum.UPPERCASE.getName());
+            return;
+        }
+        String message = String.format("%d of %d sampled records of %s are not partitioned by their upper-cased key",
+                result.violations(), result.checked(), TopicEnum.UPPERCASE.getName());
+        if (failOnViolation) {
+            throw new IllegalStateException(message + "; disable topology.co-partitioned or fix the producers");
+        }
+        log.error(message);
+    }
+
+    public Result validate() {
+        String topic = TopicEnum.UPPERCASE.getName();
+        try (Consumer<byte[], byte[]> consumer = consumerSupplier.get()) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic, timeout);
+            if (infos == null || infos.isEmpty()) {
+                log.info("Topic {} not found; no records to validate", topic);
+                return new Result(0, 0, true);
+            }
+            int numPartitions = infos.size();
+            List<TopicPartition> partitions = infos.stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> begin = consumer.beginningOffsets(partitions, timeout);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions, timeout);
+            long remaining = 0;
+            for (TopicPartition tp : partitions) {
+                long from = Math.max(begin.get(tp), end.get(tp) - sampleSize);
+                consumer.seek(tp, from);
+                remaining += end.get(tp) - from;
+            }
+
+            int checked = 0;
+            int violations = 0;
+            Instant deadline = Instant.now().plus(timeout);
+            while (remaining > 0 && Instant.now().isBefore(deadline)) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                    remaining--;
+                    if (record.key() == null) {
+                        continue;
+                    }
+                    checked++;
+                    if (UpperCaseKeyPartitioner.partitionFor(record.key(), numPartitions) != record.partition()) {
+                        violations++;
+                    }
+                }
+            }
+            return new Result(checked, violations, true);
+        } catch (org.apache.kafka.common.errors.TimeoutException e) {
+            log.warn("Kafka not reachable; co-partitioning contract not validated: {}", e.getMessage());
+            return new Result(0, 0, false);
+        }
+    }
+
+    /** @param validated false si no se pudo leer el tópico; entonces no hay muestra que compruebe nada */
+    public record Result(int checked, int violations, boolean validated) {
+    }
+}
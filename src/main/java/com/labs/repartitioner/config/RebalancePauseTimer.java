@@ -0,0 +1,48 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.streams.KafkaStreams.State;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mide cada paso de una topología por REBALANCING en {@code kafka.streams.rebalance.pause}, desde que
+ * entra hasta el siguiente cambio de estado. {@link KafkaHealthCheck} le pasa los cambios de estado.
+ */
+@Component
+@ConditionalOnExpression(KafkaHealthCheck.ENABLED)
+public class RebalancePauseTimer implements MeterBinder {
+
+    /** Inicio del rebalanceo en curso por topología */
+    private final ConcurrentMap<String, Instant> pausedSince = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void onStateChange(String topology, State newState) {
+        if (newState == State.REBALANCING) {
+            pausedSince.putIfAbsent(topology, Instant.now());
+            return;
+        }
+        Instant since = pausedSince.remove(topology);
+        MeterRegistry current = registry;
+        if (since != null && current != null) {
+            Timer.builder("kafka.streams.rebalance.pause")
+                    .description("Time a topology spent REBALANCING; with cooperative rebalancing only moved tasks stop")
+                    .tag("topology", topology)
+                    .register(current)
+                    .record(Duration.between(since, Instant.now()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.topology.RecordTracer;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/recordtracing}: consulta y cambia en caliente el muestreo de trazas de registros,
+ * p. ej. {@code POST {"prefixes": ["ORDER-42"]}} para seguir una clave sin subir el muestreo global.
+ */
+@Component
+@Endpoint(id = "recordtracing")
+public class RecordTracingEndpoint {
+
+    private final RecordTracer recordTracer;
+
+    public RecordTracingEndpoint(RecordTracer recordTracer) {
+        this.recordTracer = recordTracer;
+    }
+
+    @ReadOperation
+    public RecordTracer.Settings settings() {
+        return recordTracer.settings();
+    }
+
+    @WriteOperation
+    public RecordTracer.Settings update(@Nullable Double sampleRate, @Nullable List<String> prefixes,
+                                        @Nullable Integer ratePerSecond) {
+        try {
+            return recordTracer.update(sampleRate, prefixes, ratePerSecond);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -3,11 +3,19 @@ package com.labs.repartitioner.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.redis.CompactBinaryRedisSerializer;
+import com.labs.repartitioner.redis.Utf8RedisSerializer;
+import io.lettuce.core.ReadFrom;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -25,9 +33,36 @@ public class RedisConfig {
         return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 
+    /**
+     * Codec de valores según {@code redis.codec}. Los codecs UTF8 y BINARY siguen leyendo
+     * las entradas que ya están guardadas en JSON.
+     */
+    @Bean
+    public RedisSerializer<Object> valueSerializer(@Value("${redis.codec:json}") RedisValueCodec codec,
+                                                   GenericJackson2JsonRedisSerializer serializer) {
+        return switch (codec) {
+            case JSON -> serializer;
+            case UTF8 -> new Utf8RedisSerializer(serializer);
+            case BINARY -> new CompactBinaryRedisSerializer(serializer);
+        };
+    }
+
+    /**
+     * Lecturas desde réplicas de Redis Cluster según {@code redis.read-from} (upstreamPreferred,
+     * replicaPreferred, nearest, any...). Las escrituras van siempre al master del slot; vacío lee del master.
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer readFromCustomizer(@Value("${redis.read-from:}") String readFrom) {
+        return builder -> {
+            if (!readFrom.isBlank()) {
+                builder.readFrom(ReadFrom.valueOf(readFrom.trim()));
+            }
+        };
+    }
+
     @Bean
     public RedisTemplate<String, Object> objectRedisTemplate(LettuceConnectionFactory connectionFactory,
-                                                             GenericJackson2JsonRedisSerializer serializer) {
+                                                             @Qualifier("valueSerializer") RedisSerializer<Object> serializer) {
         var template = new RedisTemplate<String, Object>();
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
@@ -0,0 +1,84 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consumidor por lotes del tópico de sink en modo write-behind, con su propio grupo y concurrencia.
+ * Si Redis falla el lote se reintenta entero sin límite (SET NX es idempotente) con el consumidor
+ * en pausa: la caída se acumula como lag del grupo en lugar de provocar rebalanceos.
+ * La asignación cooperativa y la membresía estática vienen de {@link RolloutConfig}.
+ */
+@Configuration
+@ConditionalOnExpression(RedisWriteBehindConfig.ENABLED)
+public class RedisWriteBehindConfig {
+
+    /** Kafka habilitado y {@code redis.sink.mode=write-behind} */
+    public static final String ENABLED = "${spring.kafka.enabled:true} and "
+            + "'${redis.sink.mode:batch}'.replace('_', '-').equalsIgnoreCase('write-behind')";
+
+    public static final String CONTAINER_FACTORY = "redisWriteBehindContainerFactory";
+
+    @Value("${spring.application.name:app}")
+    private String appName;
+
+    /** Registros por poll, es decir, claves por lote hacia Redis */
+    @Value("${redis.sink.write-behind.batch-size:2000}")
+    private int batchSize;
+
+    /** Consumidores por pod, hasta el número de particiones del tópico de sink */
+    @Value("${redis.sink.write-behind.concurrency:1}")
+    private int concurrency;
+
+    @Value("${redis.sink.write-behind.retry.initial-interval:PT0.5S}")
+    private Duration retryInitialInterval;
+
+    @Value("${redis.sink.write-behind.retry.max-interval:PT30S}")
+    private Duration retryMaxInterval;
+
+    @Bean(CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, String> redisWriteBehindContainerFactory(
+            KafkaProperties kafkaProperties, MeterRegistry meterRegistry, RolloutConfig rolloutConfig) {
+        Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, appName + "-redis-sink");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.putAll(rolloutConfig.consumerProperties());
+
+        var consumerFactory = new DefaultKafkaConsumerFactory<String, String>(props);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        // Sin tiempo máximo: se reintenta hasta que Redis vuelva
+        var backOff = new ExponentialBackOff(retryInitialInterval.toMillis(), 2.0);
+        backOff.setMaxInterval(retryMaxInterval.toMillis());
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // Al parar, el lote en curso termina y se confirma antes de cerrar el consumidor
+        factory.getContainerProperties().setShutdownTimeout(rolloutConfig.shutdownTimeout().toMillis());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+}
@@ -0,0 +1,40 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Uso del block cache compartido de {@link BoundedRocksDBConfigSetter}. Las métricas por store de
+ * Kafka Streams (memtables, compactaciones pendientes, claves estimadas) ya llegan por el listener de
+ * Micrometer; su {@code block-cache-usage} repite el mismo cache en cada store, por eso el total va aquí.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class RocksDBMemoryMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "rocksdb.shared.memory.budget", "Native memory budget shared by all RocksDB stores",
+                BoundedRocksDBConfigSetter.SharedMemory::budget);
+        gauge(registry, "rocksdb.shared.block.cache.usage", "Bytes in the shared block cache, memtables included",
+                memory -> memory.cache().getUsage());
+        gauge(registry, "rocksdb.shared.block.cache.pinned.usage", "Pinned bytes in the shared block cache",
+                memory -> memory.cache().getPinnedUsage());
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String description,
+                              ToLongFunction<BoundedRocksDBConfigSetter.SharedMemory> value) {
+        Gauge.builder(name, () -> {
+                    var memory = BoundedRocksDBConfigSetter.sharedMemory();
+                    return memory == null ? 0 : value.applyAsLong(memory);
+                })
+                .description(description)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
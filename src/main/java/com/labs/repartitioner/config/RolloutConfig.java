@@ -0,0 +1,104 @@
+package com.labs.repartitioner.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Despliegues sin rebalanceos de todo el grupo. Con {@code rollout.static-membership.enabled} cada pod
+ * entra a los grupos con un {@code group.instance.id} estable (el nombre del pod del StatefulSet):
+ * si vuelve antes de {@code rollout.session-timeout} recupera sus particiones sin rebalanceo.
+ * Kafka Streams ya rebalancea de forma cooperativa; el consumidor write-behind usa
+ * {@link CooperativeStickyAssignor}, así que sólo se mueven las particiones que cambian de dueño.
+ * <p>
+ * Al parar, Kafka Streams vacía los lotes de Redis pendientes ({@code RedisSinkStore#flush}) y hace
+ * commit antes de cerrar; {@code rollout.shutdown-timeout} acota esa espera. Sin membresía estática el
+ * pod además sale del grupo al cerrar, para que sus tareas se reasignen sin esperar al timeout de sesión:
+ * Kafka Streams lo impide por defecto ({@code internal.leave.group.on.close=false}) y
+ * {@code CloseOptions#leaveGroup} sólo afecta a miembros estáticos, así que se activa en el consumidor principal.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class RolloutConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RolloutConfig.class);
+
+    /** Config interna del consumidor: al cerrar envía LeaveGroup en lugar de esperar al timeout de sesión */
+    static final String LEAVE_GROUP_ON_CLOSE = "internal.leave.group.on.close";
+
+    private final boolean staticMembership;
+    private final String instanceId;
+    private final Duration sessionTimeout;
+    private final Duration shutdownTimeout;
+
+    /**
+     * @param instanceId      identidad estable del pod; por defecto {@code POD_NAME}.
+     * @param sessionTimeout  cuánto espera el broker a un miembro estático antes de repartir sus particiones.
+     * @param shutdownTimeout espera máxima al cerrar Kafka Streams (escrituras en Redis y commit).
+     */
+    public RolloutConfig(@Value("${rollout.static-membership.enabled:false}") boolean staticMembership,
+                         @Value("${rollout.instance-id:${POD_NAME:}}") String instanceId,
+                         @Value("${rollout.session-timeout:PT45S}") Duration sessionTimeout,
+                         @Value("${rollout.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        if (staticMembership && instanceId.isBlank()) {
+            throw new IllegalStateException(
+                    "rollout.static-membership.enabled requires rollout.instance-id or POD_NAME");
+        }
+        this.staticMembership = staticMembership;
+        this.instanceId = instanceId.trim();
+        this.sessionTimeout = sessionTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer rolloutStreamsConfigurer() {
+        return factoryBean -> {
+            Properties props = new Properties();
+            if (factoryBean.getStreamsConfiguration() != null) {
+                props.putAll(factoryBean.getStreamsConfiguration());
+            }
+            if (staticMembership) {
+                // Kafka Streams añade el índice del hilo: <instancia>-1, <instancia>-2...
+                props.put(StreamsConfig.mainConsumerPrefix(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG), instanceId);
+                props.put(StreamsConfig.mainConsumerPrefix(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG),
+                        (int) sessionTimeout.toMillis());
+                log.info("Kafka Streams static membership as {} (session timeout {})", instanceId, sessionTimeout);
+            } else {
+                props.put(StreamsConfig.mainConsumerPrefix(LEAVE_GROUP_ON_CLOSE), true);
+            }
+            factoryBean.setStreamsConfiguration(props);
+            factoryBean.setCloseTimeout((int) shutdownTimeout.toSeconds());
+        };
+    }
+
+    /**
+     * Propiedades para los consumidores con grupo fuera de Kafka Streams. Con concurrencia, el contenedor
+     * de Spring Kafka añade el sufijo de cada consumidor al {@code group.instance.id}.
+     */
+    public Map<String, Object> consumerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        if (staticMembership) {
+            props.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, instanceId);
+            props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, (int) sessionTimeout.toMillis());
+        }
+        return props;
+    }
+
+    /** Espera máxima de los consumidores al parar, para terminar el lote en curso y confirmarlo. */
+    public Duration shutdownTimeout() {
+        return shutdownTimeout;
+    }
+}
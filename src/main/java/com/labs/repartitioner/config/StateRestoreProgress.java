@@ -0,0 +1,199 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Avance de la restauración de cada store desde su changelog: registros restaurados y pendientes,
+ * ritmo y tiempo estimado, como métricas {@code state.restore.*} y en {@code /actuator/health}.
+ * Kafka Streams admite un solo listener de restauración; {@link KafkaHealthCheck} registra un
+ * {@link CompositeStateRestoreListener} que reenvía aquí los eventos. Mientras haya particiones
+ * restaurando, RocksDB usa el perfil de carga masiva de {@link BoundedRocksDBConfigSetter#setRestoring}.
+ */
+@Component("stateRestore")
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class StateRestoreProgress implements StateRestoreListener, MeterBinder, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(StateRestoreProgress.class);
+
+    /** Reloj del ritmo y del tiempo estimado; los tests lo sustituyen */
+    Clock clock = Clock.systemUTC();
+
+    private final ConcurrentMap<String, StoreProgress> stores = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        stores.forEach((store, progress) -> register(registry, store, progress));
+    }
+
+    @Override
+    public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+        store(storeName).start(partition, startingOffset, endingOffset, clock.instant());
+        log.info("Restoring {} {} from offset {} to {}", storeName, partition, startingOffset, endingOffset);
+        updateRestoring();
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+        store(storeName).restored(partition, batchEndOffset, numRestored);
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+        store(storeName).end(partition);
+        log.info("Restored {} {}: {} records", storeName, partition, totalRestored);
+        updateRestoring();
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition partition, String storeName, long totalRestored) {
+        store(storeName).end(partition);
+        log.info("Restoration of {} {} suspended after {} records", storeName, partition, totalRestored);
+        updateRestoring();
+    }
+
+    private StoreProgress store(String storeName) {
+        return stores.computeIfAbsent(storeName, name -> {
+            var progress = new StoreProgress();
+            MeterRegistry current = registry;
+            if (current != null) {
+                register(current, name, progress);
+            }
+            return progress;
+        });
+    }
+
+    private synchronized void updateRestoring() {
+        BoundedRocksDBConfigSetter.setRestoring(stores.values().stream().anyMatch(StoreProgress::isRestoring));
+    }
+
+    private void register(MeterRegistry registry, String store, StoreProgress progress) {
+        Gauge.builder("state.restore.remaining", progress, StoreProgress::remaining)
+                .tag("store", store).baseUnit("records")
+                .description("Changelog records left to restore").register(registry);
+        Gauge.builder("state.restore.partitions", progress, StoreProgress::partitions)
+                .tag("store", store)
+                .description("Changelog partitions being restored").register(registry);
+        Gauge.builder("state.restore.rate", progress, p -> p.rate(clock.instant()))
+                .tag("store", store).baseUnit("records.per.second")
+                .description("Records restored per second since the restoration started").register(registry);
+        Gauge.builder("state.restore.eta", progress, p -> p.eta(clock.instant()))
+                .tag("store", store).baseUnit("seconds")
+                .description("Estimated time to finish the restoration; -1 while unknown").register(registry);
+        FunctionCounter.builder("state.restore.records", progress, StoreProgress::restoredTotal)
+                .tag("store", store).baseUnit("records")
+                .description("Records restored from the changelog").register(registry);
+    }
+
+    @Override
+    public Health health() {
+        Instant now = clock.instant();
+        Map<String, Object> details = new LinkedHashMap<>();
+        boolean restoring = false;
+        for (Map.Entry<String, StoreProgress> entry : stores.entrySet()) {
+            StoreProgress progress = entry.getValue();
+            restoring |= progress.isRestoring();
+            details.put(entry.getKey(), progress.details(now));
+        }
+        return Health.up().withDetail("restoring", restoring).withDetails(details).build();
+    }
+
+    /** Particiones en restauración de un store y el avance del episodio actual. */
+    static class StoreProgress {
+        private final Map<TopicPartition, long[]> partitions = new HashMap<>();
+        private Instant startedAt;
+        private long restoredSinceStart;
+        private long restoredTotal;
+
+        synchronized void start(TopicPartition partition, long startingOffset, long endingOffset, Instant now) {
+            if (partitions.isEmpty()) {
+                startedAt = now;
+                restoredSinceStart = 0;
+            }
+            // {offset restaurado, offset final}
+            partitions.put(partition, new long[] {startingOffset, endingOffset});
+        }
+
+        synchronized void restored(TopicPartition partition, long batchEndOffset, long numRestored) {
+            long[] offsets = partitions.get(partition);
+            if (offsets != null) {
+                offsets[0] = batchEndOffset;
+            }
+            restoredSinceStart += numRestored;
+            restoredTotal += numRestored;
+        }
+
+        synchronized void end(TopicPartition partition) {
+            partitions.remove(partition);
+        }
+
+        synchronized boolean isRestoring() {
+            return !partitions.isEmpty();
+        }
+
+        synchronized int partitions() {
+            return partitions.size();
+        }
+
+        synchronized long remaining() {
+            return partitions.values().stream().mapToLong(o -> Math.max(0, o[1] - o[0])).sum();
+        }
+
+        synchronized long restoredTotal() {
+            return restoredTotal;
+        }
+
+        synchronized double rate(Instant now) {
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            double seconds = Duration.between(startedAt, now).toMillis() / 1000.0;
+            return seconds <= 0 ? 0 : restoredSinceStart / seconds;
+        }
+
+        synchronized double eta(Instant now) {
+            long remaining = remaining();
+            if (remaining == 0) {
+                return 0;
+            }
+            double rate = rate(now);
+            return rate <= 0 ? -1 : remaining / rate;
+        }
+
+        synchronized Map<String, Object> details(Instant now) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("partitions", partitions.size());
+            details.put("remainingRecords", remaining());
+            if (!partitions.isEmpty()) {
+                double eta = eta(now);
+                details.put("restoredRecords", restoredSinceStart);
+                details.put("recordsPerSecond", Math.round(rate(now)));
+                details.put("restoringFor", Duration.between(startedAt, now).toString());
+                details.put("eta", eta < 0 ? "unknown" : Duration.ofMillis((long) (eta * 1000)).toString());
+            }
+            details.put("restoredTotal", restoredTotal);
+            return details;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.labs.repartitioner.config;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.ThreadMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajusta los hilos de stream del pod entre {@code min-threads} y {@code max-threads} según el lag local
+ * por hilo y la latencia de proceso. Cada hilo añadido o quitado provoca un rebalanceo, por eso hay
+ * histéresis: umbrales distintos para subir y bajar, varias muestras seguidas por encima o por debajo
+ * y un tiempo de espera tras cada cambio. Las decisiones se ven en {@code /actuator/health}.
+ */
+@Component("streamThreadScaling")
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class StreamThreadScaler implements HealthIndicator, SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamThreadScaler.class);
+    private static final int HISTORY = 10;
+
+    private final StreamsBuilderFactoryBean factoryBean;
+
+    /** Reloj de las esperas entre cambios; los tests lo sustituyen */
+    Clock clock = Clock.systemUTC();
+
+    @Value("${streams.thread-scaling.enabled:false}")
+    private boolean enabled;
+
+    @Value("${streams.thread-scaling.interval:PT30S}")
+    private Duration interval;
+
+    @Value("${streams.thread-scaling.min-threads:1}")
+    private int minThreads;
+
+    @Value("${streams.thread-scaling.max-threads:4}")
+    private int maxThreads;
+
+    /** Hilos por núcleo disponible: el trabajo espera sobre todo a Redis, no a la CPU */
+    @Value("${streams.thread-scaling.threads-per-core:2}")
+    private int threadsPerCore;
+
+    /** Lag local por hilo a partir del cual se añade un hilo */
+    @Value("${streams.thread-scaling.scale-up-lag:5000}")
+    private long scaleUpLag;
+
+    /** Lag local por hilo por debajo del cual se puede quitar un hilo */
+    @Value("${streams.thread-scaling.scale-down-lag:500}")
+    private long scaleDownLag;
+
+    /** Con la latencia media de proceso por encima de este valor no se quitan hilos */
+    @Value("${streams.thread-scaling.max-process-latency:PT0.05S}")
+    private Duration maxProcessLatency;
+
+    /** Muestras seguidas que deben pedir el mismo cambio antes de aplicarlo */
+    @Value("${streams.thread-scaling.stable-samples:3}")
+    private int stableSamples;
+
+    /** Espera mínima tras un cambio (o un rebalanceo) antes del siguiente */
+    @Value("${streams.thread-scaling.cooldown:PT2M}")
+    private Duration cooldown;
+
+    private final Deque<Decision> decisions = new ArrayDeque<>();
+    private ScheduledExecutorService scheduler;
+    private int pendingDirection;
+    private int pendingSamples;
+    private Instant lastChange = Instant.EPOCH;
+
+    public StreamThreadScaler(StreamsBuilderFactoryBean factoryBean) {
+        this.factoryBean = factoryBean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stream-thread-scaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                evaluate();
+            } catch (RuntimeException e) {
+                log.warn("Stream thread scaling failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /** Toma una muestra y, si la histéresis lo permite, añade o quita un hilo. */
+    synchronized void evaluate() {
+        KafkaStreams ks = factoryBean.getKafkaStreams();
+        if (ks == null || ks.state() != KafkaStreams.State.RUNNING) {
+            // Un rebalanceo también reinicia la espera: sus efectos aún no se ven en el lag
+            resetPending();
+            lastChange = clock.instant();
+            return;
+        }
+
+        Set<ThreadMetadata> threadMetadata = ks.metadataForLocalThreads();
+        int threads = threadMetadata.size();
+        int tasks = threadMetadata.stream().mapToInt(t -> t.activeTasks().size()).sum();
+        int cap = Math.min(maxThreads, Math.min(Runtime.getRuntime().availableProcessors() * threadsPerCore,
+                Math.max(tasks, minThreads)));
+        long lagPerThread = KafkaHealthCheck.consumerLag(ks) / Math.max(1, threads);
+        double latencyMs = maxProcessLatencyMs(ks);
+
+        int direction = 0;
+        String reason;
+        if (threads < minThreads) {
+            direction = 1;
+            reason = "below min-threads " + minThreads;
+        } else if (threads > cap) {
+            direction = -1;
+            reason = "above cap " + cap;
+        } else if (lagPerThread > scaleUpLag && threads < cap) {
+            direction = 1;
+            reason = "lag per thread " + lagPerThread + " > " + scaleUpLag;
+        } else if (lagPerThread < scaleDownLag && latencyMs < maxProcessLatency.toMillis() && threads > minThreads) {
+            direction = -1;
+            reason = "lag per thread " + lagPerThread + " < " + scaleDownLag;
+        } else {
+            resetPending();
+            return;
+        }
+
+        if (direction != pendingDirection) {
+            pendingDirection = direction;
+            pendingSamples = 0;
+        }
+        pendingSamples++;
+        Instant now = clock.instant();
+        if (pendingSamples < stableSamples || now.isBefore(lastChange.plus(cooldown))) {
+            return;
+        }
+
+        resetPending();
+        lastChange = now;
+        if (direction > 0) {
+            var added = ks.addStreamThread();
+            record(added.isPresent() ? "ADDED" : "ADD_FAILED", added.orElse(null), threads, reason, now);
+        } else {
+            var removed = ks.removeStreamThread(interval);
+            record(removed.isPresent() ? "REMOVED" : "REMOVE_FAILED", removed.orElse(null), threads, reason, now);
+        }
+    }
+
+    private void resetPending() {
+        pendingDirection = 0;
+        pendingSamples = 0;
+    }
+
+    private void record(String action, String thread, int threadsBefore, String reason, Instant at) {
+        var decision = new Decision(action, thread, threadsBefore, reason, at);
+        log.info("Stream thread scaling: {}", decision);
+        synchronized (decisions) {
+            decisions.addFirst(decision);
+            if (decisions.size() > HISTORY) {
+                decisions.removeLast();
+            }
+        }
+    }
+
+    /** Mayor {@code process-latency-avg} (ms) entre los hilos del pod. */
+    private static double maxProcessLatencyMs(KafkaStreams ks) {
+        double max = 0;
+        for (Map.Entry<MetricName, ? extends Metric> entry : ks.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if ("process-latency-avg".equals(name.name()) && "stream-thread-metrics".equals(name.group())
+                    && entry.getValue().metricValue() instanceof Number value && !Double.isNaN(value.doubleValue())) {
+                max = Math.max(max, value.doubleValue());
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", enabled);
+        details.put("minThreads", minThreads);
+        details.put("maxThreads", maxThreads);
+        KafkaStreams ks = factoryBean.getKafkaStreams();
+        if (ks != null && ks.state().isRunningOrRebalancing()) {
+            details.put("threads", ks.metadataForLocalThreads().size());
+        }
+        synchronized (decisions) {
+            details.put("decisions", List.copyOf(decisions));
+        }
+        return Health.up().withDetails(details).build();
+    }
+
+    /** @param thread hilo añadido o quitado, {@code null} si Kafka Streams no pudo hacerlo */
+    public record Decision(String action, String thread, int threadsBefore, String reason, Instant at) { }
+}
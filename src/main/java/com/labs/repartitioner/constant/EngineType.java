@@ -0,0 +1,11 @@
+package com.labs.repartitioner.constant;
+
+public enum EngineType {
+    /** Topología de Kafka Streams: un hilo por partición, store y tópicos internos */
+    STREAMS,
+    /**
+     * Consumidor por lotes que reparte los registros en un pool de workers: en orden por clave y en
+     * paralelo entre claves, sin el límite de un hilo por partición. Sólo escribe en Redis
+     */
+    PARALLEL
+}
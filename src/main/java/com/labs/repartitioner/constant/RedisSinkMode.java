@@ -0,0 +1,13 @@
+package com.labs.repartitioner.constant;
+
+public enum RedisSinkMode {
+    /** Lotes con pipeline de SET NX, vaciados por tamaño, tiempo y commit */
+    BATCH,
+    /** Comandos asíncronos de Lettuce con una ventana acotada de comandos en vuelo */
+    ASYNC,
+    /**
+     * La topología sólo publica las claves nuevas en {@code uppercase-redis-sink}; un consumidor aparte
+     * las escribe en Redis por lotes, así una caída de Redis se ve como lag y no como rebalanceos
+     */
+    WRITE_BEHIND
+}
@@ -0,0 +1,10 @@
+package com.labs.repartitioner.constant;
+
+public enum RedisValueCodec {
+    /** JSON de Jackson con metadatos de tipo (formato histórico) */
+    JSON,
+    /** Texto UTF-8 sin comillas ni metadatos */
+    UTF8,
+    /** Binario con marca, tipo y largo; los tipos no soportados se guardan como JSON */
+    BINARY
+}
@@ -0,0 +1,17 @@
+package com.labs.repartitioner.constant;
+
+import java.util.Locale;
+
+public enum RocksDBProfile {
+    /** Sólo la memoria acotada y compartida; el resto con los valores de Kafka Streams */
+    DEFAULT,
+    /** Lecturas por clave (toTable, consultas interactivas): filtros bloom fijados e índice hash por bloque */
+    POINT_LOOKUP,
+    /** Mucha escritura: más memtables antes del flush y compactación de L0 más tardía */
+    WRITE_HEAVY;
+
+    /** Acepta el nombre en minúsculas con guiones, p. ej. {@code point-lookup}. */
+    public static RocksDBProfile from(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,9 @@
+package com.labs.repartitioner.constant;
+
+/** Qué hacer con un suscriptor del feed de cambios cuyo buffer está lleno. */
+public enum SlowSubscriberPolicy {
+    /** Se descartan los cambios que no caben; el suscriptor recibe un evento {@code dropped} con cuántos perdió */
+    DROP,
+    /** Se cierra la conexión; el cliente puede reconectar con el último id y retomar sin huecos */
+    DISCONNECT
+}
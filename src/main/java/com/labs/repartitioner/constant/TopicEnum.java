@@ -3,7 +3,8 @@ package com.labs.repartitioner.constant;
 public enum TopicEnum {
     UPPERCASE("uppercase"),
     UPPERCASE_STORAGE("uppercase-key-store"),
-    UPPERCASE_TABLE("uppercase-table");
+    UPPERCASE_TABLE("uppercase-table"),
+    REDIS_SINK("uppercase-redis-sink");
     private final String name;
 
     TopicEnum(String name) {
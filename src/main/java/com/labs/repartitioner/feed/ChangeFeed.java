@@ -0,0 +1,386 @@
+package com.labs.repartitioner.feed;
+
+import com.labs.repartitioner.constant.SlowSubscriberPolicy;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.topology.TransformPipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Feed de cambios de {@code uppercase-table} por Server-Sent Events. Un único lector por pod sigue el
+ * changelog de {@code uppercase-key-store} (todas las particiones, sin grupo de consumo) y reparte cada
+ * cambio a los suscriptores. Cada suscriptor tiene un buffer acotado y su propio hilo de envío: un cliente
+ * lento sólo llena su buffer y se le aplica {@link SlowSubscriberPolicy}, sin frenar al lector ni a los
+ * hilos de stream, que no saben nada del feed.
+ * <p>
+ * El id de cada evento es la posición del suscriptor en cada partición ({@code 0:15,1:7}). Con ese id, o
+ * con {@code earliest}, un suscriptor nuevo lee el changelog con un consumidor propio hasta alcanzar al
+ * lector y a partir de ahí recibe los cambios en vivo.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeFeed implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    static final String EARLIEST = "earliest";
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerSupplier;
+    private final TransformPipeline pipeline;
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "change-feed-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${spring.kafka.streams.application-id:${spring.application.name:app}}")
+    private String applicationId;
+
+    /** Cambios pendientes de enviar por suscriptor */
+    @Value("${change-feed.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${change-feed.slow-subscriber-policy:drop}")
+    private SlowSubscriberPolicy slowSubscriberPolicy;
+
+    /** Un hilo de envío por suscriptor: por encima se responde 503 */
+    @Value("${change-feed.max-subscribers:100}")
+    private int maxSubscribers;
+
+    /** Comentario enviado sin cambios para detectar clientes desconectados */
+    @Value("${change-feed.heartbeat-interval:PT15S}")
+    private Duration heartbeatInterval;
+
+    /** Espera máxima del primer suscriptor a que el lector se sitúe al final del changelog */
+    @Value("${change-feed.start-timeout:PT10S}")
+    private Duration startTimeout;
+
+    /** Protege {@link #live} y {@link #positions}: el lector reparte y avanza con él tomado */
+    private final Object lock = new Object();
+    private final List<ChangeFeedSubscription> live = new ArrayList<>();
+    /** Siguiente offset del lector por partición */
+    private final Map<Integer, Long> positions = new HashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+
+    private Thread reader;
+    private volatile Consumer<byte[], byte[]> readerConsumer;
+    private volatile CountDownLatch started = new CountDownLatch(1);
+    private volatile boolean running;
+
+    @Autowired
+    public ChangeFeed(KafkaProperties kafkaProperties, TransformPipeline pipeline) {
+        this(() -> {
+            Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+            props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+            props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+            return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        }, pipeline);
+    }
+
+    ChangeFeed(Supplier<Consumer<byte[], byte[]>> consumerSupplier, TransformPipeline pipeline) {
+        this.consumerSupplier = consumerSupplier;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * @param prefix sólo claves con este prefijo, normalizado como en la topología
+     * @param from   id de un evento anterior o {@code earliest}; {@code null} empieza en los cambios nuevos
+     */
+    public SseEmitter subscribe(String prefix, String from) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        try {
+            byte[] prefixBytes = prefix == null || prefix.isEmpty()
+                    ? new byte[0] : pipeline.key(prefix.getBytes(StandardCharsets.UTF_8));
+            awaitReader();
+            ChangeFeedSubscription subscription;
+            synchronized (lock) {
+                subscription = new ChangeFeedSubscription(prefixBytes, bufferSize, startPositions(from));
+                if (from == null) {
+                    live.add(subscription);
+                }
+            }
+            // Sin timeout de la petición asíncrona: la conexión dura lo que quiera el cliente
+            var emitter = new SseEmitter(0L);
+            emitter.onCompletion(subscription::close);
+            emitter.onTimeout(subscription::close);
+            emitter.onError(e -> subscription.close());
+            senders.execute(() -> send(subscription, emitter, from != null));
+            return emitter;
+        } catch (RuntimeException e) {
+            subscribers.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /** Posiciones del lector, o las de {@code from} para las particiones que indique. */
+    private Map<Integer, Long> startPositions(String from) {
+        Map<Integer, Long> start = new HashMap<>(positions);
+        if (EARLIEST.equalsIgnoreCase(from)) {
+            start.replaceAll((partition, offset) -> 0L);
+        } else if (from != null && !from.isBlank()) {
+            for (String position : from.split(",")) {
+                String[] parts = position.trim().split(":");
+                try {
+                    int partition = Integer.parseInt(parts[0]);
+                    if (parts.length != 2 || !start.containsKey(partition)) {
+                        throw new NumberFormatException(position);
+                    }
+                    start.put(partition, Long.parseLong(parts[1]));
+                } catch (NumberFormatException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "from must be 'earliest' or partition:offset pairs, got " + from);
+                }
+            }
+        }
+        return start;
+    }
+
+    /** Arranca el lector con el primer suscriptor y espera a que tenga posición en cada partición. */
+    private void awaitReader() {
+        CountDownLatch latch;
+        synchronized (this) {
+            if (reader == null || !reader.isAlive()) {
+                started = new CountDownLatch(1);
+                running = true;
+                reader = new Thread(this::read, "change-feed-reader");
+                reader.setDaemon(true);
+                reader.start();
+            }
+            latch = started;
+        }
+        try {
+            if (!latch.await(startTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Change feed not ready");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Change feed not ready");
+        }
+    }
+
+    String changelogTopic() {
+        return applicationId + "-" + TopicEnum.UPPERCASE_STORAGE.getName() + "-changelog";
+    }
+
+    private void read() {
+        String topic = changelogTopic();
+        try (Consumer<byte[], byte[]> consumer = consumerSupplier.get()) {
+            readerConsumer = consumer;
+            List<TopicPartition> partitions = partitions(consumer, topic);
+            consumer.assign(partitions);
+            consumer.seekToEnd(partitions);
+            synchronized (lock) {
+                partitions.forEach(tp -> positions.put(tp.partition(), consumer.position(tp)));
+                log.info("Change feed following {} from {}", topic, positions);
+            }
+            started.countDown();
+
+            while (running) {
+                var records = consumer.poll(Duration.ofMillis(100));
+                synchronized (lock) {
+                    records.forEach(this::dispatch);
+                    partitions.forEach(tp -> positions.put(tp.partition(), consumer.position(tp)));
+                }
+            }
+        } catch (WakeupException | InterruptedException e) {
+            // cierre de la aplicación
+        } catch (RuntimeException e) {
+            log.error("Change feed reader stopped; the next subscriber restarts it", e);
+        } finally {
+            synchronized (lock) {
+                live.forEach(ChangeFeedSubscription::close);
+                live.clear();
+                positions.clear();
+            }
+        }
+    }
+
+    private List<TopicPartition> partitions(Consumer<byte[], byte[]> consumer, String topic) throws InterruptedException {
+        while (running) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic, Duration.ofSeconds(5));
+            if (infos != null && !infos.isEmpty()) {
+                return infos.stream().map(info -> new TopicPartition(topic, info.partition())).toList();
+            }
+            // Kafka Streams crea el changelog al arrancar la topología
+            Thread.sleep(1000);
+        }
+        throw new InterruptedException("Change feed stopped");
+    }
+
+    /** Reparte un cambio a los suscriptores en vivo; con {@link #lock} tomado. */
+    void dispatch(ConsumerRecord<byte[], byte[]> record) {
+        for (Iterator<ChangeFeedSubscription> it = live.iterator(); it.hasNext(); ) {
+            ChangeFeedSubscription subscription = it.next();
+            if (subscription.isClosed()) {
+                it.remove();
+            } else if (subscription.matches(record.key()) && !subscription.offer(record)) {
+                if (slowSubscriberPolicy == SlowSubscriberPolicy.DISCONNECT) {
+                    subscription.close();
+                    it.remove();
+                    disconnected.incrementAndGet();
+                    log.info("Change feed subscriber disconnected: buffer of {} changes full", bufferSize);
+                } else {
+                    subscription.dropped();
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /** Hilo de envío de un suscriptor: puesta al día si hace falta y después su buffer. */
+    private void send(ChangeFeedSubscription subscription, SseEmitter emitter, boolean resume) {
+        try {
+            if (resume) {
+                catchUp(subscription, emitter);
+            }
+            while (!subscription.isClosed()) {
+                ConsumerRecord<byte[], byte[]> record = subscription.poll(heartbeatInterval);
+                long lost = subscription.takeDropped();
+                if (lost > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(Map.of("count", lost)));
+                }
+                if (record == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (subscription.accept(record)) {
+                    emitter.send(event(subscription, record));
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change feed subscriber gone: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+            synchronized (lock) {
+                live.remove(subscription);
+            }
+            subscribers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Lee el changelog desde las posiciones del suscriptor hasta alcanzar al lector. El paso a vivo se
+     * hace con {@link #lock} tomado: el lector no puede avanzar entre la comprobación y el alta.
+     */
+    private void catchUp(ChangeFeedSubscription subscription, SseEmitter emitter) throws IOException {
+        Map<Integer, Long> read = new HashMap<>(subscription.positions());
+        if (goLive(subscription, read)) {
+            return;
+        }
+        String topic = changelogTopic();
+        try (Consumer<byte[], byte[]> consumer = consumerSupplier.get()) {
+            List<TopicPartition> partitions = read.keySet().stream().map(p -> new TopicPartition(topic, p)).toList();
+            consumer.assign(partitions);
+            partitions.forEach(tp -> consumer.seek(tp, read.get(tp.partition())));
+            while (!subscription.isClosed()) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (subscription.matches(record.key()) && subscription.accept(record)) {
+                        emitter.send(event(subscription, record));
+                    }
+                }
+                partitions.forEach(tp -> read.put(tp.partition(), consumer.position(tp)));
+                if (goLive(subscription, read)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    boolean goLive(ChangeFeedSubscription subscription, Map<Integer, Long> read) {
+        synchronized (lock) {
+            for (Map.Entry<Integer, Long> position : positions.entrySet()) {
+                if (read.getOrDefault(position.getKey(), 0L) < position.getValue()) {
+                    return false;
+                }
+            }
+            subscription.advance(read);
+            live.add(subscription);
+            return true;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(ChangeFeedSubscription subscription,
+                                                    ConsumerRecord<byte[], byte[]> record) {
+        var change = new Change(utf8(record.key()), utf8(record.value()), record.partition(), record.offset(),
+                record.timestamp());
+        return SseEmitter.event()
+                .id(subscription.eventId())
+                .name(record.value() == null ? "delete" : "upsert")
+                .data(change, MediaType.APPLICATION_JSON);
+    }
+
+    private static String utf8(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("change.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change feed connections").register(registry);
+        FunctionCounter.builder("change.feed.dropped", dropped, AtomicLong::get)
+                .baseUnit("events")
+                .description("Changes dropped because a subscriber's buffer was full").register(registry);
+        FunctionCounter.builder("change.feed.disconnected", disconnected, AtomicLong::get)
+                .description("Subscribers disconnected because their buffer was full").register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Consumer<byte[], byte[]> consumer = readerConsumer;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        senders.shutdownNow();
+    }
+
+    /** @param value {@code null} si la clave salió del store */
+    public record Change(String key, String value, int partition, long offset, long timestamp) {
+    }
+}
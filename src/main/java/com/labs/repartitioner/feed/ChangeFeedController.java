@@ -0,0 +1,34 @@
+package com.labs.repartitioner.feed;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Cambios de {@code uppercase-table} como Server-Sent Events. Al reconectar, {@code EventSource} manda
+ * {@code Last-Event-ID}, que tiene prioridad sobre {@code from}.
+ */
+@RestController
+@RequestMapping("/feed")
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeFeedController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(path = "/uppercase-table", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter uppercaseTable(@RequestParam(required = false) String prefix,
+                                     @RequestParam(required = false) String from,
+                                     @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        String resumeFrom = lastEventId != null && !lastEventId.isBlank() ? lastEventId : from;
+        return changeFeed.subscribe(prefix, resumeFrom == null || resumeFrom.isBlank() ? null : resumeFrom);
+    }
+}
@@ -0,0 +1,91 @@
+package com.labs.repartitioner.feed;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Un suscriptor del feed: filtro de prefijo, buffer acotado que llena el lector y vacía el hilo de envío,
+ * y la posición entregada en cada partición del changelog, que forma el id de cada evento.
+ */
+class ChangeFeedSubscription {
+
+    private final byte[] prefix;
+    private final BlockingQueue<ConsumerRecord<byte[], byte[]>> buffer;
+    /** Siguiente offset por partición; sólo lo usa el hilo de envío */
+    private final Map<Integer, Long> positions;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    ChangeFeedSubscription(byte[] prefix, int bufferSize, Map<Integer, Long> positions) {
+        this.prefix = prefix;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.positions = new TreeMap<>(positions);
+    }
+
+    boolean matches(byte[] key) {
+        return key != null && key.length >= prefix.length
+                && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /** @return false si el buffer está lleno */
+    boolean offer(ConsumerRecord<byte[], byte[]> record) {
+        return buffer.offer(record);
+    }
+
+    ConsumerRecord<byte[], byte[]> poll(Duration timeout) throws InterruptedException {
+        return buffer.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    /**
+     * Avanza la posición de la partición del registro.
+     * @return false si el registro ya se entregó (solape entre la puesta al día y el lector)
+     */
+    boolean accept(ConsumerRecord<byte[], byte[]> record) {
+        if (record.offset() < positions.getOrDefault(record.partition(), 0L)) {
+            return false;
+        }
+        positions.put(record.partition(), record.offset() + 1);
+        return true;
+    }
+
+    /** Posiciones ya leídas durante la puesta al día: lo anterior se entregó o no pasaba el filtro. */
+    void advance(Map<Integer, Long> read) {
+        read.forEach((partition, offset) -> positions.merge(partition, offset, Math::max));
+    }
+
+    Map<Integer, Long> positions() {
+        return Map.copyOf(positions);
+    }
+
+    /** {@code partición:offset} separados por comas, el formato que acepta {@code from}. */
+    String eventId() {
+        return positions.entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
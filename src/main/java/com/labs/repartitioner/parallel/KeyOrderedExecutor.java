@@ -0,0 +1,45 @@
+package com.labs.repartitioner.parallel;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta tareas asíncronas en un pool: las de una misma clave una detrás de otra y en orden de llegada,
+ * las de claves distintas en paralelo. Cada clave con trabajo pendiente guarda sólo el futuro de su última
+ * tarea, que se retira al terminar.
+ */
+class KeyOrderedExecutor {
+
+    private final Executor workers;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    KeyOrderedExecutor(Executor workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * @param task arranca en un worker cuando termina la tarea anterior de la clave (aunque haya fallado)
+     * @return futuro que termina cuando termina el de la tarea
+     */
+    CompletableFuture<Void> submit(String key, Supplier<? extends CompletableFuture<?>> task) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] submitted = new CompletableFuture[1];
+        tails.compute(key, (k, tail) -> {
+            CompletableFuture<Void> previous = tail == null
+                    ? CompletableFuture.completedFuture(null) : tail.handle((r, e) -> null);
+            submitted[0] = previous.thenComposeAsync(ignored -> task.get().<Void>thenApply(r -> null), workers);
+            return submitted[0];
+        });
+        CompletableFuture<Void> future = submitted[0];
+        future.whenComplete((r, e) -> tails.remove(key, future));
+        return future;
+    }
+
+    /** Claves con tareas en curso o en espera. */
+    int activeKeys() {
+        return tails.size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.labs.repartitioner.parallel;
+
+import java.util.BitSet;
+
+/**
+ * Offsets recibidos y aún sin terminar de una partición. El commit sólo puede avanzar hasta el primero
+ * sin terminar: todo lo anterior ya está en Redis aunque los workers lo hayan acabado en otro orden.
+ * Los offsets que no llegan a recibirse (compactación, marcadores de transacción) cuentan como terminados.
+ */
+class OffsetTracker {
+
+    /** Desplazamiento mínimo del primer pendiente para recortar el bitset */
+    private static final int COMPACT_AT = 4096;
+
+    /** Bit {@code i}: el offset {@code base + i} está pendiente */
+    private BitSet incomplete = new BitSet();
+    private long base = -1;
+    /** Offset siguiente al último recibido; -1 si aún no llegó ninguno */
+    private long next = -1;
+    private int pending;
+
+    synchronized void received(long offset) {
+        if (next < 0 || pending == 0) {
+            base = offset;
+            incomplete.clear();
+        }
+        incomplete.set((int) (offset - base));
+        next = offset + 1;
+        pending++;
+    }
+
+    synchronized void completed(long offset) {
+        int index = (int) (offset - base);
+        if (index < 0 || !incomplete.get(index)) {
+            return;
+        }
+        incomplete.clear(index);
+        if (--pending == 0) {
+            notifyAll();
+            return;
+        }
+        int first = incomplete.nextSetBit(0);
+        if (first >= COMPACT_AT) {
+            incomplete = incomplete.get(first, incomplete.length());
+            base += first;
+        }
+    }
+
+    /** @return offset que se puede confirmar (el siguiente a leer tras un reinicio); -1 sin registros */
+    synchronized long committable() {
+        if (next < 0) {
+            return -1;
+        }
+        return pending == 0 ? next : base + incomplete.nextSetBit(0);
+    }
+
+    synchronized int pending() {
+        return pending;
+    }
+
+    /** @return si no quedó nada pendiente antes de {@code timeoutMillis} */
+    synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (pending > 0 && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return pending == 0;
+    }
+}
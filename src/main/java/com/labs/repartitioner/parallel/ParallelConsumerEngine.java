@@ -0,0 +1,408 @@
+package com.labs.repartitioner.parallel;
+
+import com.labs.repartitioner.config.RolloutConfig;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import com.labs.repartitioner.topology.SeenKeySet;
+import com.labs.repartitioner.topology.TransformPipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Alternativa a la topología ({@code engine.type=parallel}): un consumidor por lotes de {@code uppercase}
+ * aplica el {@link TransformPipeline} y reparte los registros en {@code engine.parallel.workers} workers
+ * con orden por clave ({@link KeyOrderedExecutor}). Una clave se escribe en Redis (SET NX, mismo writer
+ * y serialización que el sink de la topología) después de sus registros anteriores; claves distintas van
+ * en paralelo aunque compartan partición.
+ * <p>
+ * Por partición, el commit avanza sólo hasta el primer offset sin terminar ({@link OffsetTracker}):
+ * at-least-once como la topología, y el SET NX hace idempotentes las repeticiones. Con más de
+ * {@code engine.parallel.max-in-flight} registros pendientes el consumidor se pausa. Al perder
+ * particiones en un rebalanceo, o al parar, espera a sus escrituras y hace commit antes de soltarlas.
+ * Kafka Streams no arranca en este modo: no hay {@code uppercase-key-store} ni {@code uppercase-table}.
+ */
+@Component("parallelEngine")
+@ConditionalOnExpression(ParallelConsumerEngine.ENABLED)
+public class ParallelConsumerEngine implements SmartLifecycle, SmartInitializingSingleton, MeterBinder,
+        HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelConsumerEngine.class);
+
+    /** Kafka habilitado y {@code engine.type=parallel} */
+    public static final String ENABLED = "${spring.kafka.enabled:true} and "
+            + "'${engine.type:streams}'.equalsIgnoreCase('parallel')";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerSupplier;
+    private final RedisAsyncWriter writer;
+    private final TransformPipeline pipeline;
+    private final ObjectProvider<List<StreamsBuilderFactoryBean>> streams;
+
+    /** Hilos que transforman los valores y lanzan las escrituras; no dependen del número de particiones */
+    @Value("${engine.parallel.workers:32}")
+    private int workers;
+
+    /** Registros recibidos y aún no escritos por encima de los cuales se pausa el consumo */
+    @Value("${engine.parallel.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${engine.parallel.commit-interval:PT1S}")
+    private Duration commitInterval;
+
+    /** Espera máxima a las escrituras en curso al perder particiones o al parar */
+    @Value("${rollout.shutdown-timeout:PT30S}")
+    private Duration shutdownTimeout;
+
+    /** Huellas de claves ya escritas por el pod, como el filtro por tarea de la topología; 0 lo desactiva */
+    @Value("${redis.sink.seen-keys.max-size:16MB}")
+    private DataSize seenKeysMaxSize;
+
+    @Value("${topology.key-ttl:0s}")
+    private Duration keyTtl;
+
+    @Value("${engine.parallel.retry.initial-interval:PT0.5S}")
+    private Duration retryInitialInterval;
+
+    @Value("${engine.parallel.retry.max-interval:PT30S}")
+    private Duration retryMaxInterval;
+
+    /** Sólo los toca el hilo de consumo, salvo {@link OffsetTracker}, que es seguro entre hilos */
+    private final Map<TopicPartition, OffsetTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> committed = new HashMap<>();
+    private SeenKeySet seenKeys;
+    private boolean paused;
+    private long nextCommit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    private ExecutorService workerPool;
+    private KeyOrderedExecutor executor;
+    private volatile Consumer<byte[], byte[]> consumer;
+    private volatile Thread poller;
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    @Autowired
+    public ParallelConsumerEngine(KafkaProperties kafkaProperties, RolloutConfig rolloutConfig,
+                                  @Value("${spring.application.name:app}") String appName,
+                                  @Value("${engine.parallel.max-poll-records:2000}") int maxPollRecords,
+                                  @Lazy RedisAsyncWriter writer, TransformPipeline pipeline,
+                                  ObjectProvider<List<StreamsBuilderFactoryBean>> streams) {
+        this(() -> {
+            Map<String, Object> props = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+            props.put(ConsumerConfig.GROUP_ID_CONFIG, appName + "-parallel");
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+            props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+            props.putAll(rolloutConfig.consumerProperties());
+            return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+        }, writer, pipeline, streams);
+    }
+
+    ParallelConsumerEngine(Supplier<Consumer<byte[], byte[]>> consumerSupplier, RedisAsyncWriter writer,
+                           TransformPipeline pipeline, ObjectProvider<List<StreamsBuilderFactoryBean>> streams) {
+        this.consumerSupplier = consumerSupplier;
+        this.writer = writer;
+        this.pipeline = pipeline;
+        this.streams = streams;
+    }
+
+    /** Después de que Spring Boot aplique {@code spring.kafka.streams.auto-startup} y antes de arrancar. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<StreamsBuilderFactoryBean> factories = streams.getIfAvailable();
+        if (factories != null && !factories.isEmpty()) {
+            factories.forEach(factory -> factory.setAutoStartup(false));
+            log.info("Kafka Streams disabled: engine.type=parallel");
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (keyTtl.compareTo(Duration.ZERO) > 0) {
+            // La renovación de la TTL depende del purgado del store, que este motor no tiene
+            throw new IllegalStateException("engine.type=parallel does not support topology.key-ttl");
+        }
+        AtomicInteger index = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "parallel-engine-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = new KeyOrderedExecutor(workerPool);
+        seenKeys = seenKeysMaxSize.toBytes() > 0 ? new SeenKeySet(seenKeysMaxSize.toBytes()) : null;
+        failure = null;
+        consumer = consumerSupplier.get();
+        running = true;
+        poller = new Thread(this::run, "parallel-engine-poll");
+        poller.start();
+        log.info("Parallel engine started with {} workers", workers);
+    }
+
+    private void run() {
+        try {
+            consumer.subscribe(List.of(TopicEnum.UPPERCASE.getName()), new RebalanceListener());
+            nextCommit = System.nanoTime() + commitInterval.toNanos();
+            while (running) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    dispatch(record);
+                }
+                applyBackpressure();
+                if (System.nanoTime() >= nextCommit) {
+                    commit(trackers.keySet(), false);
+                    nextCommit = System.nanoTime() + commitInterval.toNanos();
+                }
+            }
+        } catch (WakeupException e) {
+            // stop()
+        } catch (RuntimeException e) {
+            // El hilo de consumo no se relanza: parallelEngine pasa a DOWN y el liveness reinicia el pod
+            failure = e;
+            log.error("Parallel engine stopped", e);
+        } finally {
+            try {
+                drain(trackers.keySet());
+            } catch (RuntimeException e) {
+                log.warn("Final commit of the parallel engine failed", e);
+            } finally {
+                running = false;
+                consumer.close();
+            }
+        }
+    }
+
+    void dispatch(ConsumerRecord<byte[], byte[]> record) {
+        OffsetTracker tracker = trackers.computeIfAbsent(
+                new TopicPartition(record.topic(), record.partition()), tp -> new OffsetTracker());
+        long offset = record.offset();
+        tracker.received(offset);
+
+        byte[] key = record.key() == null ? null : pipeline.key(record.key());
+        // Como el filtro de la topología: una clave ya escrita (o en vuelo) no vuelve a Redis. Su offset
+        // puede terminar antes que el de la primera escritura, pero el commit no pasa de esta última.
+        if (key == null || (seenKeys != null && !seenKeys.add(SeenKeySet.fingerprint(key)))) {
+            skipped.incrementAndGet();
+            tracker.completed(offset);
+            return;
+        }
+
+        String redisKey = new String(key, StandardCharsets.UTF_8);
+        byte[] rawValue = record.value();
+        inFlight.incrementAndGet();
+        executor.submit(redisKey, () -> {
+            byte[] value = pipeline.value(rawValue);
+            return write(redisKey, value == null ? null : new String(value, StandardCharsets.UTF_8), 0);
+        }).whenComplete((r, e) -> {
+            inFlight.decrementAndGet();
+            if (e == null) {
+                written.incrementAndGet();
+                tracker.completed(offset);
+            } else if (running) {
+                // Sin completar, el offset frena el commit; parallelEngine pasa a DOWN y el liveness reinicia el pod
+                failure = e;
+                log.error("Parallel engine could not process {}-{}@{}", record.topic(), record.partition(), offset, e);
+            }
+        });
+    }
+
+    /** Reintenta sin límite, con backoff exponencial, hasta que Redis responda o el motor pare. */
+    private CompletableFuture<Boolean> write(String key, String value, int attempt) {
+        return writer.setIfAbsent(key, value).exceptionallyCompose(e -> {
+            if (!running) {
+                return CompletableFuture.failedFuture(e);
+            }
+            retries.incrementAndGet();
+            if (attempt == 0) {
+                log.warn("Redis write of {} failed, retrying: {}", key, e.toString());
+            }
+            long delay = Math.min(retryMaxInterval.toMillis(),
+                    retryInitialInterval.toMillis() << Math.min(attempt, 20));
+            return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, workerPool))
+                    .thenCompose(ignored -> write(key, value, attempt + 1));
+        });
+    }
+
+    /** Pausa con la ventana llena y reanuda al bajar a la mitad, para no alternar en cada poll. */
+    private void applyBackpressure() {
+        int pending = inFlight.get();
+        if (!paused && pending >= maxInFlight) {
+            consumer.pause(consumer.assignment());
+            paused = true;
+        } else if (paused && pending <= maxInFlight / 2) {
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+    }
+
+    private void commit(Collection<TopicPartition> partitions, boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition tp : partitions) {
+            OffsetTracker tracker = trackers.get(tp);
+            long offset = tracker == null ? -1 : tracker.committable();
+            if (offset >= 0 && offset > committed.getOrDefault(tp, -1L)) {
+                offsets.put(tp, new OffsetAndMetadata(offset));
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (result, e) -> {
+                if (e != null) {
+                    log.warn("Parallel engine commit failed: {}", e.toString());
+                }
+            });
+        }
+        offsets.forEach((tp, offset) -> committed.put(tp, offset.offset()));
+    }
+
+    /** Espera a las escrituras de las particiones (hasta el timeout de parada) y confirma lo terminado. */
+    private void drain(Collection<TopicPartition> partitions) {
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (TopicPartition tp : List.copyOf(partitions)) {
+            OffsetTracker tracker = trackers.get(tp);
+            try {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (tracker != null && !tracker.awaitIdle(Math.max(0, remaining))) {
+                    log.warn("{} records of {} still pending after {}", tracker.pending(), tp, shutdownTimeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        commit(partitions, true);
+    }
+
+    private void forget(Collection<TopicPartition> partitions) {
+        partitions.forEach(tp -> {
+            trackers.remove(tp);
+            committed.remove(tp);
+        });
+    }
+
+    /** Corre en el hilo de consumo, dentro de {@code poll}. */
+    private class RebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (!partitions.isEmpty()) {
+                drain(partitions);
+                forget(partitions);
+            }
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (paused) {
+                consumer.pause(partitions);
+            }
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            // Ya tienen otro dueño: no se puede hacer commit, lo pendiente se repetirá allí
+            forget(partitions);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = poller;
+            if (!running || current == null) {
+                return;
+            }
+            running = false;
+            consumer.wakeup();
+        }
+        try {
+            current.join(shutdownTimeout.plusSeconds(5).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workerPool.shutdownNow();
+        log.info("Parallel engine stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("parallel.engine.in.flight", inFlight, AtomicInteger::get)
+                .description("Records dispatched to the workers and not yet written to Redis").register(registry);
+        Gauge.builder("parallel.engine.active.keys", this, e -> e.executor == null ? 0 : e.executor.activeKeys())
+                .description("Keys with a Redis write running or queued").register(registry);
+        FunctionCounter.builder("parallel.engine.records", written, AtomicLong::get).tag("result", "written")
+                .description("Records processed by the parallel engine").register(registry);
+        FunctionCounter.builder("parallel.engine.records", skipped, AtomicLong::get).tag("result", "skipped")
+                .description("Records processed by the parallel engine").register(registry);
+        FunctionCounter.builder("parallel.engine.redis.retries", retries, AtomicLong::get)
+                .description("Redis writes retried by the parallel engine").register(registry);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = failure != null ? Health.down().withDetail("error", failure.toString())
+                : running ? Health.up() : Health.outOfService();
+        return health.withDetail("workers", workers)
+                .withDetail("partitions", trackers.size())
+                .withDetail("inFlight", inFlight.get())
+                .build();
+    }
+}
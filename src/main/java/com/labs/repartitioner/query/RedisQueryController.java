@@ -0,0 +1,42 @@
+package com.labs.repartitioner.query;
+
+import com.labs.repartitioner.redis.RedisCachedReader;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lectura de las claves ya escritas en Redis, a través de la near cache de {@link RedisCachedReader}.
+ * No depende de Kafka: la sirven también los pods con {@code spring.kafka.enabled=false}.
+ */
+@RestController
+@RequestMapping("/redis")
+public class RedisQueryController {
+
+    private final RedisCachedReader redisCachedReader;
+
+    public RedisQueryController(RedisCachedReader redisCachedReader) {
+        this.redisCachedReader = redisCachedReader;
+    }
+
+    @GetMapping("/keys/{key}")
+    public ResponseEntity<RedisEntry> get(@PathVariable String key) {
+        return ResponseEntity.of(Optional.ofNullable(redisCachedReader.get(key)).map(value -> new RedisEntry(key, value)));
+    }
+
+    @PostMapping("/keys/batch")
+    public Map<String, Object> getAll(@RequestBody List<String> keys) {
+        return redisCachedReader.getAll(keys);
+    }
+
+    public record RedisEntry(String key, Object value) {
+    }
+}
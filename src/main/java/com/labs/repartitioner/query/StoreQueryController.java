@@ -0,0 +1,57 @@
+package com.labs.repartitioner.query;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura de {@code uppercase-key-store} desde el estado local de los pods de stream.
+ * {@code local=true} lo usan las propias instancias al reenviar: responde sólo con el store local.
+ */
+@RestController
+@RequestMapping("/store")
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class StoreQueryController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final StoreQueryService storeQueryService;
+
+    public StoreQueryController(StoreQueryService storeQueryService) {
+        this.storeQueryService = storeQueryService;
+    }
+
+    @GetMapping("/keys/{key}")
+    public ResponseEntity<StoreQueryService.StoreEntry> get(@PathVariable String key,
+                                                            @RequestParam(defaultValue = "false") boolean local) {
+        return ResponseEntity.of(storeQueryService.get(key, local));
+    }
+
+    @PostMapping("/keys/batch")
+    public Map<String, String> getAll(@RequestBody List<String> keys,
+                                      @RequestParam(defaultValue = "false") boolean local) {
+        return storeQueryService.getAll(keys, local);
+    }
+
+    @GetMapping("/scan")
+    public ResponseEntity<StreamingResponseBody> scan(@RequestParam(required = false) String prefix,
+                                                      @RequestParam(required = false) String from,
+                                                      @RequestParam(required = false) String to,
+                                                      @RequestParam(defaultValue = "1000") int limit,
+                                                      @RequestParam(defaultValue = "false") boolean local) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(storeQueryService.scan(prefix, from, to, limit, local));
+    }
+}
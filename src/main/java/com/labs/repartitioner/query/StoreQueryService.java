@@ -0,0 +1,292 @@
+package com.labs.repartitioner.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.topology.TransformPipeline;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Consultas interactivas sobre {@code uppercase-key-store}. Cada clave se lee del store local de la
+ * instancia dueña de su partición: si es otra, la petición se reenvía a su {@code application.server}
+ * con {@code local=true} (sin más saltos) y con timeouts de conexión y lectura. Las claves se normalizan
+ * con los pasos de clave de {@link TransformPipeline}, igual que en la topología.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class StoreQueryService implements DisposableBean {
+
+    static final String STORE = TopicEnum.UPPERCASE_STORAGE.getName();
+    private static final ParameterizedTypeReference<Map<String, String>> STRING_MAP = new ParameterizedTypeReference<>() { };
+
+    private final StreamsBuilderFactoryBean factoryBean;
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final TransformPipeline pipeline;
+    private final ExecutorService fanOut;
+
+    /**
+     * @param connectTimeout espera máxima para conectar con otra instancia
+     * @param readTimeout    espera máxima de cada lectura de su respuesta; una instancia colgada no retiene el hilo
+     * @param fanOutThreads  peticiones remotas de {@link #getAll} en paralelo, entre todas las consultas
+     */
+    @Autowired
+    public StoreQueryService(StreamsBuilderFactoryBean factoryBean, RestClient.Builder restClientBuilder,
+                             ObjectMapper objectMapper, TransformPipeline pipeline,
+                             @Value("${store-query.connect-timeout:PT1S}") Duration connectTimeout,
+                             @Value("${store-query.read-timeout:PT5S}") Duration readTimeout,
+                             @Value("${store-query.fan-out-threads:8}") int fanOutThreads) {
+        this(factoryBean, restClientBuilder.requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout))).build(),
+                objectMapper, pipeline, fanOutThreads);
+    }
+
+    StoreQueryService(StreamsBuilderFactoryBean factoryBean, RestClient restClient, ObjectMapper objectMapper,
+                      TransformPipeline pipeline, int fanOutThreads) {
+        this.factoryBean = factoryBean;
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        this.pipeline = pipeline;
+        this.fanOut = Executors.newFixedThreadPool(fanOutThreads, r -> {
+            Thread thread = new Thread(r, "store-query-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Optional<StoreEntry> get(String key, boolean localOnly) {
+        byte[] storeKey = normalize(key);
+        HostInfo owner = localOnly ? null : owner(storeKey);
+        if (owner == null) {
+            byte[] value = localStore().get(storeKey);
+            return value == null ? Optional.empty() : Optional.of(new StoreEntry(utf8(storeKey), utf8(value)));
+        }
+        try {
+            return Optional.ofNullable(restClient.get()
+                    .uri(baseUri(owner) + "/store/keys/{key}?local=true", key)
+                    .retrieve()
+                    .body(StoreEntry.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Agrupa las claves por instancia dueña: las locales se leen aquí y cada instancia remota
+     * recibe una sola petición, todas en paralelo.
+     * @return las claves encontradas (normalizadas) con su valor.
+     */
+    public Map<String, String> getAll(List<String> keys, boolean localOnly) {
+        Map<HostInfo, List<String>> byHost = new LinkedHashMap<>();
+        List<byte[]> local = new ArrayList<>();
+        for (String key : keys) {
+            byte[] storeKey = normalize(key);
+            HostInfo owner = localOnly ? null : owner(storeKey);
+            if (owner == null) {
+                local.add(storeKey);
+            } else {
+                byHost.computeIfAbsent(owner, h -> new ArrayList<>()).add(key);
+            }
+        }
+
+        List<CompletableFuture<Map<String, String>>> remote = new ArrayList<>();
+        byHost.forEach((host, hostKeys) -> remote.add(CompletableFuture.supplyAsync(() -> restClient.post()
+                .uri(baseUri(host) + "/store/keys/batch?local=true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(hostKeys)
+                .retrieve()
+                .body(STRING_MAP), fanOut)));
+
+        Map<String, String> found = new LinkedHashMap<>();
+        ReadOnlyKeyValueStore<byte[], byte[]> store = local.isEmpty() ? null : localStore();
+        for (byte[] storeKey : local) {
+            byte[] value = store.get(storeKey);
+            if (value != null) {
+                found.put(utf8(storeKey), utf8(value));
+            }
+        }
+        try {
+            remote.forEach(reply -> found.putAll(reply.join()));
+        } catch (CompletionException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Remote store query failed", e.getCause());
+        }
+        return found;
+    }
+
+    /**
+     * Escribe las entradas como NDJSON ({@code {"key":..,"value":..}} por línea) a medida que se leen:
+     * primero las del store local y luego las de cada instancia remota. El orden es el de cada store,
+     * no global. Sin prefijo ni rango recorre todo el store.
+     * El store se resuelve antes de empezar la respuesta para poder contestar 503 si no está listo.
+     */
+    public StreamingResponseBody scan(String prefix, String from, String to, int limit, boolean localOnly) {
+        ReadOnlyKeyValueStore<byte[], byte[]> store = localStore();
+        return out -> scan(store, prefix, from, to, limit, localOnly, out);
+    }
+
+    private void scan(ReadOnlyKeyValueStore<byte[], byte[]> store, String prefix, String from, String to,
+                      int limit, boolean localOnly, OutputStream out) throws IOException {
+        int written = 0;
+        try (KeyValueIterator<byte[], byte[]> entries = openScan(store, prefix, from, to)) {
+            while (written < limit && entries.hasNext()) {
+                KeyValue<byte[], byte[]> entry = entries.next();
+                writeLine(out, new StoreEntry(utf8(entry.key), utf8(entry.value)));
+                written++;
+            }
+        }
+        out.flush();
+        if (localOnly) {
+            return;
+        }
+
+        HostInfo self = self();
+        for (StreamsMetadata metadata : streams().streamsMetadataForStore(STORE)) {
+            if (written >= limit || metadata.hostInfo().equals(self)) {
+                continue;
+            }
+            int remaining = limit - written;
+            written += restClient.get()
+                    .uri(baseUri(metadata.hostInfo()) + "/store/scan?local=true&limit={limit}"
+                            + "&prefix={prefix}&from={from}&to={to}", remaining, orEmpty(prefix), orEmpty(from), orEmpty(to))
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            throw new IOException("Scan on " + metadata.hostInfo() + " failed: " + response.getStatusCode());
+                        }
+                        return copyLines(response.getBody(), out);
+                    });
+        }
+    }
+
+    private KeyValueIterator<byte[], byte[]> openScan(ReadOnlyKeyValueStore<byte[], byte[]> store,
+                                                             String prefix, String from, String to) {
+        if (prefix != null && !prefix.isEmpty()) {
+            return store.prefixScan(normalize(prefix), new ByteArraySerializer());
+        }
+        if ((from != null && !from.isEmpty()) || (to != null && !to.isEmpty())) {
+            return store.range(from == null || from.isEmpty() ? null : normalize(from),
+                    to == null || to.isEmpty() ? null : normalize(to));
+        }
+        return store.all();
+    }
+
+    /** @return la instancia remota dueña de la clave, o {@code null} si es esta. */
+    private HostInfo owner(byte[] storeKey) {
+        HostInfo self = self();
+        if (self == null) {
+            // application.yaml siempre lo define; vacío (p. ej. un solo pod fuera de Kubernetes) no enruta
+            return null;
+        }
+        KeyQueryMetadata metadata = streams().queryMetadataForKey(STORE, storeKey, new ByteArraySerializer());
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Store metadata not available (rebalancing)");
+        }
+        return self.equals(metadata.activeHost()) ? null : metadata.activeHost();
+    }
+
+    private HostInfo self() {
+        var config = factoryBean.getStreamsConfiguration();
+        String server = config == null ? null : config.getProperty(StreamsConfig.APPLICATION_SERVER_CONFIG);
+        return server == null || server.isEmpty() ? null : HostInfo.buildFromEndpoint(server);
+    }
+
+    private ReadOnlyKeyValueStore<byte[], byte[]> localStore() {
+        try {
+            return streams().store(StoreQueryParameters.fromNameAndType(STORE, QueryableStoreTypes.keyValueStore()));
+        } catch (InvalidStateStoreException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Store not queryable yet", e);
+        }
+    }
+
+    private KafkaStreams streams() {
+        KafkaStreams streams = factoryBean.getKafkaStreams();
+        if (streams == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Kafka Streams not started");
+        }
+        return streams;
+    }
+
+    private void writeLine(OutputStream out, StoreEntry entry) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(entry));
+        out.write('\n');
+    }
+
+    private static int copyLines(InputStream in, OutputStream out) throws IOException {
+        int lines = 0;
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+        out.flush();
+        return lines;
+    }
+
+    private byte[] normalize(String key) {
+        return pipeline.key(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String baseUri(HostInfo host) {
+        return "http://" + host.host() + ":" + host.port();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String utf8(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void destroy() {
+        fanOut.shutdownNow();
+    }
+
+    public record StoreEntry(String key, String value) { }
+}
@@ -0,0 +1,123 @@
+package com.labs.repartitioner.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario compacto: {@code [tipo][largo varint][datos]} para textos y bytes, y
+ * {@code [tipo][datos de ancho fijo]} para números y booleanos. Los bytes de tipo (0xF8-0xFD) nunca
+ * son el primer byte de un texto UTF-8 ni de un JSON, así que lo demás se lee como JSON histórico.
+ * Los tipos sin representación binaria se siguen escribiendo como JSON.
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte STRING = (byte) 0xF8;
+    static final byte BYTES = (byte) 0xF9;
+    static final byte LONG = (byte) 0xFA;
+    static final byte INT = (byte) 0xFB;
+    static final byte DOUBLE = (byte) 0xFC;
+    static final byte BOOLEAN = (byte) 0xFD;
+
+    private final RedisSerializer<Object> legacyJson;
+
+    public CompactBinaryRedisSerializer(RedisSerializer<Object> legacyJson) {
+        this.legacyJson = legacyJson;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value instanceof String s) {
+            return withLength(STRING, s.getBytes(StandardCharsets.UTF_8));
+        }
+        if (value instanceof byte[] bytes) {
+            return withLength(BYTES, bytes);
+        }
+        if (value instanceof Long l) {
+            return header(LONG, Long.BYTES).putLong(l).array();
+        }
+        if (value instanceof Integer i) {
+            return header(INT, Integer.BYTES).putInt(i).array();
+        }
+        if (value instanceof Double d) {
+            return header(DOUBLE, Double.BYTES).putDouble(d).array();
+        }
+        if (value instanceof Boolean b) {
+            return header(BOOLEAN, 1).put((byte) (b ? 1 : 0)).array();
+        }
+        return legacyJson.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) < (STRING & 0xFF) || (bytes[0] & 0xFF) > (BOOLEAN & 0xFF)) {
+            return legacyJson.deserialize(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        return switch (bytes[0]) {
+            case STRING -> new String(readBytes(buffer), StandardCharsets.UTF_8);
+            case BYTES -> readBytes(buffer);
+            case LONG -> fixed(buffer, Long.BYTES).getLong();
+            case INT -> fixed(buffer, Integer.BYTES).getInt();
+            case DOUBLE -> fixed(buffer, Double.BYTES).getDouble();
+            case BOOLEAN -> fixed(buffer, 1).get() != 0;
+            default -> throw new IllegalStateException("Unreachable binary value type " + bytes[0]);
+        };
+    }
+
+    private static ByteBuffer header(byte type, int payload) {
+        return ByteBuffer.allocate(1 + payload).put(type);
+    }
+
+    private static byte[] withLength(byte type, byte[] data) {
+        int len = data.length;
+        int varintSize = 1;
+        for (int v = len >>> 7; v != 0; v >>>= 7) {
+            varintSize++;
+        }
+        byte[] out = new byte[1 + varintSize + len];
+        out[0] = type;
+        int pos = 1;
+        int v = len;
+        while ((v & ~0x7F) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        System.arraycopy(data, 0, out, pos, len);
+        return out;
+    }
+
+    /** Un valor de ancho fijo truncado o con bytes de más es un payload corrupto, no un BufferUnderflowException. */
+    private static ByteBuffer fixed(ByteBuffer buffer, int width) {
+        if (buffer.remaining() != width) {
+            throw new SerializationException("Binary value width " + width + " does not match payload " + buffer.remaining());
+        }
+        return buffer;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        int len = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!buffer.hasRemaining() || shift > 28) {
+                throw new SerializationException("Truncated or invalid binary value length");
+            }
+            b = buffer.get();
+            len |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (len != buffer.remaining()) {
+            throw new SerializationException("Binary value length " + len + " does not match payload " + buffer.remaining());
+        }
+        byte[] data = new byte[len];
+        buffer.get(data);
+        return data;
+    }
+}
@@ -0,0 +1,96 @@
+package com.labs.repartitioner.redis;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché local de valores serializados de Redis, acotada por peso (bytes aproximados de clave, valor y
+ * entrada) y con expulsión LRU. Un valor que por sí solo supera el máximo no se guarda.
+ */
+class NearCache {
+
+    /** Coste aproximado de la entrada del mapa y de los objetos de clave y valor */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final long maxWeight;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    NearCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    static long weigh(String key, byte[] value) {
+        return 2L * key.length() + value.length + ENTRY_OVERHEAD;
+    }
+
+    synchronized byte[] get(String key) {
+        byte[] value = entries.get(key);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    synchronized void put(String key, byte[] value) {
+        long entryWeight = weigh(key, value);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        byte[] previous = entries.put(key, value);
+        if (previous != null) {
+            weight -= weigh(key, previous);
+        }
+        weight += entryWeight;
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<String, byte[]> entry = eldest.next();
+            weight -= weigh(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    synchronized void invalidate(String key) {
+        byte[] removed = entries.remove(key);
+        if (removed != null) {
+            weight -= weigh(key, removed);
+            invalidations.increment();
+        }
+    }
+
+    synchronized void clear() {
+        invalidations.add(entries.size());
+        entries.clear();
+        weight = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return weight;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    long invalidations() {
+        return invalidations.sum();
+    }
+}
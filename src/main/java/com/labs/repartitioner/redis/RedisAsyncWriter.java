@@ -0,0 +1,187 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.topology.KeyExpiry;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.RedisCommand;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@code SET key value NX} sobre la API asíncrona de Lettuce. Con {@code topology.key-ttl} es
+ * {@code SET key value NX PX} con {@link KeyExpiry#redisTtl} seguido de un {@code PEXPIRE} en el mismo
+ * pipeline: la topología vuelve a escribir las claves activas cada media TTL, y si la clave ya existe
+ * conserva su primer valor y sólo renueva la expiración. Abre una única conexión con el cliente
+ * nativo de la {@link LettuceConnectionFactory} (misma configuración, SSL y credenciales que el RedisTemplate)
+ * y usa los mismos serializadores, así los datos quedan iguales que con {@link RedisBatchWriter}.
+ * Con {@code spring.data.redis.cluster.nodes} el cliente es de Redis Cluster y la conexión enruta por slot.
+ */
+@Lazy
+@Component
+public class RedisAsyncWriter implements DisposableBean {
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /** Expiración de las claves escritas; 0 no caducan */
+    @Value("${topology.key-ttl:0s}")
+    private Duration keyTtl = Duration.ZERO;
+
+    private StatefulConnection<byte[], byte[]> connection;
+    private RedisClusterAsyncCommands<byte[], byte[]> commands;
+    /** La misma conexión en modo cluster; {@code null} contra un Redis standalone */
+    private StatefulRedisClusterConnection<byte[], byte[]> cluster;
+
+    public RedisAsyncWriter(LettuceConnectionFactory connectionFactory, RedisTemplate<String, Object> redisTemplate) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @return futuro con {@code true} si la clave era nueva.
+     */
+    public CompletableFuture<Boolean> setIfAbsent(String key, String value) {
+        return setIfAbsent(serializeKey(key), serializeValue(value));
+    }
+
+    /**
+     * SET NX de un lote (con TTL, cada SET va seguido de su PEXPIRE). Los comandos se agrupan por nodo (por hash slot en Redis Cluster) y cada grupo
+     * sale en una sola escritura por la conexión de ese nodo: un pipeline por nodo y ningún comando que
+     * cruce slots. Si un slot se movió desde la última topología, el MOVED/ASK se reintenta por la
+     * conexión de cluster, que sigue la redirección (y con refresco adaptativo recarga la topología).
+     *
+     * @return por cada entrada (en orden de iteración) futuro con {@code true} si la clave era nueva.
+     */
+    public List<CompletableFuture<Boolean>> setIfAbsent(Map<String, String> entries) {
+        commands();
+
+        List<CompletableFuture<Boolean>> replies = new ArrayList<>(entries.size());
+        Map<String, List<RedisCommand<byte[], byte[], ?>>> byNode = new LinkedHashMap<>();
+        Map<String, StatefulConnection<byte[], byte[]>> nodes = new LinkedHashMap<>();
+        entries.forEach((k, v) -> {
+            byte[] key = serializeKey(k);
+            byte[] value = serializeValue(v);
+            RedisClusterNode node = cluster == null ? null : cluster.getPartitions().getMasterBySlot(SlotHash.getSlot(key));
+            if (cluster != null && node == null) {
+                // Slot sin dueño conocido: lo resuelve el enrutado del cluster
+                replies.add(setIfAbsent(key, value));
+                return;
+            }
+            String nodeId = node == null ? "" : node.getNodeId();
+            nodes.computeIfAbsent(nodeId, id -> cluster == null ? connection : cluster.getConnection(id));
+
+            var args = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(key).addValue(value);
+            setArgs().build(args);
+            var command = new AsyncCommand<>(new Command<>(CommandType.SET, new StatusOutput<>(ByteArrayCodec.INSTANCE), args));
+            List<RedisCommand<byte[], byte[], ?>> batch = byNode.computeIfAbsent(nodeId, id -> new ArrayList<>());
+            batch.add(command);
+            CompletableFuture<Boolean> reply = command.toCompletableFuture().thenApply("OK"::equals);
+            if (expires()) {
+                var expireArgs = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(key).add(redisTtlMillis());
+                var expire = new AsyncCommand<>(new Command<>(CommandType.PEXPIRE, new IntegerOutput<>(ByteArrayCodec.INSTANCE), expireArgs));
+                batch.add(expire);
+                reply = reply.thenCombine(expire.toCompletableFuture(), (created, renewed) -> created);
+            }
+            replies.add(cluster == null ? reply : reply.exceptionallyCompose(e -> isRedirect(e)
+                    ? setIfAbsent(key, value) : CompletableFuture.failedFuture(e)));
+        });
+        byNode.forEach((nodeId, batch) -> nodes.get(nodeId).dispatch(batch));
+        return replies;
+    }
+
+    /** Enrutado normal de Lettuce: en cluster sigue MOVED y ASK. */
+    private CompletableFuture<Boolean> setIfAbsent(byte[] key, byte[] value) {
+        CompletableFuture<Boolean> reply = commands().set(key, value, setArgs())
+                .toCompletableFuture()
+                .thenApply("OK"::equals);
+        if (!expires()) {
+            return reply;
+        }
+        return reply.thenCombine(commands().pexpire(key, redisTtlMillis()).toCompletableFuture(),
+                (created, renewed) -> created);
+    }
+
+    private SetArgs setArgs() {
+        return expires() ? SetArgs.Builder.nx().px(redisTtlMillis()) : SetArgs.Builder.nx();
+    }
+
+    private boolean expires() {
+        return keyTtl.compareTo(Duration.ZERO) > 0;
+    }
+
+    private long redisTtlMillis() {
+        return KeyExpiry.redisTtl(keyTtl).toMillis();
+    }
+
+    private static boolean isRedirect(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        return cause instanceof RedisCommandExecutionException && cause.getMessage() != null
+                && (cause.getMessage().startsWith("MOVED") || cause.getMessage().startsWith("ASK"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(String value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    /** La conexión se abre en el primer uso para no conectar a Redis durante el arranque. */
+    private synchronized RedisClusterAsyncCommands<byte[], byte[]> commands() {
+        if (commands == null) {
+            AbstractRedisClient client = connectionFactory.getRequiredNativeClient();
+            if (client instanceof RedisClusterClient clusterClient) {
+                cluster = clusterClient.connect(ByteArrayCodec.INSTANCE);
+                connection = cluster;
+                commands = cluster.async();
+            } else {
+                StatefulRedisConnection<byte[], byte[]> standalone = ((RedisClient) client).connect(ByteArrayCodec.INSTANCE);
+                connection = standalone;
+                commands = standalone.async();
+            }
+        }
+        return commands;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+            commands = null;
+            cluster = null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.labs.repartitioner.redis;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Escribe un lote de claves en Redis con {@code SET key value NX} y espera todas las respuestas.
+ * El NX hace la operación atómica en el servidor: sólo la primera escritura de cada clave gana,
+ * sin el GET previo ni la carrera entre instancias.
+ * Los comandos salen por la conexión compartida de {@link RedisAsyncWriter}, en un pipeline por nodo
+ * (por hash slot en Redis Cluster): {@code executePipelined} sin pool abría una conexión dedicada por lote.
+ */
+@Lazy
+@Component
+public class RedisBatchWriter {
+
+    private final RedisAsyncWriter asyncWriter;
+
+    public RedisBatchWriter(RedisAsyncWriter asyncWriter) {
+        this.asyncWriter = asyncWriter;
+    }
+
+    /**
+     * @return por cada entrada (en orden de iteración) {@code true} si la clave era nueva.
+     */
+    public List<Boolean> setIfAbsent(Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompletableFuture<Boolean>> replies = asyncWriter.setIfAbsent(entries);
+
+        try {
+            CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        List<Boolean> created = new ArrayList<>(replies.size());
+        replies.forEach(reply -> created.add(reply.join()));
+        return created;
+    }
+}
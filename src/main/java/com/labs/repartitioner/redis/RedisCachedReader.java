@@ -0,0 +1,266 @@
+package com.labs.repartitioner.redis;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.StatefulRedisConnectionImpl;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lecturas de Redis con una caché local delante ({@link NearCache}) que se mantiene correcta con el
+ * client-side caching de Redis 6: una conexión RESP3 propia con {@code CLIENT TRACKING ON}, y Redis
+ * avisa con un push {@code invalidate} cuando otra instancia modifica una clave leída por ella.
+ * <p>
+ * Una lectura sólo se guarda si no llegó ninguna invalidación de esa clave mientras estaba en vuelo,
+ * y al perder la conexión (Redis olvida el tracking) la caché se vacía y no se usa hasta reactivarlo.
+ * Contra Redis Cluster o un servidor sin RESP3 las lecturas van directas por el {@link RedisTemplate}.
+ */
+@Component
+public class RedisCachedReader implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCachedReader.class);
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean enabled;
+    private final NearCache cache;
+
+    /** Lecturas en vuelo que podrán guardarse; una invalidación o un corte retira su marca */
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+    private volatile boolean tracking;
+
+    private boolean connected;
+    private StatefulRedisConnection<byte[], byte[]> connection;
+    private RedisConnectionStateListener stateListener;
+
+    public RedisCachedReader(LettuceConnectionFactory connectionFactory, RedisTemplate<String, Object> redisTemplate,
+                             @Value("${redis.near-cache.enabled:true}") boolean enabled,
+                             @Value("${redis.near-cache.max-size:32MB}") DataSize maxSize) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.cache = new NearCache(maxSize.toBytes());
+    }
+
+    /** Como {@code opsForValue().get(key)}. */
+    public Object get(String key) {
+        StatefulRedisConnection<byte[], byte[]> tracked = trackedConnection();
+        if (tracked == null) {
+            return redisTemplate.opsForValue().get(key);
+        }
+        byte[] value = cache.get(key);
+        if (value == null) {
+            Object token = beginRead(key);
+            value = tracked.sync().get(serializeKey(key));
+            endRead(key, token, value);
+        }
+        return deserializeValue(value);
+    }
+
+    /**
+     * Las claves que no están en la caché se piden en un único MGET.
+     *
+     * @return las claves encontradas, en el orden pedido
+     */
+    public Map<String, Object> getAll(List<String> keys) {
+        Map<String, Object> found = new LinkedHashMap<>();
+        StatefulRedisConnection<byte[], byte[]> tracked = trackedConnection();
+        if (tracked == null) {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; values != null && i < keys.size(); i++) {
+                if (values.get(i) != null) {
+                    found.put(keys.get(i), values.get(i));
+                }
+            }
+            return found;
+        }
+
+        Map<String, Object> missing = new LinkedHashMap<>();
+        for (String key : keys) {
+            byte[] value = cache.get(key);
+            if (value != null) {
+                found.put(key, deserializeValue(value));
+            } else if (!found.containsKey(key)) {
+                missing.putIfAbsent(key, beginRead(key));
+            }
+        }
+        if (!missing.isEmpty()) {
+            byte[][] serialized = missing.keySet().stream().map(this::serializeKey).toArray(byte[][]::new);
+            List<String> missingKeys = new ArrayList<>(missing.keySet());
+            List<KeyValue<byte[], byte[]>> values = tracked.sync().mget(serialized);
+            for (int i = 0; i < missingKeys.size(); i++) {
+                String key = missingKeys.get(i);
+                byte[] value = values.get(i).getValueOrElse(null);
+                endRead(key, missing.get(key), value);
+                if (value != null) {
+                    found.put(key, deserializeValue(value));
+                }
+            }
+        }
+        // Orden de la petición aunque unas vengan de la caché y otras de Redis
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        keys.forEach(key -> {
+            if (found.containsKey(key)) {
+                ordered.put(key, found.get(key));
+            }
+        });
+        return ordered;
+    }
+
+    /**
+     * La marca se pone antes de mirar {@link #tracking}: un corte que llegue después la borra, y si el
+     * corte ya ocurrió la lectura no se guarda.
+     */
+    private Object beginRead(String key) {
+        Object token = new Object();
+        pending.put(key, token);
+        if (!tracking) {
+            pending.remove(key, token);
+        }
+        return token;
+    }
+
+    private void endRead(String key, Object token, byte[] value) {
+        if (pending.remove(key, token) && value != null) {
+            cache.put(key, value);
+        }
+    }
+
+    /** Conexión con tracking activo, abierta en la primera lectura; {@code null} si no hay caché. */
+    private synchronized StatefulRedisConnection<byte[], byte[]> trackedConnection() {
+        if (enabled && !connected) {
+            connected = true;
+            connect();
+        }
+        return connection;
+    }
+
+    private void connect() {
+        AbstractRedisClient client = connectionFactory.getRequiredNativeClient();
+        if (!(client instanceof RedisClient redisClient)) {
+            log.info("Redis near cache disabled: client-side caching is not supported with Redis Cluster");
+            return;
+        }
+        StatefulRedisConnection<byte[], byte[]> candidate = redisClient.connect(ByteArrayCodec.INSTANCE);
+        if (candidate instanceof StatefulRedisConnectionImpl<byte[], byte[]> impl
+                && impl.getConnectionState().getNegotiatedProtocolVersion() != ProtocolVersion.RESP3) {
+            // Con RESP2 los push de invalidación no llegan por la misma conexión: la caché quedaría obsoleta
+            log.warn("Redis near cache disabled: the server did not negotiate RESP3");
+            candidate.close();
+            return;
+        }
+        candidate.addListener(this::onPush);
+        stateListener = new RedisConnectionStateListener() {
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+                if (handler == candidate) {
+                    tracking = false;
+                    pending.clear();
+                    cache.clear();
+                }
+            }
+
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+                if (handler == candidate) {
+                    // Redis olvida el tracking con la conexión: hasta reactivarlo no se guarda nada
+                    candidate.async().clientTracking(TrackingArgs.Builder.enabled())
+                            .thenRun(() -> tracking = true);
+                }
+            }
+        };
+        redisClient.addListener(stateListener);
+        candidate.sync().clientTracking(TrackingArgs.Builder.enabled());
+        tracking = true;
+        connection = candidate;
+        log.info("Redis near cache enabled with client-side caching");
+    }
+
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(RedisCachedReader::utf8);
+        if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+            for (Object key : keys) {
+                pending.remove(key);
+                cache.invalidate((String) key);
+            }
+        } else {
+            // Sin claves: FLUSHALL, o Redis se quedó sin espacio en su tabla de tracking
+            pending.clear();
+            cache.clear();
+        }
+    }
+
+    private static Object utf8(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    private Object deserializeValue(byte[] value) {
+        return value == null ? null : redisTemplate.getValueSerializer().deserialize(value);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("redis.near.cache.gets", cache, NearCache::hits).tag("result", "hit")
+                .description("Redis reads served from the near cache").register(registry);
+        FunctionCounter.builder("redis.near.cache.gets", cache, NearCache::misses).tag("result", "miss")
+                .description("Redis reads that went to the server").register(registry);
+        FunctionCounter.builder("redis.near.cache.evictions", cache, NearCache::evictions)
+                .description("Entries evicted to stay under redis.near-cache.max-size").register(registry);
+        FunctionCounter.builder("redis.near.cache.invalidations", cache, NearCache::invalidations)
+                .description("Entries dropped after a Redis invalidation or a reconnect").register(registry);
+        Gauge.builder("redis.near.cache.size", cache, NearCache::size)
+                .description("Entries in the near cache").register(registry);
+        Gauge.builder("redis.near.cache.weight", cache, NearCache::weight).baseUnit("bytes")
+                .description("Approximate memory used by the near cache").register(registry);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (stateListener != null) {
+            connectionFactory.getRequiredNativeClient().removeListener(stateListener);
+            stateListener = null;
+        }
+        if (connection != null) {
+            tracking = false;
+            connection.close();
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisWriteBehindConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drena {@code uppercase-redis-sink} hacia Redis con un {@code SET NX} por clave nueva del lote.
+ * El offset sólo se confirma cuando Redis respondió a todo el lote; si falla, el error handler de
+ * {@link RedisWriteBehindConfig} lo reintenta y las claves ya escritas simplemente no cambian.
+ */
+@Component
+@ConditionalOnExpression(RedisWriteBehindConfig.ENABLED)
+public class RedisWriteBehindConsumer {
+
+    private final RedisBatchWriter writer;
+    private final DistributionSummary batchSize;
+    private final Timer batchWrite;
+    private final Counter created;
+    private final Counter existing;
+    /** Lag de las particiones asignadas a cada consumidor, tal como lo conoce tras su último poll */
+    private final Map<Consumer<?, ?>, Map<TopicPartition, Long>> lagByConsumer = new ConcurrentHashMap<>();
+
+    public RedisWriteBehindConsumer(RedisBatchWriter writer, MeterRegistry registry) {
+        this.writer = writer;
+        batchSize = DistributionSummary.builder("redis.write.behind.batch.size")
+                .description("Keys per write-behind batch")
+                .baseUnit("keys")
+                .register(registry);
+        batchWrite = Timer.builder("redis.write.behind.batch.write")
+                .description("Time to write a write-behind batch to Redis, retries excluded")
+                .register(registry);
+        created = Counter.builder("redis.write.behind.keys")
+                .description("Keys written by the write-behind consumer")
+                .tag("result", "created")
+                .register(registry);
+        existing = Counter.builder("redis.write.behind.keys")
+                .description("Keys written by the write-behind consumer")
+                .tag("result", "existing")
+                .register(registry);
+        Gauge.builder("redis.write.behind.lag", lagByConsumer, l -> l.values().stream()
+                        .flatMap(partitions -> partitions.values().stream())
+                        .mapToLong(Long::longValue).sum())
+                .description("Records of the sink topic still to be written to Redis by this instance")
+                .baseUnit("records")
+                .register(registry);
+    }
+
+    @KafkaListener(id = "redis-write-behind",
+            topics = "#{T(com.labs.repartitioner.constant.TopicEnum).REDIS_SINK.getName()}",
+            containerFactory = RedisWriteBehindConfig.CONTAINER_FACTORY)
+    public void write(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.key() != null) {
+                // Con SET NX gana el primer valor
+                entries.putIfAbsent(record.key(), record.value());
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            batchSize.record(entries.size());
+            List<Boolean> results = batchWrite.record(() -> writer.setIfAbsent(entries));
+            long createdCount = results.stream().filter(Boolean::booleanValue).count();
+            created.increment(createdCount);
+            existing.increment(results.size() - createdCount);
+        }
+        updateLag(consumer);
+    }
+
+    private void updateLag(Consumer<?, ?> consumer) {
+        Map<TopicPartition, Long> current = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.currentLag(partition).ifPresent(value -> current.put(partition, value));
+        }
+        // Cada consumidor del contenedor (concurrency) reemplaza sólo su parte
+        lagByConsumer.put(consumer, current);
+    }
+}
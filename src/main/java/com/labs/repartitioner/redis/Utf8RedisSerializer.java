@@ -0,0 +1,57 @@
+package com.labs.repartitioner.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Guarda los valores como texto UTF-8 plano. Al leer, las entradas escritas antes en JSON
+ * (un string entre comillas o un objeto/arreglo) se decodifican con el serializador JSON. Un texto
+ * con esa forma se escribe como string JSON, para que se lea de vuelta igual y no como otro tipo.
+ */
+public class Utf8RedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> legacyJson;
+
+    public Utf8RedisSerializer(RedisSerializer<Object> legacyJson) {
+        this.legacyJson = legacyJson;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes;
+        }
+        byte[] text = value.toString().getBytes(StandardCharsets.UTF_8);
+        // Con forma de JSON se leería como JSON histórico: se guarda como string JSON
+        return looksLikeJson(text) ? legacyJson.serialize(value.toString()) : text;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (looksLikeJson(bytes)) {
+            try {
+                return legacyJson.deserialize(bytes);
+            } catch (SerializationException e) {
+                // No era JSON: es un valor plano
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static boolean looksLikeJson(byte[] bytes) {
+        if (bytes.length < 2) {
+            return false;
+        }
+        byte first = bytes[0];
+        byte last = bytes[bytes.length - 1];
+        return ((first == '"' && last == '"') || (first == '{' && last == '}') || (first == '[' && last == ']'));
+    }
+}
@@ -0,0 +1,36 @@
+package com.labs.repartitioner.serde;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Deserializa la clave como bytes UTF-8 ya en mayúsculas. Si la clave es ASCII puro se modifica
+ * el mismo arreglo (sin crear {@link String}); sólo las claves con bytes no ASCII pasan por
+ * {@link String#toUpperCase(Locale)}.
+ */
+public class UpperCaseKeyDeserializer implements Deserializer<byte[]> {
+
+    @Override
+    public byte[] deserialize(String topic, byte[] data) {
+        return toUpperCase(data);
+    }
+
+    public static byte[] toUpperCase(byte[] key) {
+        if (key == null) {
+            return null;
+        }
+        for (int i = 0; i < key.length; i++) {
+            byte b = key[i];
+            if (b < 0) {
+                // Byte no ASCII: lo ya convertido no cambia el resultado de toUpperCase
+                return new String(key, StandardCharsets.UTF_8).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+            }
+            if (b >= 'a' && b <= 'z') {
+                key[i] = (byte) (b - ('a' - 'A'));
+            }
+        }
+        return key;
+    }
+}
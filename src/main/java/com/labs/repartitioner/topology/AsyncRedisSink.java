@@ -0,0 +1,83 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import org.apache.kafka.streams.errors.StreamsException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Envía cada clave a Redis sin esperar la respuesta, con un máximo de {@code maxInFlight} comandos
+ * pendientes por tarea. Al llenarse la ventana el hilo de stream se bloquea (backpressure) y
+ * {@link #flush()} espera a que terminen todos antes de permitir el commit.
+ */
+public class AsyncRedisSink implements RedisSink {
+
+    private final RedisAsyncWriter writer;
+    private final int maxInFlight;
+    private final Duration awaitTimeout;
+    private final Semaphore window;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public AsyncRedisSink(RedisAsyncWriter writer, int maxInFlight, Duration awaitTimeout) {
+        this.writer = writer;
+        this.maxInFlight = maxInFlight;
+        this.awaitTimeout = awaitTimeout;
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void add(String key, String value) {
+        rethrowFailure();
+        acquire(1);
+        try {
+            writer.setIfAbsent(key, value).whenComplete((created, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error);
+                }
+                window.release();
+            });
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void flush() {
+        acquire(maxInFlight);
+        window.release(maxInFlight);
+        rethrowFailure();
+    }
+
+    /** Los comandos ya están en vuelo; sólo se revisa si alguno falló. */
+    @Override
+    public void punctuate() {
+        rethrowFailure();
+    }
+
+    @Override
+    public int pendingCount() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    private void acquire(int permits) {
+        try {
+            if (!window.tryAcquire(permits, awaitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new StreamsException("Timed out after " + awaitTimeout + " waiting for in-flight Redis commands");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamsException("Interrupted while waiting for in-flight Redis commands", e);
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable error = failure.getAndSet(null);
+        if (error != null) {
+            throw new StreamsException("Async Redis write failed", error);
+        }
+    }
+}
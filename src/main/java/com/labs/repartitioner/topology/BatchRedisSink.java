@@ -0,0 +1,49 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.redis.RedisBatchWriter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buffer de claves que se envía a Redis como un pipeline de SET NX al llegar a {@code batchSize}
+ * o cuando Kafka Streams vacía los stores antes del commit.
+ */
+public class BatchRedisSink implements RedisSink {
+
+    private final RedisBatchWriter writer;
+    private final int batchSize;
+    private final TopologyMetrics metrics;
+    private Map<String, String> pending = new LinkedHashMap<>();
+
+    public BatchRedisSink(RedisBatchWriter writer, int batchSize, TopologyMetrics metrics) {
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+    }
+
+    /** Con SET NX gana el primer valor, así que no se pisa uno ya pendiente. */
+    @Override
+    public void add(String key, String value) {
+        pending.putIfAbsent(key, value);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Si Redis falla el lote se conserva y la excepción detiene el commit
+        metrics.batchSize().record(pending.size());
+        metrics.batchWrite().record(() -> writer.setIfAbsent(pending));
+        pending = new LinkedHashMap<>();
+    }
+
+    @Override
+    public int pendingCount() {
+        return pending.size();
+    }
+}
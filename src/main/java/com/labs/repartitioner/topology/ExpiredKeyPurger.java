@@ -0,0 +1,51 @@
+package com.labs.repartitioner.topology;
+
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Borra de la tabla las entradas cuyo último registro es más antiguo que la TTL; con {@link KeyExpiry} el
+ * timestamp de la tabla es la hora de reloj de pared de ese registro, la misma que {@code now}. Cada pasada revisa como
+ * mucho {@code batchSize} entradas y la siguiente sigue donde quedó, así el hilo de stream no recorre el
+ * store entero de una vez. El borrado pasa por el store, que escribe el tombstone en el changelog.
+ */
+class ExpiredKeyPurger {
+
+    private final TimestampedKeyValueStore<byte[], byte[]> table;
+    private final long ttlMillis;
+    private final int batchSize;
+    private final TopologyMetrics metrics;
+    /** Primera clave de la próxima pasada; {@code null} empieza desde el principio */
+    private byte[] cursor;
+
+    ExpiredKeyPurger(TimestampedKeyValueStore<byte[], byte[]> table, long ttlMillis, int batchSize,
+                     TopologyMetrics metrics) {
+        this.table = table;
+        this.ttlMillis = ttlMillis;
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+    }
+
+    /** @param now hora de reloj de pared del punctuator */
+    int purge(long now) {
+        long expiredBefore = now - ttlMillis;
+        List<byte[]> expired = new ArrayList<>();
+        try (var entries = cursor == null ? table.all() : table.range(cursor, null)) {
+            int scanned = 0;
+            while (entries.hasNext() && scanned++ < batchSize) {
+                var entry = entries.next();
+                ValueAndTimestamp<byte[]> value = entry.value;
+                if (value != null && value.timestamp() < expiredBefore) {
+                    expired.add(entry.key);
+                }
+            }
+            cursor = entries.hasNext() ? entries.peekNextKey() : null;
+        }
+        expired.forEach(table::delete);
+        metrics.keysExpired(expired.size());
+        return expired.size();
+    }
+}
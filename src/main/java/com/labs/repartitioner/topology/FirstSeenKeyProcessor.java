@@ -0,0 +1,55 @@
+package com.labs.repartitioner.topology;
+
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo write-behind: reenvía sólo las claves cuya huella no está en el {@link SeenKeySet} de la tarea.
+ * No habla con Redis; el consumidor del tópico de sink se encarga de escribirlas. Con {@link KeyExpiry}
+ * además purga las claves caducadas del store.
+ * <p>
+ * El filtro empieza vacío al (re)iniciarse la tarea: el changelog de la tabla y el tópico de sink son envíos
+ * independientes, y tras una caída el store puede tener claves cuyo registro de sink nunca se entregó.
+ */
+public class FirstSeenKeyProcessor implements Processor<byte[], byte[], byte[], byte[]> {
+
+    private final long seenKeysMaxBytes;
+    private final KeyExpiry keyExpiry;
+    private final TopologyMetrics metrics;
+    private ProcessorContext<byte[], byte[]> context;
+    private SeenKeySet seenKeys;
+
+    /**
+     * @param seenKeysMaxBytes memoria para huellas de claves vistas por tarea; 0 lo desactiva.
+     * @param keyExpiry        caducidad de las claves en el store y en Redis.
+     */
+    public FirstSeenKeyProcessor(long seenKeysMaxBytes, KeyExpiry keyExpiry, TopologyMetrics metrics) {
+        this.seenKeysMaxBytes = seenKeysMaxBytes;
+        this.keyExpiry = keyExpiry;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(ProcessorContext<byte[], byte[]> context) {
+        this.context = context;
+        seenKeys = seenKeysMaxBytes > 0 ? new SeenKeySet(seenKeysMaxBytes) : null;
+        keyExpiry.schedule(context, seenKeys == null ? null : seenKeys::clear, metrics);
+    }
+
+    @Override
+    public void process(Record<byte[], byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean firstSeen = seenKeys == null || seenKeys.add(SeenKeySet.fingerprint(record.key()));
+        if (firstSeen) {
+            context.forward(record);
+        }
+        metrics.keySeen(firstSeen);
+        metrics.recordProcessing().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,74 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.TopicEnum;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+
+import java.time.Duration;
+
+/**
+ * Caducidad de las claves ({@code topology.key-ttl}): una clave que no aparece durante la TTL sale de
+ * {@code uppercase-key-store} (con su tombstone en el changelog) y de Redis, que la escribe con expiración.
+ * Ambas caducidades usan el reloj de pared: los registros llegan al store con la hora en que se procesan
+ * ({@link #wallClockTimestamp()}), no con su timestamp de evento.
+ * <p>
+ * El filtro de claves vistas se vacía cada media TTL, así que una clave filtrada se escribió en Redis como
+ * mucho media TTL antes. Por eso Redis la escribe con {@link #redisTtl(Duration) TTL y media}: mientras una
+ * clave tenga registros en la última TTL sigue en Redis, y una clave inactiva puede quedar en Redis hasta
+ * media TTL más que en el store.
+ *
+ * @param ttl            0 desactiva la caducidad
+ * @param purgeInterval  cada cuánto se revisa una tanda del store
+ * @param purgeBatchSize entradas revisadas por tanda, para acotar la pausa del hilo de stream
+ */
+public record KeyExpiry(Duration ttl, Duration purgeInterval, int purgeBatchSize) {
+
+    public static final KeyExpiry NONE = new KeyExpiry(Duration.ZERO, Duration.ofMinutes(1), 0);
+
+    public boolean enabled() {
+        return ttl.compareTo(Duration.ZERO) > 0;
+    }
+
+    /** Expiración de las claves en Redis: la TTL más el intervalo de renovación. */
+    public static Duration redisTtl(Duration ttl) {
+        return ttl.plus(ttl.dividedBy(2));
+    }
+
+    /** Sustituye el timestamp de cada registro por la hora de reloj de pared en que se procesa. */
+    static FixedKeyProcessor<byte[], byte[], byte[]> wallClockTimestamp() {
+        return new FixedKeyProcessor<>() {
+            private FixedKeyProcessorContext<byte[], byte[]> context;
+
+            @Override
+            public void init(FixedKeyProcessorContext<byte[], byte[]> context) {
+                this.context = context;
+            }
+
+            @Override
+            public void process(FixedKeyRecord<byte[], byte[]> record) {
+                context.forward(record.withTimestamp(context.currentSystemTimeMs()));
+            }
+        };
+    }
+
+    /**
+     * Programa la purga del store y, si hay filtro de claves vistas, su vaciado cada media TTL.
+     *
+     * @param forgetSeenKeys vacía los filtros del procesador; {@code null} si no tiene
+     */
+    void schedule(ProcessorContext<?, ?> context, Runnable forgetSeenKeys, TopologyMetrics metrics) {
+        if (!enabled()) {
+            return;
+        }
+        TimestampedKeyValueStore<byte[], byte[]> table = context.getStateStore(TopicEnum.UPPERCASE_STORAGE.getName());
+        var purger = new ExpiredKeyPurger(table, ttl.toMillis(), purgeBatchSize, metrics);
+        context.schedule(purgeInterval, PunctuationType.WALL_CLOCK_TIME, purger::purge);
+        if (forgetSeenKeys != null) {
+            context.schedule(ttl.dividedBy(2), PunctuationType.WALL_CLOCK_TIME, timestamp -> forgetSeenKeys.run());
+        }
+    }
+}
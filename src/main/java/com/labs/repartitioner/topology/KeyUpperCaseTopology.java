@@ -1,6 +1,10 @@
 package com.labs.repartitioner.topology;
 
+import com.labs.repartitioner.constant.RedisSinkMode;
 import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import com.labs.repartitioner.redis.RedisBatchWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.StreamsBuilder;
@@ -9,55 +13,135 @@ import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Materialized;
 import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
 import org.apache.kafka.streams.state.KeyValueStore;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.util.unit.DataSize;
 
-import java.util.Optional;
+import java.time.Duration;
 
 @Configuration
 @ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
 public class KeyUpperCaseTopology {
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final Logger log = LoggerFactory.getLogger(KeyUpperCaseTopology.class);
+    private final RedisBatchWriter redisBatchWriter;
+    private final RedisAsyncWriter redisAsyncWriter;
+    private final MeterRegistry meterRegistry;
+    private final RecordTracer recordTracer;
+    private final TransformPipeline pipeline;
 
-    public KeyUpperCaseTopology(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    /** El tópico de entrada ya viene particionado por la clave en mayúsculas: no hace falta reparticionar */
+    @Value("${topology.co-partitioned:false}")
+    private boolean coPartitioned;
+
+    @Value("${redis.sink.mode:batch}")
+    private RedisSinkMode sinkMode;
+
+    /** Máximo de claves por pipeline hacia Redis */
+    @Value("${redis.sink.batch-size:500}")
+    private int batchSize;
+
+    /** Intervalo máximo que una clave espera en el buffer antes de ir a Redis */
+    @Value("${redis.sink.flush-interval:PT0.1S}")
+    private Duration flushInterval;
+
+    /** Comandos async pendientes por tarea antes de bloquear el hilo de stream */
+    @Value("${redis.sink.async.max-in-flight:1000}")
+    private int maxInFlight;
+
+    /** Espera máxima por la ventana de comandos async (backpressure y commit) */
+    @Value("${redis.sink.async.await-timeout:PT30S}")
+    private Duration awaitTimeout;
+
+    /** Memoria por tarea para las huellas de claves ya vistas; 0 desactiva el filtro */
+    @Value("${redis.sink.seen-keys.max-size:16MB}")
+    private DataSize seenKeysMaxSize;
+
+    /** Tiempo sin registros tras el que una clave sale del store y de Redis; 0 no caduca */
+    @Value("${topology.key-ttl:0s}")
+    private Duration keyTtl;
+
+    /** Cada cuánto se revisa una tanda del store buscando claves caducadas */
+    @Value("${topology.key-ttl-purge.interval:PT1M}")
+    private Duration purgeInterval;
+
+    /** Entradas del store revisadas por tanda */
+    @Value("${topology.key-ttl-purge.batch-size:10000}")
+    private int purgeBatchSize;
+
+    /** Los writers se resuelven en el primer registro: cada modo de sink usa uno (o ninguno) */
+    public KeyUpperCaseTopology(@Lazy RedisBatchWriter redisBatchWriter, @Lazy RedisAsyncWriter redisAsyncWriter,
+                                MeterRegistry meterRegistry, RecordTracer recordTracer, TransformPipeline pipeline) {
+        this.redisBatchWriter = redisBatchWriter;
+        this.redisAsyncWriter = redisAsyncWriter;
+        this.meterRegistry = meterRegistry;
+        this.recordTracer = recordTracer;
+        this.pipeline = pipeline;
     }
 
     @Bean
     public Topology createTopology(StreamsBuilder builder) {
+        if (coPartitioned && !pipeline.isUpperCaseKeyOnly()) {
+            // UpperCaseKeyPartitioner sólo reproduce la clave en mayúsculas: con otros pasos de clave
+            // el productor y el store no coincidirían en la partición
+            throw new IllegalStateException("topology.co-partitioned requires topology.pipeline key steps to be exactly "
+                    + TransformPipeline.UPPERCASE_KEY);
+        }
 
+        // Clave y valor llegan ya transformados por todos los pasos del pipeline, fusionados en el
+        // deserializador del nodo fuente: ningún paso añade nodos ni reparticiones
+        KStream<byte[], byte[]> input = builder.stream(TopicEnum.UPPERCASE.getName(),
+                Consumed.with(pipeline.keySerde(), pipeline.valueSerde()));
 
-        KStream<String, String> input = builder.stream(TopicEnum.UPPERCASE.getName(),
-                Consumed.with(Serdes.String(), Serdes.String()));
-
-        KStream<String, String> upperKeyStream = input.selectKey(
-                (k, v) -> k == null ? null : k.toUpperCase());
-
-        upperKeyStream.peek((k, v) -> {
-            log.info("key: {} - Value: {}", k, v);
+        // El repartition explícito conserva el mismo tópico interno que generaba toTable y deja
+        // el sink de Redis en la tarea dueña de la clave: una clave siempre la escribe una sola tarea.
+        // Si los productores ya particionan por la clave normalizada (UpperCaseKeyPartitioner) se omite.
+        KStream<byte[], byte[]> upperKeyStream = coPartitioned ? input : input.repartition(
+                Repartitioned.<byte[], byte[]>as(TopicEnum.UPPERCASE_TABLE.getName())
+                        .withKeySerde(Serdes.ByteArray())
+                        .withValueSerde(Serdes.ByteArray()));
 
-            if (k != null) {
-                var value = Optional.ofNullable(redisTemplate.opsForValue().get(k));
+        // Muestreado y con tope de líneas por segundo, en lugar de un log por registro
+        upperKeyStream.peek(recordTracer::trace);
 
-                if (value.isEmpty()) {
-                    redisTemplate.opsForValue().set(k, v);
-                }
-            }
-        });
+        var keyExpiry = keyTtl == null ? KeyExpiry.NONE : new KeyExpiry(keyTtl, purgeInterval, purgeBatchSize);
+        if (keyExpiry.enabled()) {
+            // La purga compara con el reloj de pared, el mismo con el que Redis caduca las claves
+            upperKeyStream = upperKeyStream.processValues(KeyExpiry::wallClockTimestamp, Named.as("wall-clock-timestamp"));
+        }
 
+        // Los bytes guardados son los mismos que con Serdes.String(): el store y su changelog no cambian
         upperKeyStream.toTable(
                 Named.as(TopicEnum.UPPERCASE_TABLE.getName()),
-                Materialized.<String, String, KeyValueStore<Bytes, byte[]>>as(TopicEnum.UPPERCASE_STORAGE.getName())
-                        .withKeySerde(Serdes.String())
-                        .withValueSerde(Serdes.String())
+                Materialized.<byte[], byte[], KeyValueStore<Bytes, byte[]>>as(TopicEnum.UPPERCASE_STORAGE.getName())
+                        .withKeySerde(Serdes.ByteArray())
+                        .withValueSerde(Serdes.ByteArray())
         );
 
+        var metrics = new TopologyMetrics(meterRegistry, sinkMode);
+        if (sinkMode == RedisSinkMode.WRITE_BEHIND) {
+            // Redis queda fuera del hilo de stream: las claves nuevas van al tópico que drena RedisWriteBehindConsumer
+            upperKeyStream.process(() -> new FirstSeenKeyProcessor(seenKeysMaxSize.toBytes(), keyExpiry, metrics),
+                            Named.as("redis-sink"), TopicEnum.UPPERCASE_STORAGE.getName())
+                    .to(TopicEnum.REDIS_SINK.getName(), Produced.with(Serdes.ByteArray(), Serdes.ByteArray()));
+        } else {
+            builder.addStateStore(new RedisSinkStore.Builder(() -> createRedisSink(metrics), metrics));
+            upperKeyStream.process(() -> new RedisSinkProcessor(flushInterval, seenKeysMaxSize.toBytes(), keyExpiry, metrics),
+                    Named.as("redis-sink"), RedisSinkStore.NAME, TopicEnum.UPPERCASE_STORAGE.getName());
+        }
+
         return builder.build();
     }
+
+    private RedisSink createRedisSink(TopologyMetrics metrics) {
+        return switch (sinkMode) {
+            case ASYNC -> new AsyncRedisSink(redisAsyncWriter, maxInFlight, awaitTimeout);
+            case BATCH -> new BatchRedisSink(redisBatchWriter, batchSize, metrics);
+            case WRITE_BEHIND -> throw new IllegalStateException("write-behind mode has no in-topology Redis sink");
+        };
+    }
 }
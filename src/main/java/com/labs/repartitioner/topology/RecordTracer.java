@@ -0,0 +1,131 @@
+package com.labs.repartitioner.topology;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Traza de registros de la topología: se registra una fracción {@code sample-rate} de los registros
+ * más todos los de las claves con un prefijo de la lista de depuración, con un tope global de
+ * {@code rate-per-second} líneas (token bucket). La configuración se cambia en caliente desde el
+ * endpoint {@code recordtracing}.
+ */
+@Component
+public class RecordTracer {
+
+    /** Logger propio: logback-spring.xml lo envía a un appender asíncrono que descarta si se llena */
+    private static final Logger log = LoggerFactory.getLogger("com.labs.repartitioner.trace");
+
+    private final Counter logged;
+    private final Counter rateLimited;
+    private volatile Selector selector;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public RecordTracer(@Value("${tracing.records.sample-rate:0.001}") double sampleRate,
+                        @Value("${tracing.records.prefixes:}") List<String> prefixes,
+                        @Value("${tracing.records.rate-per-second:50}") int ratePerSecond,
+                        MeterRegistry meterRegistry) {
+        this.selector = new Selector(new Settings(sampleRate, prefixes, ratePerSecond));
+        this.tokens = ratePerSecond;
+        this.logged = Counter.builder("topology.trace.records").tag("result", "logged").register(meterRegistry);
+        this.rateLimited = Counter.builder("topology.trace.records").tag("result", "rate_limited").register(meterRegistry);
+    }
+
+    public void trace(byte[] key, byte[] value) {
+        Selector current = selector;
+        if (!log.isInfoEnabled() || !current.selects(key)) {
+            return;
+        }
+        if (!tryAcquire(current.settings().ratePerSecond())) {
+            rateLimited.increment();
+            return;
+        }
+        logged.increment();
+        log.info("key: {} - Value: {}", utf8(key), utf8(value));
+    }
+
+    public Settings settings() {
+        return selector.settings();
+    }
+
+    /** Los valores {@code null} conservan la configuración actual. */
+    public Settings update(Double sampleRate, List<String> prefixes, Integer ratePerSecond) {
+        Settings current = selector.settings();
+        Settings updated = new Settings(
+                sampleRate != null ? sampleRate : current.sampleRate(),
+                prefixes != null ? prefixes : current.prefixes(),
+                ratePerSecond != null ? ratePerSecond : current.ratePerSecond());
+        selector = new Selector(updated);
+        return updated;
+    }
+
+    /** Sólo llegan aquí los registros ya seleccionados, así que el lock no está en el camino de cada registro. */
+    private synchronized boolean tryAcquire(int ratePerSecond) {
+        long now = System.nanoTime();
+        tokens = Math.min(ratePerSecond, tokens + (now - lastRefill) * ratePerSecond / 1e9);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private static String utf8(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param prefixes prefijos de clave que se trazan siempre; se comparan con la clave ya en mayúsculas.
+     */
+    public record Settings(double sampleRate, List<String> prefixes, int ratePerSecond) {
+
+        public Settings {
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+            }
+            if (ratePerSecond < 0) {
+                throw new IllegalArgumentException("ratePerSecond must not be negative: " + ratePerSecond);
+            }
+            prefixes = prefixes.stream()
+                    .map(String::trim)
+                    .filter(p -> !p.isEmpty())
+                    .map(p -> p.toUpperCase(Locale.ROOT))
+                    .toList();
+        }
+    }
+
+    /** La configuración con los prefijos ya codificados, para no convertir la clave a String. */
+    private record Selector(Settings settings, byte[][] prefixes) {
+
+        Selector(Settings settings) {
+            this(settings, settings.prefixes().stream()
+                    .map(p -> p.getBytes(StandardCharsets.UTF_8))
+                    .toArray(byte[][]::new));
+        }
+
+        boolean selects(byte[] key) {
+            if (settings.ratePerSecond() == 0) {
+                return false;
+            }
+            if (key != null) {
+                for (byte[] prefix : prefixes) {
+                    if (key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length)) {
+                        return true;
+                    }
+                }
+            }
+            return settings.sampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.sampleRate();
+        }
+    }
+}
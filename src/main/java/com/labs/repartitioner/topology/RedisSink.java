@@ -0,0 +1,19 @@
+package com.labs.repartitioner.topology;
+
+/**
+ * Escritura de claves vistas por primera vez hacia Redis, una instancia por tarea.
+ */
+public interface RedisSink {
+
+    void add(String key, String value);
+
+    /** Barrera de commit: al volver, todo lo agregado ya está confirmado por Redis. */
+    void flush();
+
+    /** Llamado por el punctuator de reloj de pared. */
+    default void punctuate() {
+        flush();
+    }
+
+    int pendingCount();
+}
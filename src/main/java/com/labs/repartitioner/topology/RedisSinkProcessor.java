@@ -0,0 +1,95 @@
+package com.labs.repartitioner.topology;
+
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrega las claves al {@link RedisSinkStore} de la tarea; un punctuator de reloj de pared
+ * vacía los lotes que no llegaron a su tamaño. Las claves cuya huella ya está en el
+ * {@link SeenKeySet} de la tarea no vuelven a Redis. Con {@link KeyExpiry} además purga las claves
+ * caducadas del store.
+ * <p>
+ * Una clave sólo pasa al filtro cuando el flush previo al commit confirma su escritura; hasta entonces
+ * queda en un filtro de pendientes, que se descarta si el flush falla. Al (re)iniciarse la tarea el filtro
+ * empieza vacío: el store de la tabla se actualiza antes que Redis y no sirve para saber qué claves llegaron.
+ */
+public class RedisSinkProcessor implements Processor<byte[], byte[], Void, Void> {
+
+    /** Memoria mínima del filtro de pendientes, que sólo guarda las claves nuevas desde el último commit */
+    private static final long MIN_PENDING_BYTES = 8 * 1024;
+
+    private final Duration flushInterval;
+    private final long seenKeysMaxBytes;
+    private final KeyExpiry keyExpiry;
+    private final TopologyMetrics metrics;
+    private RedisSinkStore store;
+    private SeenKeySet seenKeys;
+    private SeenKeySet pending;
+
+    /**
+     * @param seenKeysMaxBytes memoria para huellas de claves vistas por tarea; 0 lo desactiva.
+     * @param keyExpiry        caducidad de las claves en el store y en Redis.
+     */
+    public RedisSinkProcessor(Duration flushInterval, long seenKeysMaxBytes, KeyExpiry keyExpiry,
+                              TopologyMetrics metrics) {
+        this.flushInterval = flushInterval;
+        this.seenKeysMaxBytes = seenKeysMaxBytes;
+        this.keyExpiry = keyExpiry;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        store = context.getStateStore(RedisSinkStore.NAME);
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, timestamp -> store.punctuate());
+
+        if (seenKeysMaxBytes > 0) {
+            seenKeys = new SeenKeySet(seenKeysMaxBytes);
+            pending = new SeenKeySet(Math.max(MIN_PENDING_BYTES, seenKeysMaxBytes / 8));
+            store.setFlushListener(confirmed -> {
+                if (confirmed) {
+                    pending.moveTo(seenKeys);
+                } else {
+                    // La tarea vuelve a procesar desde el último commit y esas claves deben llegar a Redis
+                    pending.clear();
+                }
+            });
+        }
+        keyExpiry.schedule(context, seenKeys == null ? null : this::forgetSeenKeys, metrics);
+    }
+
+    @Override
+    public void process(Record<byte[], byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean firstSeen = seenKeys == null || isNew(SeenKeySet.fingerprint(record.key()));
+        if (firstSeen) {
+            // Sólo las claves nuevas se convierten a String
+            store.add(new String(record.key(), StandardCharsets.UTF_8),
+                    record.value() == null ? null : new String(record.value(), StandardCharsets.UTF_8));
+        }
+        metrics.keySeen(firstSeen);
+        metrics.recordProcessing().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isNew(long fingerprint) {
+        return !seenKeys.contains(fingerprint) && pending.add(fingerprint);
+    }
+
+    /**
+     * Con {@link KeyExpiry}, cada media TTL. Las pendientes también se olvidan: si pasaran al filtro en el
+     * siguiente flush, una clave escrita antes del vaciado quedaría filtrada otra media TTL sin renovarse.
+     */
+    private void forgetSeenKeys() {
+        seenKeys.clear();
+        pending.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package com.labs.repartitioner.topology;
+
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Expone el {@link RedisSink} de la tarea como state store (sin changelog) para que Kafka Streams
+ * llame a {@link #flush()} antes de cada commit: los offsets sólo avanzan cuando las escrituras
+ * ya están confirmadas por Redis (at-least-once).
+ */
+public class RedisSinkStore implements StateStore {
+
+    public static final String NAME = "redis-sink-buffer";
+
+    private final RedisSink sink;
+    private final TopologyMetrics metrics;
+    private FlushListener flushListener = confirmed -> { };
+    private boolean open;
+
+    public RedisSinkStore(RedisSink sink, TopologyMetrics metrics) {
+        this.sink = sink;
+        this.metrics = metrics;
+    }
+
+    /** Lo llama el hilo de stream tras cada {@link #flush()}. */
+    public void setFlushListener(FlushListener flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    public void add(String key, String value) {
+        sink.add(key, value);
+    }
+
+    public void punctuate() {
+        sink.punctuate();
+    }
+
+    public int pendingCount() {
+        return sink.pendingCount();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            metrics.commitWait().record(sink::flush);
+        } catch (RuntimeException e) {
+            flushListener.flushed(false);
+            throw e;
+        }
+        flushListener.flushed(true);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    @Deprecated
+    public void init(ProcessorContext context, StateStore root) {
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        open = false;
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @FunctionalInterface
+    public interface FlushListener {
+        /** @param confirmed si Redis confirmó todo lo agregado desde el flush anterior */
+        void flushed(boolean confirmed);
+    }
+
+    public static class Builder implements StoreBuilder<RedisSinkStore> {
+        private final Supplier<RedisSink> sinkSupplier;
+        private final TopologyMetrics metrics;
+
+        public Builder(Supplier<RedisSink> sinkSupplier, TopologyMetrics metrics) {
+            this.sinkSupplier = sinkSupplier;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public StoreBuilder<RedisSinkStore> withCachingEnabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<RedisSinkStore> withCachingDisabled() {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<RedisSinkStore> withLoggingEnabled(Map<String, String> config) {
+            return this;
+        }
+
+        @Override
+        public StoreBuilder<RedisSinkStore> withLoggingDisabled() {
+            return this;
+        }
+
+        @Override
+        public RedisSinkStore build() {
+            return new RedisSinkStore(sinkSupplier.get(), metrics);
+        }
+
+        @Override
+        public Map<String, String> logConfig() {
+            return Map.of();
+        }
+
+        @Override
+        public boolean loggingEnabled() {
+            return false;
+        }
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+    }
+}
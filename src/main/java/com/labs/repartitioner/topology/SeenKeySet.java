@@ -0,0 +1,119 @@
+package com.labs.repartitioner.topology;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de huellas de 64 bits de las claves ya enviadas a Redis, con direccionamiento abierto
+ * (sondeo lineal) sobre un único {@code long[]}: no crea un objeto por clave y su memoria queda fija
+ * al construirlo. Cuando se llena deja de aceptar claves nuevas, que simplemente siguen yendo a
+ * Redis (el SET NX mantiene el resultado correcto).
+ */
+public class SeenKeySet {
+
+    private static final long EMPTY = 0L;
+    private static final long ZERO_FINGERPRINT = 0x9E3779B97F4A7C15L;
+
+    private final long[] slots;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+    private long rejected;
+
+    /**
+     * @param maxBytes presupuesto de memoria; se usa la mayor potencia de dos de slots que entra en él.
+     */
+    public SeenKeySet(long maxBytes) {
+        long slotCount = Long.highestOneBit(Math.max(2, Math.min(maxBytes / Long.BYTES, 1 << 30)));
+        this.slots = new long[(int) slotCount];
+        this.mask = slots.length - 1;
+        this.maxEntries = (int) (slotCount * 3 / 4);
+    }
+
+    /**
+     * @return {@code false} sólo si la huella ya estaba. Con el conjunto lleno devuelve {@code true}
+     *         sin registrarla, para que la clave siga yendo a Redis.
+     */
+    public boolean add(long fingerprint) {
+        long fp = fingerprint == EMPTY ? ZERO_FINGERPRINT : fingerprint;
+        int i = (int) fp & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == fp) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size >= maxEntries) {
+            rejected++;
+            return true;
+        }
+        slots[i] = fp;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long fingerprint) {
+        long fp = fingerprint == EMPTY ? ZERO_FINGERPRINT : fingerprint;
+        int i = (int) fp & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == fp) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /** Olvida todas las huellas sin liberar memoria. */
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    /** Pasa todas las huellas a {@code target} y queda vacío. */
+    public void moveTo(SeenKeySet target) {
+        for (int i = 0; i < slots.length && size > 0; i++) {
+            if (slots[i] != EMPTY) {
+                target.add(slots[i]);
+                slots[i] = EMPTY;
+                size--;
+            }
+        }
+        size = 0;
+    }
+
+    public boolean isFull() {
+        return size >= maxEntries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return maxEntries;
+    }
+
+    /** Claves nuevas que no se pudieron registrar por falta de espacio. */
+    public long rejected() {
+        return rejected;
+    }
+
+    /** FNV-1a de 64 bits sobre los bytes UTF-8 de la clave, con el mezclado final de MurmurHash3. */
+    public static long fingerprint(byte[] key) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,78 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+
+/**
+ * Métricas propias del camino caliente hacia Redis, compartidas por todas las tareas.
+ * La latencia por comando de Redis la publica Lettuce ({@code lettuce.command.*}) y las
+ * métricas del cliente de Kafka Streams el listener de Micrometer de spring-kafka.
+ */
+public class TopologyMetrics {
+
+    private final Timer recordProcessing;
+    private final Counter firstSeen;
+    private final Counter alreadySeen;
+    private final Counter expired;
+    private final DistributionSummary batchSize;
+    private final Timer batchWrite;
+    private final Timer commitWait;
+
+    public TopologyMetrics(MeterRegistry registry, RedisSinkMode mode) {
+        String sinkMode = mode.name().toLowerCase(Locale.ROOT);
+        recordProcessing = Timer.builder("topology.record.process")
+                .description("Time spent by the redis-sink processor on each record")
+                .register(registry);
+        firstSeen = Counter.builder("topology.keys")
+                .description("Keys received by the redis-sink processor")
+                .tag("result", "first_seen")
+                .register(registry);
+        alreadySeen = Counter.builder("topology.keys")
+                .description("Keys received by the redis-sink processor")
+                .tag("result", "already_seen")
+                .register(registry);
+        expired = Counter.builder("topology.keys.expired")
+                .description("Keys purged from the key store after topology.key-ttl without records")
+                .register(registry);
+        batchSize = DistributionSummary.builder("redis.sink.batch.size")
+                .description("Keys per SET NX batch")
+                .baseUnit("keys")
+                .register(registry);
+        batchWrite = Timer.builder("redis.sink.batch.write")
+                .description("Time to write a SET NX batch and receive every reply")
+                .register(registry);
+        commitWait = Timer.builder("redis.sink.commit.wait")
+                .description("Time a commit waits for pending Redis writes")
+                .tag("mode", sinkMode)
+                .register(registry);
+    }
+
+    public Timer recordProcessing() {
+        return recordProcessing;
+    }
+
+    public void keySeen(boolean first) {
+        (first ? firstSeen : alreadySeen).increment();
+    }
+
+    public void keysExpired(int count) {
+        expired.increment(count);
+    }
+
+    public DistributionSummary batchSize() {
+        return batchSize;
+    }
+
+    public Timer batchWrite() {
+        return batchWrite;
+    }
+
+    public Timer commitWait() {
+        return commitWait;
+    }
+}
@@ -0,0 +1,158 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.serde.UpperCaseKeyDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pasos de normalización de clave y valor de {@code topology.pipeline}, en orden. Se compilan en los
+ * deserializadores del nodo fuente: todos los pasos corren fusionados en ese nodo, sin nodos
+ * {@code selectKey}/{@code mapValues} intermedios, y la clave ya sale con su valor final hacia la única
+ * repartición de la topología, por muchos pasos que cambien la clave.
+ * Cada paso es {@code nombre} o {@code nombre:argumento} (el argumento llega hasta el final del paso).
+ */
+@Component
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = true)
+public class TransformPipeline {
+
+    public static final String UPPERCASE_KEY = "uppercase-key";
+
+    private final List<Step> keySteps;
+    private final List<Step> valueSteps;
+
+    public TransformPipeline(@Value("${topology.pipeline:" + UPPERCASE_KEY + "}") List<String> steps) {
+        List<Step> parsed = steps.stream()
+                .filter(step -> !step.isBlank())
+                .map(Step::parse)
+                .toList();
+        this.keySteps = parsed.stream().filter(step -> step.kind().onKey()).toList();
+        this.valueSteps = parsed.stream().filter(step -> !step.kind().onKey()).toList();
+    }
+
+    /** Clave tal como queda en el store y en Redis; puede modificar el arreglo recibido. */
+    public byte[] key(byte[] key) {
+        return apply(keySteps, key);
+    }
+
+    public byte[] value(byte[] value) {
+        return apply(valueSteps, value);
+    }
+
+    /** La clave sólo pasa a mayúsculas: el contrato de {@link UpperCaseKeyPartitioner}. */
+    public boolean isUpperCaseKeyOnly() {
+        return keySteps.size() == 1 && keySteps.get(0).kind() == Kind.UPPERCASE_KEY;
+    }
+
+    public Serde<byte[]> keySerde() {
+        return Serdes.serdeFrom(new ByteArraySerializer(), deserializer(keySteps));
+    }
+
+    public Serde<byte[]> valueSerde() {
+        return Serdes.serdeFrom(new ByteArraySerializer(), deserializer(valueSteps));
+    }
+
+    private static Deserializer<byte[]> deserializer(List<Step> steps) {
+        return (topic, data) -> apply(steps, data);
+    }
+
+    private static byte[] apply(List<Step> steps, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        byte[] result = data;
+        for (Step step : steps) {
+            result = step.apply(result);
+        }
+        return result;
+    }
+
+    enum Kind {
+        UPPERCASE_KEY(true, false),
+        LOWERCASE_KEY(true, false),
+        TRIM_KEY(true, false),
+        STRIP_KEY_PREFIX(true, true),
+        ADD_KEY_PREFIX(true, true),
+        TRIM_VALUE(false, false),
+        ADD_VALUE_PREFIX(false, true),
+        ADD_VALUE_SUFFIX(false, true);
+
+        private final boolean onKey;
+        private final boolean hasArgument;
+
+        Kind(boolean onKey, boolean hasArgument) {
+            this.onKey = onKey;
+            this.hasArgument = hasArgument;
+        }
+
+        boolean onKey() {
+            return onKey;
+        }
+    }
+
+    /** @param argument bytes UTF-8 del argumento; vacío en los pasos que no lo usan */
+    record Step(Kind kind, byte[] argument) {
+
+        static Step parse(String spec) {
+            int colon = spec.indexOf(':');
+            String name = (colon < 0 ? spec : spec.substring(0, colon)).trim();
+            Kind kind;
+            try {
+                kind = Kind.valueOf(name.replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown topology.pipeline step: " + name, e);
+            }
+            if (kind.hasArgument != colon >= 0) {
+                throw new IllegalArgumentException("topology.pipeline step " + name
+                        + (kind.hasArgument ? " needs an argument (" + name + ":<text>)" : " takes no argument"));
+            }
+            String argument = colon < 0 ? "" : spec.substring(colon + 1);
+            return new Step(kind, argument.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] apply(byte[] data) {
+            return switch (kind) {
+                case UPPERCASE_KEY -> UpperCaseKeyDeserializer.toUpperCase(data);
+                case LOWERCASE_KEY -> new String(data, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT)
+                        .getBytes(StandardCharsets.UTF_8);
+                case TRIM_KEY, TRIM_VALUE -> trim(data);
+                case STRIP_KEY_PREFIX -> startsWith(data, argument)
+                        ? Arrays.copyOfRange(data, argument.length, data.length) : data;
+                case ADD_KEY_PREFIX, ADD_VALUE_PREFIX -> concat(argument, data);
+                case ADD_VALUE_SUFFIX -> concat(data, argument);
+            };
+        }
+
+        /** Espacios y controles ASCII de los extremos, como {@link String#trim()}. */
+        private static byte[] trim(byte[] data) {
+            int start = 0;
+            int end = data.length;
+            while (start < end && (data[start] & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (data[end - 1] & 0xFF) <= ' ') {
+                end--;
+            }
+            return start == 0 && end == data.length ? data : Arrays.copyOfRange(data, start, end);
+        }
+
+        private static boolean startsWith(byte[] data, byte[] prefix) {
+            return data.length >= prefix.length && Arrays.equals(data, 0, prefix.length, prefix, 0, prefix.length);
+        }
+
+        private static byte[] concat(byte[] first, byte[] second) {
+            byte[] result = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, result, first.length, second.length);
+            return result;
+        }
+    }
+}
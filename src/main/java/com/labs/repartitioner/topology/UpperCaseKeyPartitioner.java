@@ -0,0 +1,39 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.serde.UpperCaseKeyDeserializer;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Contrato de particionado del modo {@code topology.co-partitioned}: la partición es el murmur2 de la
+ * clave ya en mayúsculas, igual que el partitioner por defecto de Kafka sobre la clave normalizada.
+ * Los productores del tópico {@code uppercase} lo configuran con {@code partitioner.class}.
+ */
+public class UpperCaseKeyPartitioner implements Partitioner {
+
+    public static int partitionFor(byte[] keyBytes, int numPartitions) {
+        byte[] normalized = UpperCaseKeyDeserializer.toUpperCase(keyBytes.clone());
+        return Utils.toPositive(Utils.murmur2(normalized)) % numPartitions;
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        if (keyBytes == null) {
+            throw new IllegalArgumentException("Records on " + topic + " must have a key to be co-partitioned");
+        }
+        return partitionFor(keyBytes, cluster.partitionCountForTopic(topic));
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        // sin configuración
+    }
+
+    @Override
+    public void close() {
+        // sin recursos
+    }
+}
@@ -5,27 +5,53 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusOutputFormat;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.env.AbstractEnvironment;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsMicrometerListener;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
 
 @SpringBootTest
+@AutoConfigureObservability(tracing = false)
 class GKEDeployAppTest {
 
+    @Autowired
+    PrometheusScrapeEndpoint prometheusScrapeEndpoint;
+
+    @Autowired
+    StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
     @Test
     void contextLoads() {
         // ya existe en el proyecto, garantiza que el contexto arranca
     }
 
+    @Test
+    void exposesTopologyAndKafkaStreamsMetrics_forPrometheus() {
+        String scrape = new String(prometheusScrapeEndpoint.scrape(PrometheusOutputFormat.CONTENT_TYPE_004, null)
+                .getBody(), StandardCharsets.UTF_8);
+
+        assertTrue(scrape.contains("topology_keys_total"));
+        assertTrue(scrape.contains("redis_sink_commit_wait_seconds"));
+        assertTrue(streamsBuilderFactoryBean.getListeners().stream()
+                .anyMatch(KafkaStreamsMicrometerListener.class::isInstance));
+    }
+
     @Test
     void mainShouldInvokeSpringApplicationRun() {
         try (MockedStatic<SpringApplication> spring = mockStatic(SpringApplication.class)) {
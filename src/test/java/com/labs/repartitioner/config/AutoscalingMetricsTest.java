@@ -0,0 +1,280 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.constant.TopicEnum;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.ThreadMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AutoscalingMetricsTest {
+
+    private static final String INPUT = TopicEnum.UPPERCASE.getName();
+    private static final TopicPartition REPARTITION = new TopicPartition("app-uppercase-table-repartition", 0);
+
+    @Mock StreamsBuilderFactoryBean factoryBean;
+    @Mock KafkaAdmin kafkaAdmin;
+    @Mock Admin admin;
+    @Mock KafkaStreams ks;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AutoscalingMetrics sut;
+
+    @BeforeEach
+    void setup() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<NewTopic> topics = mock(ObjectProvider.class);
+        lenient().when(topics.orderedStream()).thenAnswer(i -> Stream.of(TopicBuilder.name(INPUT).partitions(3).build()));
+
+        sut = new AutoscalingMetrics(factoryBean, kafkaAdmin, topics);
+        sut.adminFactory = config -> admin;
+        ReflectionTestUtils.setField(sut, "sampleInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(sut, "adminTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(sut, "lagPerReplica", 1000L);
+        ReflectionTestUtils.setField(sut, "recordsPerSecondPerReplica", 0d);
+        ReflectionTestUtils.setField(sut, "targetRedisSaturation", 0.5);
+        sut.bindTo(registry);
+
+        Properties config = new Properties();
+        config.put(StreamsConfig.APPLICATION_ID_CONFIG, "app");
+        config.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, "1");
+        lenient().when(factoryBean.getStreamsConfiguration()).thenReturn(config);
+    }
+
+    @Test
+    void sample_publishesGroupLagPerPartition_andDesiredReplicas() {
+        when(factoryBean.getKafkaStreams()).thenReturn(ks);
+        when(ks.state()).thenReturn(KafkaStreams.State.RUNNING);
+        doReturn(Map.ofEntries(
+                metric("process-rate", "stream-thread-metrics", Map.of("thread-id", "app-StreamThread-1"), 110)))
+                .when(ks).metrics();
+        describeInput(3);
+        // Partición 2 todavía sin commit: cuenta desde el primer offset
+        var committed = mock(ListConsumerGroupOffsetsResult.class);
+        when(committed.partitionsToOffsetAndMetadata()).thenReturn(KafkaFuture.completedFuture(Map.of(
+                new TopicPartition(INPUT, 0), new OffsetAndMetadata(100),
+                new TopicPartition(INPUT, 1), new OffsetAndMetadata(500),
+                REPARTITION, new OffsetAndMetadata(0))));
+        when(admin.listConsumerGroupOffsets("app")).thenReturn(committed);
+        offsets(spec -> spec instanceof OffsetSpec.EarliestSpec, Map.of(new TopicPartition(INPUT, 2), 50L));
+        offsets(spec -> spec instanceof OffsetSpec.LatestSpec, Map.of(
+                new TopicPartition(INPUT, 0), 1100L,
+                new TopicPartition(INPUT, 1), 500L,
+                new TopicPartition(INPUT, 2), 1050L,
+                REPARTITION, 800L));
+
+        var sample = sut.sample();
+
+        assertEquals(2800, sample.totalLag());
+        assertEquals(3, sample.maxReplicas());
+        assertEquals(3, sample.desiredReplicas()); // 2800 / 1000 redondeado hacia arriba
+        assertEquals(0, sample.inRate()); // sin muestra anterior
+        assertEquals(110, sample.outRate());
+        assertEquals(1000, registry.get("autoscaling.consumer.lag").tags("topic", INPUT, "partition", "2").gauge().value());
+        assertEquals(800, registry.get("autoscaling.consumer.lag").tags("topic", REPARTITION.topic()).gauge().value());
+        assertEquals(3, registry.get("autoscaling.desired.replicas").gauge().value());
+        assertEquals(2800, registry.get("autoscaling.consumer.lag.total").gauge().value());
+    }
+
+    @Test
+    void sample_scalesOnTheInputTopicRate_sameOnEveryReplica() {
+        ReflectionTestUtils.setField(sut, "lagPerReplica", 0L);
+        ReflectionTestUtils.setField(sut, "recordsPerSecondPerReplica", 100d);
+        long[] now = {0};
+        sut.nanoTime = () -> now[0];
+        var other = new AutoscalingMetrics(factoryBean, kafkaAdmin, mock(ObjectProvider.class));
+        other.adminFactory = config -> admin;
+        other.nanoTime = () -> now[0];
+        ReflectionTestUtils.setField(other, "adminTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(other, "recordsPerSecondPerReplica", 100d);
+
+        when(factoryBean.getKafkaStreams()).thenReturn(ks);
+        when(ks.state()).thenReturn(KafkaStreams.State.RUNNING);
+        // Tres pods: cada uno consume un tercio, pero la señal es la del grupo
+        when(ks.metadataForAllStreamsClients()).thenReturn(List.of(
+                mock(StreamsMetadata.class), mock(StreamsMetadata.class), mock(StreamsMetadata.class)));
+        doReturn(Map.of()).when(ks).metrics();
+        describeInput(6);
+        Map<TopicPartition, Long> end = new HashMap<>();
+        IntStream.range(0, 6).forEach(p -> end.put(new TopicPartition(INPUT, p), 1000L));
+        end.put(REPARTITION, 0L);
+        when(admin.listConsumerGroupOffsets("app")).thenReturn(mock(ListConsumerGroupOffsetsResult.class, inv ->
+                KafkaFuture.completedFuture(Map.of(REPARTITION, new OffsetAndMetadata(0)))));
+        Map<TopicPartition, Long> earliest = new HashMap<>();
+        end.keySet().forEach(tp -> earliest.put(tp, 0L));
+        offsets(spec -> spec instanceof OffsetSpec.EarliestSpec, earliest);
+        offsets(spec -> spec instanceof OffsetSpec.LatestSpec, end);
+        sut.sample();
+        other.sample();
+
+        // 4500 registros nuevos en 10 s; el repartition (que relee cada registro) no cuenta
+        now[0] += Duration.ofSeconds(10).toNanos();
+        end.replaceAll((tp, offset) -> offset + 750);
+        var sample = sut.sample();
+
+        assertEquals(450, sample.inRate());
+        assertEquals(5, sample.desiredReplicas());
+        assertEquals(sample, other.sample());
+    }
+
+    @Test
+    void sample_capsAtConfiguredPartitions_whenBrokerIsUnavailable() {
+        ReflectionTestUtils.setField(sut, "lagPerReplica", 0L);
+        when(factoryBean.getKafkaStreams()).thenReturn(null);
+        var describe = mock(DescribeTopicsResult.class);
+        when(describe.allTopicNames()).thenReturn(failed());
+        when(admin.describeTopics(anyCollection())).thenReturn(describe);
+
+        var sample = sut.sample();
+
+        assertEquals(0, sample.totalLag());
+        assertEquals(3, sample.maxReplicas());
+        assertEquals(1, sample.desiredReplicas());
+    }
+
+    @Test
+    void sample_capsByLiveStreamThreads_whenThreadScalingAddedThreads() {
+        ReflectionTestUtils.setField(sut, "lagPerReplica", 0L);
+        when(factoryBean.getKafkaStreams()).thenReturn(ks);
+        when(ks.state()).thenReturn(KafkaStreams.State.RUNNING);
+        // num.stream.threads es 1, pero el pod ya corre 2 hilos
+        when(ks.metadataForLocalThreads()).thenReturn(Set.of(mock(ThreadMetadata.class), mock(ThreadMetadata.class)));
+        doReturn(Map.of()).when(ks).metrics();
+        var describe = mock(DescribeTopicsResult.class);
+        when(describe.allTopicNames()).thenReturn(failed());
+        when(admin.describeTopics(anyCollection())).thenReturn(describe);
+
+        var sample = sut.sample();
+
+        assertEquals(2, sample.maxReplicas()); // 3 particiones / 2 hilos redondeado hacia arriba
+    }
+
+    @Test
+    void sample_scalesOnRedisSaturation() {
+        when(factoryBean.getKafkaStreams()).thenReturn(null);
+        var describe = mock(DescribeTopicsResult.class);
+        when(describe.allTopicNames()).thenReturn(failed());
+        when(admin.describeTopics(anyCollection())).thenReturn(describe);
+        Timer batchWrite = registry.timer("redis.sink.batch.write");
+
+        sut.sample();
+        // Más espera en Redis que tiempo transcurrido: saturación al tope
+        batchWrite.record(Duration.ofMinutes(5));
+        var sample = sut.sample();
+
+        assertEquals(1.0, sample.redisSaturation());
+        assertEquals(2, sample.desiredReplicas()); // 1 réplica * 1.0 / 0.5
+    }
+
+    @Test
+    void desiredReplicas_takesTheLargestSignal_cappedByPartitions() {
+        ReflectionTestUtils.setField(sut, "recordsPerSecondPerReplica", 100d);
+
+        assertEquals(1, sut.desiredReplicas(0, 0, 0, 1, 6));
+        assertEquals(5, sut.desiredReplicas(0, 450, 0, 1, 6));
+        assertEquals(5, sut.desiredReplicas(0, 450, 0, 3, 6));
+        assertEquals(4, sut.desiredReplicas(0, 0, 0.6, 3, 6));
+        assertEquals(6, sut.desiredReplicas(50_000, 0, 0, 1, 6));
+    }
+
+    @Test
+    void destroy_closesAdminClient() {
+        when(factoryBean.getKafkaStreams()).thenReturn(null);
+        describeInput(3);
+        when(admin.listConsumerGroupOffsets("app")).thenReturn(mock(ListConsumerGroupOffsetsResult.class, inv ->
+                KafkaFuture.completedFuture(Map.of())));
+        offsets(spec -> spec instanceof OffsetSpec.EarliestSpec, Map.of());
+        offsets(spec -> spec instanceof OffsetSpec.LatestSpec, Map.of());
+        sut.afterSingletonsInstantiated();
+        sut.sample();
+
+        sut.destroy();
+
+        verify(admin).close(any(Duration.class));
+    }
+
+    private void describeInput(int partitions) {
+        var node = new Node(0, "localhost", 9092);
+        var description = new TopicDescription(INPUT, false, IntStream.range(0, partitions)
+                .mapToObj(p -> new TopicPartitionInfo(p, node, List.of(node), List.of(node))).toList());
+        var describe = mock(DescribeTopicsResult.class);
+        when(describe.allTopicNames()).thenReturn(KafkaFuture.completedFuture(Map.of(INPUT, description)));
+        when(admin.describeTopics(anyCollection())).thenReturn(describe);
+    }
+
+    private void offsets(Predicate<OffsetSpec> spec, Map<TopicPartition, Long> offsets) {
+        // Responde sólo las particiones pedidas, con los offsets del momento
+        when(admin.listOffsets(argThat((Map<TopicPartition, OffsetSpec> specs) ->
+                specs != null && specs.values().stream().allMatch(spec)))).thenAnswer(invocation -> {
+                    Map<TopicPartition, OffsetSpec> specs = invocation.getArgument(0);
+                    Map<TopicPartition, ListOffsetsResultInfo> infos = new HashMap<>();
+                    specs.keySet().stream().filter(offsets::containsKey).forEach(tp ->
+                            infos.put(tp, new ListOffsetsResultInfo(offsets.get(tp), -1, Optional.empty())));
+                    var result = mock(ListOffsetsResult.class);
+                    when(result.all()).thenReturn(KafkaFuture.completedFuture(infos));
+                    return result;
+                });
+    }
+
+    private static <T> KafkaFuture<T> failed() {
+        var future = new KafkaFutureImpl<T>();
+        future.completeExceptionally(new TimeoutException("no broker"));
+        return future;
+    }
+
+    private static Map.Entry<MetricName, Metric> metric(String name, String group, Map<String, String> tags, double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return Map.entry(new MetricName(name, group, "", tags), metric);
+    }
+}
@@ -0,0 +1,94 @@
+package com.labs.repartitioner.config;
+
+import org.junit.jupiter.api.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.Options;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedRocksDBConfigSetterTest {
+
+    @Test
+    void budget_usesExplicitSize_orContainerFraction() {
+        assertEquals(32L * 1024 * 1024, BoundedRocksDBConfigSetter.budget(
+                Map.of(BoundedRocksDBConfigSetter.BUDGET_CONFIG, "32MB"), 1000));
+        assertEquals(250, BoundedRocksDBConfigSetter.budget(
+                Map.of(BoundedRocksDBConfigSetter.BUDGET_CONFIG, " "), 1000));
+        assertEquals(500, BoundedRocksDBConfigSetter.budget(
+                Map.of(BoundedRocksDBConfigSetter.CONTAINER_FRACTION_CONFIG, "0.5"), 1000));
+        assertThrows(IllegalArgumentException.class, () -> BoundedRocksDBConfigSetter.budget(
+                Map.of(BoundedRocksDBConfigSetter.CONTAINER_FRACTION_CONFIG, "1.5"), 1000));
+    }
+
+    @Test
+    void setConfig_sharesCacheAndWriteBufferManager_acrossStores() {
+        Map<String, Object> configs = Map.of(BoundedRocksDBConfigSetter.BUDGET_CONFIG, "16MB");
+        try (var first = options(); var second = options()) {
+            new BoundedRocksDBConfigSetter().setConfig("store-0", first, configs);
+            new BoundedRocksDBConfigSetter().setConfig("store-1", second, configs);
+
+            var shared = BoundedRocksDBConfigSetter.sharedMemory();
+            assertNotNull(shared);
+            assertSame(shared.writeBufferManager(), first.writeBufferManager());
+            assertSame(shared.writeBufferManager(), second.writeBufferManager());
+            assertTrue(((BlockBasedTableConfig) first.tableFormatConfig()).cacheIndexAndFilterBlocks());
+        }
+    }
+
+    @Test
+    void pointLookupProfile_tunesFiltersAndIndex() {
+        var setter = new BoundedRocksDBConfigSetter();
+        try (var options = options()) {
+            setter.setConfig("store", options, Map.of(BoundedRocksDBConfigSetter.PROFILE_CONFIG, "point-lookup"));
+
+            var tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+            assertTrue(options.optimizeFiltersForHits());
+            assertEquals(DataBlockIndexType.kDataBlockBinaryAndHash, tableConfig.dataBlockIndexType());
+            assertNotNull(tableConfig.filterPolicy());
+            setter.close("store", options);
+        }
+    }
+
+    @Test
+    void writeHeavyProfile_keepsMoreMemtables() {
+        try (var options = options()) {
+            new BoundedRocksDBConfigSetter().setConfig("store", options,
+                    Map.of(BoundedRocksDBConfigSetter.PROFILE_CONFIG, "WRITE_HEAVY"));
+
+            assertEquals(4, options.maxWriteBufferNumber());
+            assertEquals(8, options.level0FileNumCompactionTrigger());
+            assertFalse(options.optimizeFiltersForHits());
+        }
+    }
+
+    @Test
+    void ioRateLimit_isSharedAndRaisedWhileRestoring() {
+        Map<String, Object> configs = Map.of(
+                BoundedRocksDBConfigSetter.IO_RATE_LIMIT_CONFIG, "32MB",
+                BoundedRocksDBConfigSetter.RESTORE_IO_RATE_LIMIT_CONFIG, "512MB");
+        try (var options = options()) {
+            new BoundedRocksDBConfigSetter().setConfig("store", options, configs);
+
+            var limiter = BoundedRocksDBConfigSetter.ioRateLimit().limiter();
+            assertEquals(32L * 1024 * 1024, limiter.getBytesPerSecond());
+
+            BoundedRocksDBConfigSetter.setRestoring(true);
+            assertEquals(512L * 1024 * 1024, limiter.getBytesPerSecond());
+
+            BoundedRocksDBConfigSetter.setRestoring(false);
+            assertEquals(32L * 1024 * 1024, limiter.getBytesPerSecond());
+        }
+    }
+
+    private static Options options() {
+        return new Options().setTableFormatConfig(new BlockBasedTableConfig());
+    }
+}
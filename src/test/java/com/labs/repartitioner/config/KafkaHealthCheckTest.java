@@ -1,15 +1,22 @@
 package com.labs.repartitioner.config;
 
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KafkaStreams.State;
+import org.apache.kafka.streams.processor.StateRestoreListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -17,17 +24,22 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaHealthCheckTest {
 
     @Mock ObjectProvider<List<StreamsBuilderFactoryBean>> provider;
+    @Mock ObjectProvider<StateRestoreListener> restoreListeners;
+    @Mock StateRestoreListener restoreProgress;
+    @Mock RebalancePauseTimer pauseTimer;
     @Mock StreamsBuilderFactoryBean factory1;
     @Mock StreamsBuilderFactoryBean factory2;
     @Mock KafkaStreams ks1;
@@ -37,10 +49,12 @@ class KafkaHealthCheckTest {
 
     @BeforeEach
     void setup() {
-        sut = new KafkaHealthCheck(provider);
+        sut = new KafkaHealthCheck(provider, restoreListeners, pauseTimer);
+        lenient().when(restoreListeners.orderedStream()).thenAnswer(i -> Stream.of(restoreProgress));
         // Valores fáciles de leer en los asserts
         ReflectionTestUtils.setField(sut, "appName", "Repartitioner");
         ReflectionTestUtils.setField(sut, "rebalancingMax", Duration.ofSeconds(180)); // PT3M
+        ReflectionTestUtils.setField(sut, "sampleInterval", Duration.ofMinutes(1));
     }
 
     @Test
@@ -68,12 +82,27 @@ class KafkaHealthCheckTest {
         assertEquals("NOT_INITIALIZED", topo.get("state"));
     }
 
+    @Test
+    void staysOff_withParallelEngine_orWithoutKafka() {
+        var runner = new ApplicationContextRunner()
+                .withUserConfiguration(RebalancePauseTimer.class, KafkaHealthCheck.class, KafkaReadinessCheck.class)
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()));
+
+        runner.run(context -> assertThat(context).hasSingleBean(KafkaReadinessCheck.class));
+        runner.withPropertyValues("engine.type=parallel")
+                .run(context -> assertThat(context).doesNotHaveBean(KafkaHealthCheck.class)
+                        .doesNotHaveBean(KafkaReadinessCheck.class).doesNotHaveBean(RebalancePauseTimer.class));
+        runner.withPropertyValues("spring.kafka.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(KafkaHealthCheck.class));
+    }
+
     @Test
     void health_returnsUp_whenRunning() {
         when(provider.getIfAvailable()).thenReturn(List.of(factory1));
         when(factory1.getKafkaStreams()).thenReturn(ks1);
         when(ks1.state()).thenReturn(State.RUNNING);
-        when(ks1.localThreadsMetadata()).thenReturn(emptySet()); // evitar NPE en detalle
+        when(ks1.metadataForLocalThreads()).thenReturn(emptySet()); // evitar NPE en detalle
 
         Health health = sut.health();
 
@@ -87,7 +116,7 @@ class KafkaHealthCheckTest {
         when(provider.getIfAvailable()).thenReturn(List.of(factory1));
         when(factory1.getKafkaStreams()).thenReturn(ks1);
         when(ks1.state()).thenReturn(State.REBALANCING);
-        when(ks1.localThreadsMetadata()).thenReturn(emptySet());
+        when(ks1.metadataForLocalThreads()).thenReturn(emptySet());
 
         Health health = sut.health();
 
@@ -101,7 +130,7 @@ class KafkaHealthCheckTest {
         when(provider.getIfAvailable()).thenReturn(List.of(factory1));
         when(factory1.getKafkaStreams()).thenReturn(ks1);
         when(ks1.state()).thenReturn(State.REBALANCING);
-        when(ks1.localThreadsMetadata()).thenReturn(emptySet());
+        when(ks1.metadataForLocalThreads()).thenReturn(emptySet());
 
         // Reducimos el umbral para facilitar el test
         ReflectionTestUtils.setField(sut, "rebalancingMax", Duration.ofSeconds(1));
@@ -120,6 +149,15 @@ class KafkaHealthCheckTest {
                 ((Map<?,?>) health.getDetails().get("Repartitioner-topology-0")).get("state"));
     }
 
+    @Test
+    void onStateChange_forwardsToThePauseTimer() {
+        sut.onStateChange("Repartitioner-topology-0", State.REBALANCING);
+        sut.onStateChange("Repartitioner-topology-0", State.RUNNING);
+
+        verify(pauseTimer).onStateChange("Repartitioner-topology-0", State.REBALANCING);
+        verify(pauseTimer).onStateChange("Repartitioner-topology-0", State.RUNNING);
+    }
+
     @Test
     void health_aggregatesMultipleTopologies_downIfAnyIsBad() {
         when(provider.getIfAvailable()).thenReturn(List.of(factory1, factory2));
@@ -127,12 +165,11 @@ class KafkaHealthCheckTest {
         // Topología 0: RUNNING
         when(factory1.getKafkaStreams()).thenReturn(ks1);
         when(ks1.state()).thenReturn(State.RUNNING);
-        when(ks1.localThreadsMetadata()).thenReturn(emptySet());
+        when(ks1.metadataForLocalThreads()).thenReturn(emptySet());
 
         // Topología 1: ERROR
         when(factory2.getKafkaStreams()).thenReturn(ks2);
         when(ks2.state()).thenReturn(State.ERROR);
-        when(ks2.localThreadsMetadata()).thenReturn(emptySet());
 
         Health health = sut.health();
 
@@ -142,4 +179,109 @@ class KafkaHealthCheckTest {
         assertEquals("ERROR",
                 ((Map<?,?>) health.getDetails().get("Repartitioner-topology-1")).get("state"));
     }
+
+    @Test
+    void health_readsSnapshot_untilAStateChangeRefreshesIt() {
+        when(provider.getIfAvailable()).thenReturn(List.of(factory1));
+        when(factory1.getKafkaStreams()).thenReturn(ks1);
+        when(ks1.state()).thenReturn(State.RUNNING);
+
+        sut.afterSingletonsInstantiated();
+        ArgumentCaptor<KafkaStreams.StateListener> listener = ArgumentCaptor.forClass(KafkaStreams.StateListener.class);
+        verify(factory1).setStateListener(listener.capture());
+        assertEquals(Status.UP, sut.health().getStatus());
+
+        // El probe no vuelve a consultar Kafka Streams: lee la foto
+        clearInvocations(ks1);
+        for (int i = 0; i < 10; i++) {
+            sut.health();
+        }
+        verifyNoInteractions(ks1);
+
+        when(ks1.state()).thenReturn(State.PENDING_SHUTDOWN);
+        listener.getValue().onChange(State.PENDING_SHUTDOWN, State.RUNNING);
+        verify(ks1, timeout(2000).atLeastOnce()).state();
+        await(() -> Status.DOWN.equals(sut.health().getStatus()));
+        sut.destroy();
+    }
+
+    @Test
+    void readiness_isOutOfService_whileRestoring() {
+        ReflectionTestUtils.setField(sut, "allowRestoring", false);
+        when(provider.getIfAvailable()).thenReturn(List.of(factory1));
+        when(factory1.getKafkaStreams()).thenReturn(ks1);
+        when(ks1.state()).thenReturn(State.REBALANCING);
+
+        sut.afterSingletonsInstantiated();
+        sut.destroy(); // refrescos a mano
+        ArgumentCaptor<StateRestoreListener> restore = ArgumentCaptor.forClass(StateRestoreListener.class);
+        verify(factory1).setStateRestoreListener(restore.capture());
+        var partition = new TopicPartition("store-changelog", 0);
+
+        restore.getValue().onRestoreStart(partition, "store", 0, 1000);
+        restore.getValue().onBatchRestored(partition, "store", 400, 400);
+        sut.refresh();
+        verify(restoreProgress).onRestoreStart(partition, "store", 0, 1000);
+        verify(restoreProgress).onBatchRestored(partition, "store", 400, 400);
+
+        Health readiness = sut.readiness();
+        assertEquals(Status.OUT_OF_SERVICE, readiness.getStatus());
+        assertEquals(600L, ((Map<?, ?>) readiness.getDetails().get("Repartitioner-topology-0")).get("restoringRecords"));
+        assertEquals(Status.UP, sut.health().getStatus());
+
+        restore.getValue().onRestoreEnd(partition, "store", 1000);
+        verify(restoreProgress).onRestoreEnd(partition, "store", 1000);
+        when(ks1.state()).thenReturn(State.RUNNING);
+        sut.refresh();
+
+        assertEquals(Status.UP, sut.readiness().getStatus());
+    }
+
+    @Test
+    void readiness_isOutOfService_whenConsumerLagAboveThreshold() {
+        ReflectionTestUtils.setField(sut, "maxLag", 100L);
+        when(provider.getIfAvailable()).thenReturn(List.of(factory1));
+        when(factory1.getKafkaStreams()).thenReturn(ks1);
+        when(ks1.state()).thenReturn(State.RUNNING);
+        Map<MetricName, Metric> metrics = Map.ofEntries(
+                lag("app-StreamThread-1-consumer", 0, 80), lag("app-StreamThread-1-consumer", 1, 70),
+                lag("app-StreamThread-1-restore-consumer", 0, 5000));
+        doReturn(metrics).when(ks1).metrics();
+
+        Health readiness = sut.readiness();
+
+        assertEquals(Status.OUT_OF_SERVICE, readiness.getStatus());
+        Map<?, ?> topo = (Map<?, ?>) readiness.getDetails().get("Repartitioner-topology-0");
+        assertEquals(150L, topo.get("consumerLag"));
+        assertEquals("consumer lag above 100", topo.get("notReady"));
+        assertEquals(Status.UP, sut.health().getStatus());
+    }
+
+    @Test
+    void readiness_isUp_whenLagCheckDisabled() {
+        ReflectionTestUtils.setField(sut, "maxLag", -1L);
+        when(provider.getIfAvailable()).thenReturn(List.of(factory1));
+        when(factory1.getKafkaStreams()).thenReturn(ks1);
+        when(ks1.state()).thenReturn(State.RUNNING);
+        doReturn(Map.ofEntries(lag("app-StreamThread-1-consumer", 0, 1_000_000))).when(ks1).metrics();
+
+        assertEquals(Status.UP, sut.readiness().getStatus());
+    }
+
+    private static Map.Entry<MetricName, Metric> lag(String clientId, int partition, double value) {
+        Metric metric = mock(Metric.class);
+        lenient().when(metric.metricValue()).thenReturn(value);
+        return Map.entry(new MetricName("records-lag", "consumer-fetch-manager-metrics", "",
+                Map.of("client-id", clientId, "topic", "in", "partition", String.valueOf(partition))), metric);
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.labs.repartitioner.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KafkaReadinessCheckTest {
+
+    @Test
+    void health_delegatesToReadinessSnapshot() {
+        KafkaHealthCheck kafkaHealthCheck = mock(KafkaHealthCheck.class);
+        Health outOfService = Health.outOfService().build();
+        when(kafkaHealthCheck.readiness()).thenReturn(outOfService);
+
+        assertSame(outOfService, new KafkaReadinessCheck(kafkaHealthCheck).health());
+    }
+}
@@ -16,4 +16,12 @@ class KafkaTopicConfigTest {
     void createUppercaseTopicTest() {
         Assertions.assertNotNull(kafkaTopicConfig.createUppercaseTopic());
     }
+
+    @Test
+    void createRedisSinkTopicTest() {
+        var topic = kafkaTopicConfig.createRedisSinkTopic();
+
+        Assertions.assertEquals("uppercase-redis-sink", topic.name());
+        Assertions.assertEquals(3, topic.numPartitions());
+    }
 }
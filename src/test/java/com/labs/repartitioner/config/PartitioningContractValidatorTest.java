@@ -0,0 +1,135 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.topology.UpperCaseKeyPartitioner;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitioningContractValidatorTest {
+
+    private static final String TOPIC = "uppercase";
+
+    MockConsumer<byte[], byte[]> consumer;
+    PartitioningContractValidator sut;
+
+    @BeforeEach
+    void setup() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        sut = new PartitioningContractValidator(() -> consumer);
+        ReflectionTestUtils.setField(sut, "sampleSize", 100);
+        ReflectionTestUtils.setField(sut, "timeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(sut, "failOnViolation", true);
+    }
+
+    private void topicWith(List<String> keys, boolean honourContract) {
+        var node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> infos = List.of(0, 1, 2).stream()
+                .map(p -> new PartitionInfo(TOPIC, p, node, new Node[0], new Node[0]))
+                .toList();
+        consumer.updatePartitions(TOPIC, infos);
+
+        Map<TopicPartition, Long> begin = new HashMap<>();
+        Map<TopicPartition, Long> end = new HashMap<>();
+        infos.forEach(i -> begin.put(new TopicPartition(TOPIC, i.partition()), 0L));
+        infos.forEach(i -> end.put(new TopicPartition(TOPIC, i.partition()), 0L));
+
+        List<ConsumerRecord<byte[], byte[]>> records = new java.util.ArrayList<>();
+        for (String key : keys) {
+            byte[] k = key.getBytes(StandardCharsets.UTF_8);
+            int expected = UpperCaseKeyPartitioner.partitionFor(k, 3);
+            int partition = honourContract ? expected : (expected + 1) % 3;
+            var tp = new TopicPartition(TOPIC, partition);
+            long offset = end.get(tp);
+            end.put(tp, offset + 1);
+            records.add(new ConsumerRecord<>(TOPIC, partition, offset, k, k));
+        }
+        consumer.updateBeginningOffsets(begin);
+        consumer.updateEndOffsets(end);
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+    }
+
+    @Test
+    void validate_passes_whenProducersUseNormalizedKeyPartitioner() {
+        topicWith(List.of("abc", "ABC", "foo", "bar", "año"), true);
+
+        assertEquals(new PartitioningContractValidator.Result(5, 0, true), sut.validate());
+    }
+
+    @Test
+    void afterPropertiesSet_letsStartupContinue_whenContractHolds() {
+        topicWith(List.of("abc", "foo"), true);
+
+        assertDoesNotThrow(sut::afterPropertiesSet);
+    }
+
+    @Test
+    void validate_failsStartup_whenContractIsBroken() {
+        topicWith(List.of("abc", "foo"), false);
+
+        assertThrows(IllegalStateException.class, sut::afterPropertiesSet);
+    }
+
+    @Test
+    void validate_onlyLogs_whenFailOnViolationIsDisabled() {
+        ReflectionTestUtils.setField(sut, "failOnViolation", false);
+        topicWith(List.of("abc"), false);
+
+        assertDoesNotThrow(sut::afterPropertiesSet);
+    }
+
+    @Test
+    void validate_passes_whenTopicDoesNotExist() {
+        assertEquals(new PartitioningContractValidator.Result(0, 0, true), sut.validate());
+    }
+
+    @Test
+    void validate_reportsNotValidated_whenKafkaIsNotReachable() {
+        consumer.setPollException(new TimeoutException("no broker"));
+        topicWith(List.of("abc"), true);
+
+        assertEquals(new PartitioningContractValidator.Result(0, 0, false), sut.validate());
+    }
+
+    @Test
+    void afterPropertiesSet_failsStartup_whenContractCouldNotBeValidated() {
+        consumer.setPollException(new TimeoutException("no broker"));
+        topicWith(List.of("abc"), true);
+
+        var error = assertThrows(IllegalStateException.class, sut::afterPropertiesSet);
+        assertTrue(error.getMessage().contains("not validated"));
+    }
+
+    @Test
+    void afterPropertiesSet_onlyWarns_whenNotValidated_andFailOnViolationIsDisabled() {
+        ReflectionTestUtils.setField(sut, "failOnViolation", false);
+        consumer.setPollException(new TimeoutException("no broker"));
+        topicWith(List.of("abc"), true);
+
+        assertDoesNotThrow(sut::afterPropertiesSet);
+    }
+
+    @Test
+    void defaultConstructor_buildsKafkaConsumerFromBootProperties() {
+        assertNotNull(new PartitioningContractValidator(new KafkaProperties()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.streams.KafkaStreams.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RebalancePauseTimerTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RebalancePauseTimer sut = new RebalancePauseTimer();
+
+    @Test
+    void rebalancePause_isTimedFromRebalancingUntilTheNextState() {
+        sut.bindTo(registry);
+
+        sut.onStateChange("Repartitioner-topology-0", State.REBALANCING);
+        sut.onStateChange("Repartitioner-topology-0", State.REBALANCING);
+        @SuppressWarnings("unchecked")
+        Map<String, Instant> pausedSince = (Map<String, Instant>) ReflectionTestUtils.getField(sut, "pausedSince");
+        pausedSince.put("Repartitioner-topology-0", Instant.now().minusSeconds(2));
+        sut.onStateChange("Repartitioner-topology-0", State.RUNNING);
+        sut.onStateChange("Repartitioner-topology-0", State.RUNNING);
+
+        var timer = registry.get("kafka.streams.rebalance.pause").tag("topology", "Repartitioner-topology-0").timer();
+        assertEquals(1, timer.count());
+        assertEquals(2.0, timer.totalTime(TimeUnit.SECONDS), 0.5);
+    }
+
+    @Test
+    void recordsNothing_withoutRegistryOrPreviousRebalance() {
+        sut.onStateChange("Repartitioner-topology-0", State.REBALANCING);
+        sut.onStateChange("Repartitioner-topology-0", State.RUNNING);
+        sut.bindTo(registry);
+        sut.onStateChange("Repartitioner-topology-0", State.RUNNING);
+
+        assertTrue(registry.find("kafka.streams.rebalance.pause").timers().isEmpty());
+    }
+}
@@ -0,0 +1,32 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.topology.RecordTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordTracingEndpointTest {
+
+    RecordTracer tracer = new RecordTracer(0.001, List.of(), 50, new SimpleMeterRegistry());
+    RecordTracingEndpoint sut = new RecordTracingEndpoint(tracer);
+
+    @Test
+    void readsAndUpdatesSettings() {
+        assertEquals(new RecordTracer.Settings(0.001, List.of(), 50), sut.settings());
+
+        var updated = sut.update(0.5, List.of("order-42"), null);
+
+        assertEquals(new RecordTracer.Settings(0.5, List.of("ORDER-42"), 50), updated);
+        assertEquals(updated, tracer.settings());
+    }
+
+    @Test
+    void rejectsInvalidSampleRate() {
+        assertThrows(InvalidEndpointRequestException.class, () -> sut.update(2.0, null, null));
+    }
+}
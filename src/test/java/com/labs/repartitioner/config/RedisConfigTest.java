@@ -1,6 +1,11 @@
 package com.labs.repartitioner.config;
 
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.redis.CompactBinaryRedisSerializer;
+import com.labs.repartitioner.redis.Utf8RedisSerializer;
+import io.lettuce.core.ReadFrom;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
@@ -27,4 +32,26 @@ class RedisConfigTest {
             () -> assertSame(serializer, template.getHashValueSerializer())
         );
     }
+
+    @Test
+    void valueSerializerFollowsConfiguredCodec() {
+        var json = config.serializer(config.objectMapper());
+
+        assertAll(
+            () -> assertSame(json, config.valueSerializer(RedisValueCodec.JSON, json)),
+            () -> assertInstanceOf(Utf8RedisSerializer.class, config.valueSerializer(RedisValueCodec.UTF8, json)),
+            () -> assertInstanceOf(CompactBinaryRedisSerializer.class, config.valueSerializer(RedisValueCodec.BINARY, json))
+        );
+    }
+
+    @Test
+    void readFromCustomizer_appliesOnlyWhenConfigured() {
+        var replicaPreferred = LettuceClientConfiguration.builder();
+        config.readFromCustomizer("replicaPreferred").customize(replicaPreferred);
+        var unset = LettuceClientConfiguration.builder();
+        config.readFromCustomizer("").customize(unset);
+
+        assertEquals(ReadFrom.REPLICA_PREFERRED, replicaPreferred.build().getReadFrom().orElseThrow());
+        assertTrue(unset.build().getReadFrom().isEmpty());
+    }
 }
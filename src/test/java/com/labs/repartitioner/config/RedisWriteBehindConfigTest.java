@@ -0,0 +1,85 @@
+package com.labs.repartitioner.config;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisWriteBehindConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(KafkaProperties.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(RolloutConfig.class, RedisWriteBehindConfig.class)
+            .withPropertyValues("spring.application.name=app")
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()));
+
+    @Test
+    void createsBatchContainerFactory_inWriteBehindMode() {
+        runner.withPropertyValues("redis.sink.mode=write-behind", "redis.sink.write-behind.batch-size=300",
+                        "redis.sink.write-behind.concurrency=2")
+                .run(context -> {
+                    @SuppressWarnings("unchecked")
+                    var factory = (ConcurrentKafkaListenerContainerFactory<String, String>)
+                            context.getBean(RedisWriteBehindConfig.CONTAINER_FACTORY);
+                    var props = factory.getConsumerFactory().getConfigurationProperties();
+
+                    assertThat(factory.isBatchListener()).isTrue();
+                    assertThat(factory.getContainerProperties().getAckMode()).isEqualTo(ContainerProperties.AckMode.BATCH);
+                    assertThat(props).containsEntry(ConsumerConfig.GROUP_ID_CONFIG, "app-redis-sink")
+                            .containsEntry(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 300)
+                            .containsEntry(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+                    assertThat(props).containsEntry(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG,
+                                    CooperativeStickyAssignor.class.getName())
+                            .doesNotContainKey(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+                    assertThat(factory.getContainerProperties().getShutdownTimeout()).isEqualTo(30_000L);
+                    assertThat(factory).extracting("concurrency").isEqualTo(2);
+                    assertThat(factory).extracting("commonErrorHandler").isInstanceOf(DefaultErrorHandler.class);
+                });
+    }
+
+    @Test
+    void withStaticMembership_usesThePodNameAsGroupInstanceId() {
+        runner.withPropertyValues("redis.sink.mode=write-behind", "rollout.static-membership.enabled=true",
+                        "POD_NAME=app-1", "rollout.session-timeout=PT2M")
+                .run(context -> {
+                    var factory = (ConcurrentKafkaListenerContainerFactory<?, ?>)
+                            context.getBean(RedisWriteBehindConfig.CONTAINER_FACTORY);
+
+                    assertThat(factory.getConsumerFactory().getConfigurationProperties())
+                            .containsEntry(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, "app-1")
+                            .containsEntry(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 120_000);
+                });
+    }
+
+    @Test
+    void modeValue_bindsToTheTopologyEnum() {
+        assertThat(ApplicationConversionService.getSharedInstance().convert("write-behind", RedisSinkMode.class))
+                .isEqualTo(RedisSinkMode.WRITE_BEHIND);
+    }
+
+    @Test
+    void acceptsEnumStyleMode() {
+        runner.withPropertyValues("redis.sink.mode=WRITE_BEHIND")
+                .run(context -> assertThat(context).hasBean(RedisWriteBehindConfig.CONTAINER_FACTORY));
+    }
+
+    @Test
+    void staysOff_inOtherModes_orWithoutKafka() {
+        runner.withPropertyValues("redis.sink.mode=batch")
+                .run(context -> assertThat(context).doesNotHaveBean(RedisWriteBehindConfig.CONTAINER_FACTORY));
+        runner.withPropertyValues("redis.sink.mode=write-behind", "spring.kafka.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(RedisWriteBehindConfig.CONTAINER_FACTORY));
+    }
+}
@@ -0,0 +1,30 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Options;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RocksDBMemoryMetricsTest {
+
+    @Test
+    void reportsSharedMemory_onceAStoreIsConfigured() {
+        var registry = new SimpleMeterRegistry();
+        new RocksDBMemoryMetrics().bindTo(registry);
+
+        try (var options = new Options().setTableFormatConfig(new BlockBasedTableConfig())) {
+            new BoundedRocksDBConfigSetter().setConfig("store", options,
+                    Map.of(BoundedRocksDBConfigSetter.BUDGET_CONFIG, "16MB"));
+        }
+
+        var budget = BoundedRocksDBConfigSetter.sharedMemory().budget();
+        assertEquals(budget, registry.get("rocksdb.shared.memory.budget").gauge().value());
+        assertTrue(registry.get("rocksdb.shared.block.cache.usage").gauge().value() >= 0);
+        assertTrue(registry.get("rocksdb.shared.block.cache.pinned.usage").gauge().value() >= 0);
+    }
+}
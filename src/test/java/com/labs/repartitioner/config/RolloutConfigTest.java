@@ -0,0 +1,86 @@
+package com.labs.repartitioner.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RolloutConfigTest {
+
+    private static final String INSTANCE_ID = StreamsConfig.mainConsumerPrefix(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+
+    @Test
+    void staticMembership_setsInstanceIdAndSessionTimeout_andKeepsTheGroupOnClose() {
+        var config = new RolloutConfig(true, " app-2 ", Duration.ofMinutes(2), Duration.ofSeconds(40));
+        var factoryBean = factoryBean();
+
+        configurer(config).configure(factoryBean);
+
+        Properties props = factoryBean.getStreamsConfiguration();
+        assertEquals("app-2", props.get(INSTANCE_ID));
+        assertEquals(120_000, props.get(StreamsConfig.mainConsumerPrefix(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG)));
+        assertEquals("LABS_GKE_DEPLOY", props.get(StreamsConfig.APPLICATION_ID_CONFIG));
+        assertEquals(Duration.ofSeconds(40), ReflectionTestUtils.getField(factoryBean, "closeTimeout"));
+
+        // Lo que recibe el consumidor del primer hilo de stream
+        Map<String, Object> consumer = mainConsumerConfig(factoryBean);
+        assertEquals("app-2-1", consumer.get(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG));
+        assertEquals(false, consumer.get(RolloutConfig.LEAVE_GROUP_ON_CLOSE));
+    }
+
+    @Test
+    void dynamicMembership_leavesTheGroupOnClose() {
+        var config = new RolloutConfig(false, "", Duration.ofSeconds(45), Duration.ofSeconds(30));
+        var factoryBean = factoryBean();
+
+        configurer(config).configure(factoryBean);
+
+        Map<String, Object> consumer = mainConsumerConfig(factoryBean);
+        assertFalse(consumer.containsKey(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG));
+        assertEquals(true, consumer.get(RolloutConfig.LEAVE_GROUP_ON_CLOSE));
+        assertEquals(CooperativeStickyAssignor.class.getName(),
+                config.consumerProperties().get(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG));
+        assertFalse(config.consumerProperties().containsKey(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG));
+    }
+
+    @Test
+    void staticMembership_requiresAnInstanceId() {
+        assertThrows(IllegalStateException.class,
+                () -> new RolloutConfig(true, " ", Duration.ofSeconds(45), Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void kafkaStreamsKeepsDynamicMembersInTheGroup_withoutTheOverride() {
+        // Por esto no basta con CloseOptions#leaveGroup: el consumidor principal nunca envía LeaveGroup
+        assertEquals(false, mainConsumerConfig(factoryBean()).get(RolloutConfig.LEAVE_GROUP_ON_CLOSE));
+    }
+
+    private static Map<String, Object> mainConsumerConfig(StreamsBuilderFactoryBean factoryBean) {
+        return new StreamsConfig(factoryBean.getStreamsConfiguration())
+                .getMainConsumerConfigs("LABS_GKE_DEPLOY", "LABS_GKE_DEPLOY-StreamThread-1-consumer", 1);
+    }
+
+    private static StreamsBuilderFactoryBeanConfigurer configurer(RolloutConfig config) {
+        return config.rolloutStreamsConfigurer();
+    }
+
+    private static StreamsBuilderFactoryBean factoryBean() {
+        var props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "LABS_GKE_DEPLOY");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        var factoryBean = new StreamsBuilderFactoryBean();
+        factoryBean.setStreamsConfiguration(props);
+        return factoryBean;
+    }
+}
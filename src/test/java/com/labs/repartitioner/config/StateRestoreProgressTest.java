@@ -0,0 +1,103 @@
+package com.labs.repartitioner.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StateRestoreProgressTest {
+
+    private static final String STORE = "uppercase-key-store";
+    private static final TopicPartition P0 = new TopicPartition("app-uppercase-key-store-changelog", 0);
+    private static final TopicPartition P1 = new TopicPartition("app-uppercase-key-store-changelog", 1);
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    StateRestoreProgress sut = new StateRestoreProgress();
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setup() {
+        sut.clock = Clock.fixed(now, ZoneOffset.UTC);
+        sut.bindTo(registry);
+    }
+
+    @Test
+    void restoration_publishesRemainingRateAndEta() {
+        sut.onRestoreStart(P0, STORE, 0, 6000);
+        sut.onRestoreStart(P1, STORE, 1000, 5000);
+        advance(Duration.ofSeconds(10));
+        sut.onBatchRestored(P0, STORE, 2000, 2000);
+        sut.onBatchRestored(P1, STORE, 3000, 2000);
+
+        // 6000 pendientes a 400 registros/s
+        assertEquals(6000, gauge("state.restore.remaining"));
+        assertEquals(2, gauge("state.restore.partitions"));
+        assertEquals(400, gauge("state.restore.rate"));
+        assertEquals(15, gauge("state.restore.eta"));
+        assertEquals(4000, registry.get("state.restore.records").tag("store", STORE).functionCounter().count());
+
+        Health health = sut.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(true, health.getDetails().get("restoring"));
+        Map<?, ?> store = (Map<?, ?>) health.getDetails().get(STORE);
+        assertEquals(6000L, store.get("remainingRecords"));
+        assertEquals(400L, store.get("recordsPerSecond"));
+        assertEquals("PT15S", store.get("eta"));
+    }
+
+    @Test
+    void restoration_endsWhenEveryPartitionIsDone() {
+        sut.onRestoreStart(P0, STORE, 0, 100);
+        sut.onRestoreStart(P1, STORE, 0, 100);
+        sut.onBatchRestored(P0, STORE, 100, 100);
+        sut.onRestoreEnd(P0, STORE, 100);
+        sut.onRestoreSuspended(P1, STORE, 0);
+
+        assertEquals(0, gauge("state.restore.remaining"));
+        assertEquals(0, gauge("state.restore.rate"));
+        assertEquals(0, gauge("state.restore.eta"));
+        assertEquals(false, sut.health().getDetails().get("restoring"));
+        assertEquals(100L, ((Map<?, ?>) sut.health().getDetails().get(STORE)).get("restoredTotal"));
+    }
+
+    @Test
+    void eta_isUnknown_beforeTheFirstBatch() {
+        sut.onRestoreStart(P0, STORE, 0, 100);
+
+        assertEquals(-1, gauge("state.restore.eta"));
+        assertEquals("unknown", ((Map<?, ?>) sut.health().getDetails().get(STORE)).get("eta"));
+        sut.onRestoreEnd(P0, STORE, 0);
+    }
+
+    @Test
+    void bindTo_registersStoresSeenBeforeTheRegistry() {
+        var late = new StateRestoreProgress();
+        late.clock = Clock.fixed(now, ZoneOffset.UTC);
+        late.onRestoreStart(P0, STORE, 0, 50);
+        var lateRegistry = new SimpleMeterRegistry();
+
+        late.bindTo(lateRegistry);
+
+        assertEquals(50, lateRegistry.get("state.restore.remaining").tag("store", STORE).gauge().value());
+        late.onRestoreEnd(P0, STORE, 0);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).tag("store", STORE).gauge().value();
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        sut.clock = Clock.fixed(now, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,194 @@
+package com.labs.repartitioner.config;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KafkaStreams.State;
+import org.apache.kafka.streams.TaskMetadata;
+import org.apache.kafka.streams.ThreadMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamThreadScalerTest {
+
+    @Mock StreamsBuilderFactoryBean factoryBean;
+    @Mock KafkaStreams ks;
+
+    StreamThreadScaler sut;
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setup() {
+        sut = new StreamThreadScaler(factoryBean);
+        ReflectionTestUtils.setField(sut, "enabled", true);
+        ReflectionTestUtils.setField(sut, "interval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(sut, "minThreads", 1);
+        ReflectionTestUtils.setField(sut, "maxThreads", 3);
+        ReflectionTestUtils.setField(sut, "threadsPerCore", 64);
+        ReflectionTestUtils.setField(sut, "scaleUpLag", 1000L);
+        ReflectionTestUtils.setField(sut, "scaleDownLag", 100L);
+        ReflectionTestUtils.setField(sut, "maxProcessLatency", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(sut, "stableSamples", 2);
+        ReflectionTestUtils.setField(sut, "cooldown", Duration.ofMinutes(2));
+        tick(Duration.ZERO);
+        lenient().when(factoryBean.getKafkaStreams()).thenReturn(ks);
+    }
+
+    @Test
+    void addsThread_afterStableSamplesAboveScaleUpLag() {
+        running(1, 3, 5000, 10);
+        when(ks.addStreamThread()).thenReturn(Optional.of("thread-2"));
+
+        sut.evaluate();
+        verify(ks, never()).addStreamThread();
+        sut.evaluate();
+
+        verify(ks).addStreamThread();
+        var health = sut.health();
+        assertEquals(Status.UP, health.getStatus());
+        @SuppressWarnings("unchecked")
+        var decisions = (List<StreamThreadScaler.Decision>) health.getDetails().get("decisions");
+        assertEquals("ADDED", decisions.get(0).action());
+        assertEquals("thread-2", decisions.get(0).thread());
+        assertEquals(1, decisions.get(0).threadsBefore());
+    }
+
+    @Test
+    void waitsForCooldown_betweenChanges() {
+        running(1, 3, 5000, 10);
+        when(ks.addStreamThread()).thenReturn(Optional.of("thread-2"));
+        sut.evaluate();
+        sut.evaluate();
+
+        sut.evaluate();
+        sut.evaluate();
+        verify(ks).addStreamThread();
+
+        tick(Duration.ofMinutes(3));
+        sut.evaluate();
+        verify(ks, org.mockito.Mockito.times(2)).addStreamThread();
+    }
+
+    @Test
+    void neverExceedsLocalTasks() {
+        running(2, 2, 50_000, 10);
+
+        sut.evaluate();
+        sut.evaluate();
+
+        verify(ks, never()).addStreamThread();
+    }
+
+    @Test
+    void removesThread_whenLagAndLatencyAreLow() {
+        running(3, 3, 30, 1);
+        when(ks.removeStreamThread(any(Duration.class))).thenReturn(Optional.of("thread-3"));
+
+        sut.evaluate();
+        sut.evaluate();
+
+        verify(ks).removeStreamThread(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void keepsThreads_whenLatencyIsHigh() {
+        running(3, 3, 30, 200);
+
+        sut.evaluate();
+        sut.evaluate();
+
+        verify(ks, never()).removeStreamThread(any(Duration.class));
+    }
+
+    @Test
+    void hysteresis_resetsWhenSignalFlips() {
+        running(1, 3, 5000, 10);
+        sut.evaluate();
+        running(1, 3, 500, 10); // entre ambos umbrales: no se pide nada
+        sut.evaluate();
+        running(1, 3, 5000, 10);
+        sut.evaluate();
+
+        verify(ks, never()).addStreamThread();
+    }
+
+    @Test
+    void skipsDecisions_whileRebalancing() {
+        when(ks.state()).thenReturn(State.REBALANCING);
+
+        sut.evaluate();
+        sut.evaluate();
+
+        verify(ks, never()).metadataForLocalThreads();
+        assertTrue(((List<?>) sut.health().getDetails().get("decisions")).isEmpty());
+    }
+
+    @Test
+    void schedulesEvaluations_onlyWhenEnabled() {
+        ReflectionTestUtils.setField(sut, "enabled", false);
+        sut.afterSingletonsInstantiated();
+        assertEquals(null, ReflectionTestUtils.getField(sut, "scheduler"));
+
+        ReflectionTestUtils.setField(sut, "enabled", true);
+        sut.afterSingletonsInstantiated();
+        var scheduler = (java.util.concurrent.ExecutorService) ReflectionTestUtils.getField(sut, "scheduler");
+        sut.destroy();
+        assertTrue(scheduler.isShutdown());
+    }
+
+    private void running(int threads, int tasks, double lag, double latencyMs) {
+        lenient().when(ks.state()).thenReturn(State.RUNNING);
+        Set<ThreadMetadata> metadata = IntStream.range(0, threads).mapToObj(i -> {
+            ThreadMetadata thread = mock(ThreadMetadata.class);
+            int owned = tasks / threads + (i < tasks % threads ? 1 : 0);
+            lenient().when(thread.activeTasks()).thenReturn(IntStream.range(0, owned)
+                    .mapToObj(t -> mock(TaskMetadata.class)).collect(Collectors.toSet()));
+            return thread;
+        }).collect(Collectors.toSet());
+        lenient().when(ks.metadataForLocalThreads()).thenReturn(metadata);
+        lenient().doReturn(Map.ofEntries(
+                metric("records-lag", "consumer-fetch-manager-metrics",
+                        Map.of("client-id", "app-StreamThread-1-consumer", "partition", "0"), lag),
+                metric("process-latency-avg", "stream-thread-metrics", Map.of("thread-id", "t1"), latencyMs)))
+                .when(ks).metrics();
+    }
+
+    private void tick(Duration elapsed) {
+        now = now.plus(elapsed);
+        sut.clock = Clock.fixed(now, ZoneOffset.UTC);
+    }
+
+    private static Map.Entry<MetricName, Metric> metric(String name, String group, Map<String, String> tags, double value) {
+        Metric metric = mock(Metric.class);
+        lenient().when(metric.metricValue()).thenReturn(value);
+        return Map.entry(new MetricName(name, group, "", tags), metric);
+    }
+}
@@ -0,0 +1,58 @@
+package com.labs.repartitioner.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedControllerTest {
+
+    @Mock ChangeFeed changeFeed;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeFeedController(changeFeed)).build();
+    }
+
+    @Test
+    void subscribesWithPrefix_andFromParameter() throws Exception {
+        when(changeFeed.subscribe("ab", "earliest")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/feed/uppercase-table").param("prefix", "ab").param("from", "earliest"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).subscribe("ab", "earliest");
+    }
+
+    @Test
+    void lastEventIdTakesPrecedenceOverFrom() throws Exception {
+        when(changeFeed.subscribe(null, "0:5,1:2")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/feed/uppercase-table").param("from", "earliest").header("Last-Event-ID", "0:5,1:2"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).subscribe(null, "0:5,1:2");
+    }
+
+    @Test
+    void blankFrom_startsWithNewChanges() throws Exception {
+        when(changeFeed.subscribe(null, null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/feed/uppercase-table").param("from", ""))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).subscribe(null, null);
+    }
+}
@@ -0,0 +1,196 @@
+package com.labs.repartitioner.feed;
+
+import com.labs.repartitioner.constant.SlowSubscriberPolicy;
+import com.labs.repartitioner.topology.TransformPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChangeFeedTest {
+
+    private static final String TOPIC = "test-app-uppercase-key-store-changelog";
+
+    MockConsumer<byte[], byte[]> reader;
+    Deque<Consumer<byte[], byte[]>> consumers;
+    ChangeFeed sut;
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        reader = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        var node = new Node(0, "localhost", 9092);
+        reader.updatePartitions(TOPIC, List.of(0, 1).stream()
+                .map(p -> new PartitionInfo(TOPIC, p, node, new Node[0], new Node[0]))
+                .toList());
+        reader.updateBeginningOffsets(Map.of(tp(0), 0L, tp(1), 0L));
+        reader.updateEndOffsets(Map.of(tp(0), 3L, tp(1), 0L));
+        consumers = new ArrayDeque<>(List.of(reader));
+
+        sut = new ChangeFeed(() -> consumers.poll(), new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)));
+        ReflectionTestUtils.setField(sut, "applicationId", "test-app");
+        ReflectionTestUtils.setField(sut, "bufferSize", 2);
+        ReflectionTestUtils.setField(sut, "slowSubscriberPolicy", SlowSubscriberPolicy.DROP);
+        ReflectionTestUtils.setField(sut, "maxSubscribers", 1);
+        ReflectionTestUtils.setField(sut, "heartbeatInterval", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(sut, "startTimeout", Duration.ofSeconds(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeFeedController(sut)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    void streamsLiveChanges_matchingNormalizedPrefix() throws Exception {
+        var response = mockMvc.perform(get("/feed/uppercase-table").param("prefix", "ab"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        reader.addRecord(record(1, 0, "XYZ", "0"));
+        reader.addRecord(record(0, 3, "ABC", "1"));
+        reader.addRecord(record(0, 4, "ABC", null));
+
+        String body = await(response, "event:delete");
+        assertTrue(body.contains("id:0:4,1:0\nevent:upsert\ndata:{\"key\":\"ABC\",\"value\":\"1\",\"partition\":0,\"offset\":3"));
+        assertTrue(body.contains("id:0:5,1:0\nevent:delete\ndata:{\"key\":\"ABC\",\"value\":null"));
+        assertFalse(body.contains("XYZ"));
+        assertTrue(await(response, ":heartbeat").contains(":heartbeat"));
+    }
+
+    @Test
+    void resumesFromEventId_readingChangelogUntilLive() throws Exception {
+        var catchUp = new MockConsumer<byte[], byte[]>(OffsetResetStrategy.EARLIEST);
+        catchUp.schedulePollTask(() -> {
+            catchUp.addRecord(record(0, 0, "OLD", "0"));
+            catchUp.addRecord(record(0, 1, "ABC", "1"));
+            catchUp.addRecord(record(0, 2, "ABD", "2"));
+        });
+        consumers.add(catchUp);
+
+        var response = mockMvc.perform(get("/feed/uppercase-table").header("Last-Event-ID", "0:1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        String caughtUp = await(response, "ABD");
+        // El consumidor de puesta al día se cierra al pasar a vivo; antes, el lector repartiría ABE sin él
+        awaitClosed(catchUp);
+        reader.addRecord(record(0, 3, "ABE", "3"));
+
+        String body = await(response, "ABE");
+        assertFalse(caughtUp.contains("OLD"));
+        assertTrue(body.contains("id:0:2,1:0\nevent:upsert\ndata:{\"key\":\"ABC\""));
+        assertTrue(body.contains("id:0:3,1:0\nevent:upsert\ndata:{\"key\":\"ABD\""));
+        assertTrue(body.contains("id:0:4,1:0\nevent:upsert\ndata:{\"key\":\"ABE\""));
+    }
+
+    @Test
+    void rejectsMalformedResumePosition_andSubscribersOverTheLimit() throws Exception {
+        mockMvc.perform(get("/feed/uppercase-table").param("from", "0-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/feed/uppercase-table").param("from", "7:1"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/feed/uppercase-table")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/feed/uppercase-table")).andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void dropsChanges_whenSubscriberBufferIsFull() {
+        var registry = new SimpleMeterRegistry();
+        sut.bindTo(registry);
+        var subscription = new ChangeFeedSubscription(new byte[0], 2, Map.of());
+        assertTrue(sut.goLive(subscription, Map.of()));
+
+        for (int i = 0; i < 5; i++) {
+            sut.dispatch(record(0, i, "K" + i, "v"));
+        }
+
+        assertFalse(subscription.isClosed());
+        assertEquals(3, subscription.takeDropped());
+        assertEquals(3.0, registry.get("change.feed.dropped").functionCounter().count());
+    }
+
+    @Test
+    void disconnectsSubscriber_whenBufferIsFull_withDisconnectPolicy() {
+        var registry = new SimpleMeterRegistry();
+        sut.bindTo(registry);
+        ReflectionTestUtils.setField(sut, "slowSubscriberPolicy", SlowSubscriberPolicy.DISCONNECT);
+        var slow = new ChangeFeedSubscription(new byte[0], 1, Map.of());
+        var fast = new ChangeFeedSubscription(new byte[0], 10, Map.of());
+        sut.goLive(slow, Map.of());
+        sut.goLive(fast, Map.of());
+
+        for (int i = 0; i < 3; i++) {
+            sut.dispatch(record(0, i, "K" + i, "v"));
+        }
+
+        assertTrue(slow.isClosed());
+        assertFalse(fast.isClosed());
+        assertEquals(0, fast.takeDropped());
+        assertEquals(1.0, registry.get("change.feed.disconnected").functionCounter().count());
+    }
+
+    /** Espera al evento SSE que contiene {@code text} completo: el emisor escribe cada campo por separado. */
+    private static String await(MockHttpServletResponse response, String text) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        while (!containsCompleteEvent(body, text)) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for " + text + " in " + body);
+            }
+            Thread.sleep(10);
+            body = response.getContentAsString(StandardCharsets.UTF_8);
+        }
+        return body;
+    }
+
+    private static void awaitClosed(MockConsumer<?, ?> consumer) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!consumer.closed()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the catch-up consumer to close");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean containsCompleteEvent(String body, String text) {
+        int start = body.indexOf(text);
+        return start >= 0 && body.indexOf("\n\n", start) >= 0;
+    }
+
+    private static ConsumerRecord<byte[], byte[]> record(int partition, long offset, String key, String value) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, key.getBytes(StandardCharsets.UTF_8),
+                value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TopicPartition tp(int partition) {
+        return new TopicPartition(TOPIC, partition);
+    }
+}
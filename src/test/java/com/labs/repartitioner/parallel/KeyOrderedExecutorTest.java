@@ -0,0 +1,88 @@
+package com.labs.repartitioner.parallel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyOrderedExecutorTest {
+
+    ExecutorService workers = Executors.newFixedThreadPool(4);
+    KeyOrderedExecutor sut = new KeyOrderedExecutor(workers);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void runsTasksOfSameKey_inSubmissionOrder() {
+        List<String> started = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> first = new CompletableFuture<>();
+
+        sut.submit("A", () -> {
+            started.add("A1");
+            return first;
+        });
+        CompletableFuture<Void> second = sut.submit("A", () -> {
+            started.add("A2");
+            return CompletableFuture.completedFuture(true);
+        });
+
+        sleep(100);
+        assertEquals(List.of("A1"), started);
+        assertEquals(1, sut.activeKeys());
+
+        first.complete(true);
+        second.join();
+        assertEquals(List.of("A1", "A2"), started);
+    }
+
+    @Test
+    void runsDifferentKeys_inParallel() {
+        CompletableFuture<Boolean> blocked = new CompletableFuture<>();
+        sut.submit("A", () -> blocked);
+
+        CompletableFuture<Void> other = sut.submit("B", () -> CompletableFuture.completedFuture(true));
+
+        other.orTimeout(5, TimeUnit.SECONDS).join();
+        assertFalse(blocked.isDone());
+        blocked.complete(true);
+    }
+
+    @Test
+    void failedTask_doesNotBlockNextOfSameKey() {
+        CompletableFuture<Void> failed = sut.submit("A",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("redis down")));
+        CompletableFuture<Void> next = sut.submit("A", () -> CompletableFuture.completedFuture(true));
+
+        next.orTimeout(5, TimeUnit.SECONDS).join();
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    void forgetsKeys_whenTheirTasksComplete() {
+        sut.submit("A", () -> CompletableFuture.completedFuture(true)).join();
+        sut.submit("B", () -> CompletableFuture.completedFuture(true)).join();
+
+        sleep(50);
+        assertEquals(0, sut.activeKeys());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
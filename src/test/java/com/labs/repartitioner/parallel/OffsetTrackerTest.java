@@ -0,0 +1,89 @@
+package com.labs.repartitioner.parallel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffsetTrackerTest {
+
+    OffsetTracker sut = new OffsetTracker();
+
+    @Test
+    void nothingCommittable_beforeFirstRecord() {
+        assertEquals(-1, sut.committable());
+    }
+
+    @Test
+    void commitsUpToLowestIncompleteOffset() {
+        for (long offset = 10; offset < 14; offset++) {
+            sut.received(offset);
+        }
+
+        sut.completed(10);
+        sut.completed(12);
+        sut.completed(13);
+        assertEquals(11, sut.committable());
+
+        sut.completed(11);
+        assertEquals(14, sut.committable());
+        assertEquals(0, sut.pending());
+    }
+
+    @Test
+    void offsetGaps_countAsCompleted() {
+        sut.received(5);
+        sut.received(9);
+
+        sut.completed(5);
+        assertEquals(9, sut.committable());
+
+        sut.completed(9);
+        assertEquals(10, sut.committable());
+    }
+
+    @Test
+    void ignoresUnknownAndRepeatedCompletions() {
+        sut.received(3);
+        sut.completed(3);
+        sut.completed(3);
+        sut.completed(1);
+        sut.received(4);
+
+        assertEquals(1, sut.pending());
+        assertEquals(4, sut.committable());
+    }
+
+    @Test
+    void compactsLongRunsBehindAPendingOffset() {
+        for (long offset = 0; offset < 10_000; offset++) {
+            sut.received(offset);
+        }
+        for (long offset = 0; offset < 9_000; offset++) {
+            sut.completed(offset);
+        }
+        assertEquals(9_000, sut.committable());
+
+        for (long offset = 9_001; offset < 10_000; offset++) {
+            sut.completed(offset);
+        }
+        assertEquals(9_000, sut.committable());
+        sut.completed(9_000);
+        assertEquals(10_000, sut.committable());
+    }
+
+    @Test
+    void awaitIdle_returnsWhenLastRecordCompletes() throws Exception {
+        sut.received(0);
+        assertFalse(sut.awaitIdle(10));
+
+        CompletableFuture.runAsync(() -> sut.completed(0),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+
+        assertTrue(sut.awaitIdle(5_000));
+    }
+}
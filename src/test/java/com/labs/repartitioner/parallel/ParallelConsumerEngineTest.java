@@ -0,0 +1,321 @@
+package com.labs.repartitioner.parallel;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import com.labs.repartitioner.redis.RedisBatchWriter;
+import com.labs.repartitioner.topology.KeyUpperCaseTopology;
+import com.labs.repartitioner.topology.RecordTracer;
+import com.labs.repartitioner.topology.TransformPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelConsumerEngineTest {
+
+    private static final String TOPIC = TopicEnum.UPPERCASE.getName();
+
+    @Mock
+    RedisAsyncWriter writer;
+
+    @Mock
+    ObjectProvider<List<StreamsBuilderFactoryBean>> streams;
+
+    MockConsumer<byte[], byte[]> consumer;
+    ParallelConsumerEngine sut;
+
+    /** Redis simulado: SET NX */
+    final Map<String, String> redis = new ConcurrentHashMap<>();
+    /** Escrituras que el test deja sin responder hasta completarlas */
+    final Map<String, CompletableFuture<Boolean>> held = new ConcurrentHashMap<>();
+    /** MockConsumer#committed no devuelve los offsets de particiones que ya no tiene asignadas */
+    final Map<TopicPartition, Long> commits = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setup() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                                 OffsetCommitCallback callback) {
+                super.commitAsync(offsets, callback);
+                offsets.forEach((tp, offset) -> commits.put(tp, offset.offset()));
+            }
+        };
+        lenient().when(writer.setIfAbsent(anyString(), anyString())).thenAnswer(i -> {
+            String key = i.getArgument(0);
+            CompletableFuture<Boolean> reply = held.get(key);
+            CompletableFuture<Boolean> write = reply != null ? reply : CompletableFuture.completedFuture(true);
+            return write.thenApply(r -> redis.putIfAbsent(key, i.getArgument(1)) == null);
+        });
+
+        sut = new ParallelConsumerEngine(() -> consumer, writer,
+                new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)), streams);
+        ReflectionTestUtils.setField(sut, "workers", 4);
+        ReflectionTestUtils.setField(sut, "maxInFlight", 100);
+        ReflectionTestUtils.setField(sut, "commitInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(sut, "shutdownTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(sut, "seenKeysMaxSize", DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(sut, "keyTtl", Duration.ZERO);
+        ReflectionTestUtils.setField(sut, "retryInitialInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(sut, "retryMaxInterval", Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        held.values().forEach(reply -> reply.complete(true));
+        sut.stop();
+    }
+
+    @Test
+    void writesFirstValueOfEachNormalizedKey_andCommits() {
+        start(0);
+        send(0, 0, "abc", "1");
+        send(0, 1, "ABC", "2");
+        send(0, 2, "def", "3");
+
+        awaitCommitted(0, 3);
+        assertEquals(Map.of("ABC", "1", "DEF", "3"), redis);
+        verify(writer, times(2)).setIfAbsent(anyString(), anyString());
+        assertEquals(Status.UP, sut.health().getStatus());
+    }
+
+    @Test
+    void commitsOnlyUpToLowestUnfinishedOffset() {
+        held.put("SLOW", new CompletableFuture<>());
+        start(0);
+        send(0, 0, "a", "1");
+        send(0, 1, "slow", "2");
+        send(0, 2, "b", "3");
+        send(0, 3, "c", "4");
+
+        // Las claves detrás de la lenta ya están en Redis: no esperan a su offset
+        await(() -> redis.containsKey("B") && redis.containsKey("C"));
+        awaitCommitted(0, 1);
+        sleep(50);
+        assertEquals(1, committed(0));
+
+        held.get("SLOW").complete(true);
+        awaitCommitted(0, 4);
+        assertEquals("2", redis.get("SLOW"));
+    }
+
+    @Test
+    void writesSameKey_inOffsetOrder() {
+        ReflectionTestUtils.setField(sut, "seenKeysMaxSize", DataSize.ofBytes(0));
+        held.put("A", new CompletableFuture<>());
+        start(0);
+        send(0, 0, "a", "1");
+        send(0, 1, "A", "2");
+
+        sleep(200);
+        verify(writer, times(1)).setIfAbsent(eq("A"), anyString());
+
+        held.get("A").complete(true);
+        awaitCommitted(0, 2);
+        verify(writer).setIfAbsent("A", "2");
+        assertEquals("1", redis.get("A"));
+    }
+
+    @Test
+    void retriesFailedRedisWrites_untilTheySucceed() {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("redis down")),
+                CompletableFuture.completedFuture(true)).when(writer).setIfAbsent("A", "1");
+        start(0);
+        send(0, 0, "a", "1");
+
+        awaitCommitted(0, 1);
+        verify(writer, times(2)).setIfAbsent("A", "1");
+        var registry = new SimpleMeterRegistry();
+        sut.bindTo(registry);
+        assertEquals(1.0, registry.get("parallel.engine.redis.retries").functionCounter().count());
+        assertEquals(1.0, registry.get("parallel.engine.records").tag("result", "written").functionCounter().count());
+    }
+
+    @Test
+    void pausesAboveMaxInFlight_andResumesWhenDrained() {
+        ReflectionTestUtils.setField(sut, "maxInFlight", 2);
+        held.put("A", new CompletableFuture<>());
+        held.put("B", new CompletableFuture<>());
+        start(0);
+        send(0, 0, "a", "1");
+        send(0, 1, "b", "2");
+
+        await(() -> !consumer.paused().isEmpty());
+
+        held.get("A").complete(true);
+        held.get("B").complete(true);
+        await(() -> consumer.paused().isEmpty());
+        awaitCommitted(0, 2);
+    }
+
+    @Test
+    void drainsAndCommits_beforeGivingUpRevokedPartitions() {
+        held.put("SLOW", new CompletableFuture<>());
+        start(0, 1);
+        send(0, 0, "slow", "1");
+        send(1, 0, "b", "2");
+        await(() -> redis.containsKey("B"));
+
+        // El listener bloquea el poll hasta que termine la escritura lenta
+        CompletableFuture.runAsync(() -> held.get("SLOW").complete(true),
+                CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        consumer.schedulePollTask(() -> consumer.rebalance(List.of(tp(1))));
+
+        awaitCommitted(0, 1);
+        assertEquals("1", redis.get("SLOW"));
+    }
+
+    @Test
+    void reportsDown_whenThePollThreadDies() {
+        start(0);
+        consumer.setPollException(new KafkaException("broker gone"));
+
+        await(() -> !sut.isRunning());
+        assertEquals(Status.DOWN, sut.health().getStatus());
+    }
+
+    @Test
+    void rejectsKeyTtl() {
+        ReflectionTestUtils.setField(sut, "keyTtl", Duration.ofHours(1));
+
+        assertThrows(IllegalStateException.class, sut::start);
+    }
+
+    @Test
+    void disablesKafkaStreamsStartup() {
+        var factory = mock(StreamsBuilderFactoryBean.class);
+        when(streams.getIfAvailable()).thenReturn(List.of(factory));
+
+        sut.afterSingletonsInstantiated();
+
+        verify(factory).setAutoStartup(false);
+    }
+
+    @Test
+    void writesSameRedisEntriesAsTopology() {
+        List<String[]> input = List.of(
+                new String[]{"abc", "1"}, new String[]{"def", "2"}, new String[]{"ABC", "3"},
+                new String[]{"año", "4"}, new String[]{"Def", "5"}, new String[]{"ghi", "6"});
+
+        Map<String, String> topologyRedis = new ConcurrentHashMap<>();
+        var topologyWriter = mock(RedisAsyncWriter.class);
+        when(topologyWriter.setIfAbsent(anyString(), anyString())).thenAnswer(i -> CompletableFuture.completedFuture(
+                topologyRedis.putIfAbsent(i.getArgument(0), i.getArgument(1)) == null));
+        var topology = new KeyUpperCaseTopology(mock(RedisBatchWriter.class), topologyWriter, new SimpleMeterRegistry(),
+                new RecordTracer(1.0, List.of(), 100, new SimpleMeterRegistry()),
+                new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)));
+        ReflectionTestUtils.setField(topology, "sinkMode", RedisSinkMode.ASYNC);
+        ReflectionTestUtils.setField(topology, "maxInFlight", 10);
+        ReflectionTestUtils.setField(topology, "awaitTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(topology, "batchSize", 100);
+        ReflectionTestUtils.setField(topology, "flushInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(topology, "seenKeysMaxSize", DataSize.ofKilobytes(64));
+
+        var properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-app");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        properties.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        properties.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        try (var driver = new TopologyTestDriver(topology.createTopology(new StreamsBuilder()), properties)) {
+            var topic = driver.createInputTopic(TOPIC, new StringSerializer(), new StringSerializer());
+            input.forEach(record -> topic.pipeInput(record[0], record[1]));
+        }
+
+        start(0);
+        for (int i = 0; i < input.size(); i++) {
+            send(0, i, input.get(i)[0], input.get(i)[1]);
+        }
+        awaitCommitted(0, input.size());
+
+        assertEquals(Map.of("ABC", "1", "DEF", "2", "AÑO", "4", "GHI", "6"), topologyRedis);
+        assertEquals(topologyRedis, redis);
+    }
+
+    private void start(int... partitions) {
+        consumer.updateBeginningOffsets(Arrays.stream(partitions).boxed()
+                .collect(Collectors.toMap(this::tp, p -> 0L)));
+        consumer.schedulePollTask(() -> consumer.rebalance(
+                Arrays.stream(partitions).mapToObj(this::tp).toList()));
+        sut.start();
+        await(() -> consumer.assignment().size() == partitions.length);
+    }
+
+    private void send(int partition, long offset, String key, String value) {
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, partition, offset,
+                key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long committed(int partition) {
+        return commits.getOrDefault(tp(partition), -1L);
+    }
+
+    private void awaitCommitted(int partition, long offset) {
+        await(() -> committed(partition) == offset);
+    }
+
+    private TopicPartition tp(int partition) {
+        return new TopicPartition(TOPIC, partition);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.labs.repartitioner.query;
+
+import com.labs.repartitioner.redis.RedisCachedReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class RedisQueryControllerTest {
+
+    @Mock RedisCachedReader redisCachedReader;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new RedisQueryController(redisCachedReader)).build();
+    }
+
+    @Test
+    void get_returnsEntry_orNotFound() throws Exception {
+        when(redisCachedReader.get("ABC")).thenReturn("1");
+        when(redisCachedReader.get("NOPE")).thenReturn(null);
+
+        mockMvc.perform(get("/redis/keys/ABC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.key").value("ABC"))
+                .andExpect(jsonPath("$.value").value("1"));
+        mockMvc.perform(get("/redis/keys/NOPE"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batch_returnsFoundKeys() throws Exception {
+        when(redisCachedReader.getAll(List.of("A", "B"))).thenReturn(Map.of("A", "1"));
+
+        mockMvc.perform(post("/redis/keys/batch").contentType(MediaType.APPLICATION_JSON).content("[\"A\",\"B\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.A").value("1"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.labs.repartitioner.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class StoreQueryControllerTest {
+
+    @Mock StoreQueryService storeQueryService;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StoreQueryController(storeQueryService)).build();
+    }
+
+    @Test
+    void get_returnsEntry_orNotFound() throws Exception {
+        when(storeQueryService.get("abc", false)).thenReturn(Optional.of(new StoreQueryService.StoreEntry("ABC", "1")));
+        when(storeQueryService.get("nope", true)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/store/keys/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.key").value("ABC"))
+                .andExpect(jsonPath("$.value").value("1"));
+        mockMvc.perform(get("/store/keys/nope").param("local", "true"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batch_returnsFoundKeys() throws Exception {
+        when(storeQueryService.getAll(List.of("a", "b"), false)).thenReturn(Map.of("A", "1"));
+
+        mockMvc.perform(post("/store/keys/batch").contentType(MediaType.APPLICATION_JSON).content("[\"a\",\"b\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.A").value("1"));
+    }
+
+    @Test
+    void scan_streamsNdjson() throws Exception {
+        when(storeQueryService.scan("ab", null, null, 1000, false))
+                .thenReturn(out -> out.write("{\"key\":\"ABC\",\"value\":\"1\"}\n".getBytes(StandardCharsets.UTF_8)));
+
+        var result = mockMvc.perform(get("/store/scan").param("prefix", "ab"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(StoreQueryController.NDJSON))
+                .andExpect(content().string("{\"key\":\"ABC\",\"value\":\"1\"}\n"));
+    }
+}
@@ -0,0 +1,242 @@
+package com.labs.repartitioner.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.labs.repartitioner.topology.TransformPipeline;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.internals.StreamsMetadataImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@ExtendWith(MockitoExtension.class)
+class StoreQueryServiceTest {
+
+    static final HostInfo SELF = new HostInfo("self", 9081);
+    static final HostInfo OTHER = new HostInfo("other", 9081);
+
+    @Mock StreamsBuilderFactoryBean factoryBean;
+    @Mock KafkaStreams streams;
+
+    KeyValueStore<byte[], byte[]> store;
+    MockRestServiceServer remote;
+    StoreQueryService sut;
+
+    @BeforeEach
+    void setup() {
+        store = Stores.keyValueStoreBuilder(Stores.inMemoryKeyValueStore(StoreQueryService.STORE),
+                        Serdes.ByteArray(), Serdes.ByteArray())
+                .withLoggingDisabled()
+                .build();
+        store.init(new MockProcessorContext<>().getStateStoreContext(), store);
+        store.put(bytes("ABC"), bytes("1"));
+        store.put(bytes("ABD"), bytes("2"));
+        store.put(bytes("XYZ"), bytes("3"));
+
+        lenient().when(factoryBean.getKafkaStreams()).thenReturn(streams);
+        lenient().when(streams.store(any())).thenReturn(store);
+
+        var builder = RestClient.builder();
+        remote = MockRestServiceServer.bindTo(builder).build();
+        sut = new StoreQueryService(factoryBean, builder.build(), new ObjectMapper(),
+                new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.destroy();
+        store.close();
+    }
+
+    private void applicationServer(String server) {
+        var properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_SERVER_CONFIG, server);
+        when(factoryBean.getStreamsConfiguration()).thenReturn(properties);
+    }
+
+    private void owner(String key, HostInfo host) {
+        when(streams.queryMetadataForKey(eq(StoreQueryService.STORE), eq(bytes(key)), any(Serializer.class)))
+                .thenReturn(new KeyQueryMetadata(host, Set.of(), 0));
+    }
+
+    @Test
+    void get_readsLocalStore_withNormalizedKey_whenApplicationServerIsEmpty() {
+        assertEquals(Optional.of(new StoreQueryService.StoreEntry("ABC", "1")), sut.get("abc", false));
+        assertEquals(Optional.empty(), sut.get("nope", false));
+    }
+
+    @Test
+    void get_readsLocalStore_whenThisInstanceOwnsTheKey() {
+        applicationServer("self:9081");
+        owner("ABC", SELF);
+
+        assertEquals("1", sut.get("abc", false).orElseThrow().value());
+    }
+
+    @Test
+    void get_forwardsToOwner_withLocalFlag() {
+        applicationServer("self:9081");
+        owner("REMOTE", OTHER);
+        remote.expect(requestTo("http://other:9081/store/keys/remote?local=true"))
+                .andRespond(withSuccess("{\"key\":\"REMOTE\",\"value\":\"9\"}", MediaType.APPLICATION_JSON));
+
+        assertEquals(Optional.of(new StoreQueryService.StoreEntry("REMOTE", "9")), sut.get("remote", false));
+        remote.verify();
+    }
+
+    @Test
+    void get_failsFast_whenOwnerDoesNotAnswer() throws Exception {
+        // Acepta la conexión (backlog) pero nunca responde
+        try (var silent = new ServerSocket(0)) {
+            var service = new StoreQueryService(factoryBean, RestClient.builder(), new ObjectMapper(),
+                    new TransformPipeline(List.of(TransformPipeline.UPPERCASE_KEY)),
+                    Duration.ofSeconds(1), Duration.ofMillis(200), 1);
+            applicationServer("self:9081");
+            owner("REMOTE", new HostInfo("localhost", silent.getLocalPort()));
+
+            try {
+                assertTimeoutPreemptively(Duration.ofSeconds(5),
+                        () -> assertThrows(ResourceAccessException.class, () -> service.get("remote", false)));
+            } finally {
+                service.destroy();
+            }
+        }
+    }
+
+    @Test
+    void get_returnsEmpty_whenOwnerDoesNotHaveTheKey() {
+        applicationServer("self:9081");
+        owner("REMOTE", OTHER);
+        remote.expect(requestTo("http://other:9081/store/keys/REMOTE?local=true")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertEquals(Optional.empty(), sut.get("REMOTE", false));
+    }
+
+    @Test
+    void get_isUnavailable_whileMetadataIsNotReady() {
+        applicationServer("self:9081");
+        when(streams.queryMetadataForKey(any(), any(), any(Serializer.class))).thenReturn(KeyQueryMetadata.NOT_AVAILABLE);
+
+        var error = assertThrows(ResponseStatusException.class, () -> sut.get("abc", false));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+    }
+
+    @Test
+    void get_isUnavailable_whenStoreIsNotQueryable() {
+        when(streams.store(any())).thenThrow(new InvalidStateStoreException("rebalancing"));
+
+        var error = assertThrows(ResponseStatusException.class, () -> sut.get("abc", true));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+    }
+
+    @Test
+    void get_isUnavailable_beforeStreamsStart() {
+        when(factoryBean.getKafkaStreams()).thenReturn(null);
+
+        var error = assertThrows(ResponseStatusException.class, () -> sut.get("abc", true));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatusCode());
+    }
+
+    @Test
+    void getAll_sendsOneRequestPerRemoteHost() {
+        applicationServer("self:9081");
+        owner("ABC", SELF);
+        owner("MISSING", SELF);
+        owner("R1", OTHER);
+        owner("R2", OTHER);
+        remote.expect(requestTo("http://other:9081/store/keys/batch?local=true"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("[\"r1\",\"r2\"]"))
+                .andRespond(withSuccess("{\"R1\":\"7\"}", MediaType.APPLICATION_JSON));
+
+        assertEquals(Map.of("ABC", "1", "R1", "7"), sut.getAll(List.of("abc", "r1", "r2", "missing"), false));
+        remote.verify();
+    }
+
+    @Test
+    void getAll_reportsBadGateway_whenARemoteHostFails() {
+        applicationServer("self:9081");
+        owner("R1", OTHER);
+        remote.expect(requestTo("http://other:9081/store/keys/batch?local=true"))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        var error = assertThrows(ResponseStatusException.class, () -> sut.getAll(List.of("r1"), false));
+        assertEquals(HttpStatus.BAD_GATEWAY, error.getStatusCode());
+    }
+
+    @Test
+    void scan_streamsLocalPrefixAndRangeResults() throws Exception {
+        assertEquals("{\"key\":\"ABC\",\"value\":\"1\"}\n{\"key\":\"ABD\",\"value\":\"2\"}\n",
+                scan("ab", null, null, 10, true));
+        assertEquals("{\"key\":\"ABD\",\"value\":\"2\"}\n", scan(null, "abd", "abz", 10, true));
+        assertEquals("{\"key\":\"ABC\",\"value\":\"1\"}\n", scan(null, null, null, 1, true));
+    }
+
+    @Test
+    void scan_appendsRemoteInstances_upToTheLimit() throws Exception {
+        applicationServer("self:9081");
+        when(streams.streamsMetadataForStore(StoreQueryService.STORE)).thenReturn(List.of(
+                new StreamsMetadataImpl(SELF, Set.of(StoreQueryService.STORE), Set.of(), Set.of(), Set.of()),
+                new StreamsMetadataImpl(OTHER, Set.of(StoreQueryService.STORE), Set.of(), Set.of(), Set.of())));
+        remote.expect(requestTo("http://other:9081/store/scan?local=true&limit=2&prefix=&from=&to="))
+                .andRespond(withSuccess("{\"key\":\"R1\",\"value\":\"7\"}\n", MediaType.parseMediaType("application/x-ndjson")));
+
+        String lines = scan(null, null, null, 5, false);
+
+        assertEquals(4, lines.lines().count());
+        assertEquals("{\"key\":\"R1\",\"value\":\"7\"}", lines.lines().toList().get(3));
+        remote.verify();
+    }
+
+    private String scan(String prefix, String from, String to, int limit, boolean localOnly) throws Exception {
+        var out = new ByteArrayOutputStream();
+        sut.scan(prefix, from, to, limit, localOnly).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package com.labs.repartitioner.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactBinaryRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(new ObjectMapper());
+    private final CompactBinaryRedisSerializer sut = new CompactBinaryRedisSerializer(json);
+
+    @Test
+    void roundTripsSupportedTypes() {
+        for (Object value : List.of("bar", "", "año", Long.MAX_VALUE, -7, 3.5d, true, false)) {
+            assertEquals(value, sut.deserialize(sut.serialize(value)), String.valueOf(value));
+        }
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) sut.deserialize(sut.serialize(new byte[]{1, 2, 3})));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 127, 128, 16_383, 16_384, 70_000})
+    void lengthPrefixCoversVarintBoundaries(int length) {
+        String value = "x".repeat(length);
+
+        assertEquals(value, sut.deserialize(sut.serialize(value)));
+    }
+
+    @Test
+    void writesTypeAndLength() {
+        byte[] encoded = sut.serialize("ab");
+
+        assertArrayEquals(new byte[]{CompactBinaryRedisSerializer.STRING, 2, 'a', 'b'}, encoded);
+    }
+
+    @Test
+    void readsEntriesWrittenByJsonCodec() {
+        assertEquals("bar", sut.deserialize(json.serialize("bar")));
+        assertEquals(Map.of("a", 1), sut.deserialize(json.serialize(Map.of("a", 1))));
+        assertNull(sut.deserialize(new byte[0]));
+        assertNull(sut.deserialize(null));
+    }
+
+    @Test
+    void storesUnsupportedTypesAsJson() {
+        Map<String, Integer> value = Map.of("a", 1);
+
+        assertArrayEquals(json.serialize(value), sut.serialize(value));
+    }
+
+    @Test
+    void rejectsCorruptedPayload() {
+        byte[] badLength = {CompactBinaryRedisSerializer.STRING, 5, 'a'};
+
+        assertThrows(SerializationException.class, () -> sut.deserialize(badLength));
+    }
+
+    @ParameterizedTest
+    @MethodSource("truncatedPayloads")
+    void rejectsTruncatedPayload(byte[] truncated) {
+        assertThrows(SerializationException.class, () -> sut.deserialize(truncated));
+    }
+
+    static Stream<byte[]> truncatedPayloads() {
+        return Stream.of(
+                new byte[] {CompactBinaryRedisSerializer.LONG, 0, 0, 0},
+                new byte[] {CompactBinaryRedisSerializer.INT, 1},
+                new byte[] {CompactBinaryRedisSerializer.DOUBLE},
+                new byte[] {CompactBinaryRedisSerializer.BOOLEAN},
+                new byte[] {CompactBinaryRedisSerializer.STRING},
+                new byte[] {CompactBinaryRedisSerializer.BYTES, (byte) 0x80});
+    }
+
+    @Test
+    void isNotLargerThanJson_forStrings() {
+        assertTrue(sut.serialize("value-123").length <= json.serialize("value-123").length);
+        assertTrue(sut.serialize("say \"hi\"").length < json.serialize("say \"hi\"").length);
+    }
+
+    @Test
+    void isSmallerThanJson_forTypedValues() {
+        for (Object value : List.of(1_700_000_000_000L, 0.123456789d, true, new byte[]{1, 2, 3, 4, 5, 6})) {
+            assertTrue(sut.serialize(value).length < json.serialize(value).length, String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.labs.repartitioner.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NearCacheTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        var cache = new NearCache(1024);
+        cache.put("A", bytes("1"));
+
+        assertArrayEquals(bytes("1"), cache.get("A"));
+        assertNull(cache.get("B"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(NearCache.weigh("A", bytes("1")), cache.weight());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed_whenOverMaxWeight() {
+        long entry = NearCache.weigh("A", bytes("1"));
+        var cache = new NearCache(2 * entry);
+        cache.put("A", bytes("1"));
+        cache.put("B", bytes("2"));
+        cache.get("A");
+
+        cache.put("C", bytes("3"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("B"));
+        assertArrayEquals(bytes("1"), cache.get("A"));
+        assertEquals(1, cache.evictions());
+        assertEquals(2 * entry, cache.weight());
+    }
+
+    @Test
+    void replacingAnEntry_updatesWeight() {
+        var cache = new NearCache(1024);
+        cache.put("A", bytes("1"));
+        cache.put("A", bytes("1234"));
+
+        assertEquals(1, cache.size());
+        assertEquals(NearCache.weigh("A", bytes("1234")), cache.weight());
+    }
+
+    @Test
+    void skipsValuesLargerThanTheCache() {
+        var cache = new NearCache(NearCache.ENTRY_OVERHEAD + 4);
+        cache.put("A", bytes("too large"));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    void invalidateAndClear_countInvalidations() {
+        var cache = new NearCache(1024);
+        cache.put("A", bytes("1"));
+        cache.put("B", bytes("2"));
+        cache.put("C", bytes("3"));
+
+        cache.invalidate("A");
+        cache.invalidate("missing");
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+        assertEquals(3, cache.invalidations());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
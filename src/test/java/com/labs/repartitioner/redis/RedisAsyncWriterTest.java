@@ -0,0 +1,168 @@
+package com.labs.repartitioner.redis;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.RedisCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisAsyncWriterTest {
+
+    @Mock LettuceConnectionFactory connectionFactory;
+    @Mock RedisTemplate<String, Object> redisTemplate;
+    @Mock RedisClient client;
+    @Mock StatefulRedisConnection<byte[], byte[]> connection;
+    @Mock RedisAsyncCommands<byte[], byte[]> commands;
+    @Mock RedisFuture<String> reply;
+
+    RedisAsyncWriter sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new RedisAsyncWriter(connectionFactory, redisTemplate);
+    }
+
+    private void connect() {
+        doReturn(new StringRedisSerializer()).when(redisTemplate).getKeySerializer();
+        doReturn(new StringRedisSerializer()).when(redisTemplate).getValueSerializer();
+        when(connectionFactory.getRequiredNativeClient()).thenReturn(client);
+        when(client.connect(ByteArrayCodec.INSTANCE)).thenReturn(connection);
+        when(connection.async()).thenReturn(commands);
+    }
+
+    private void redisReplies(String status) {
+        connect();
+        when(commands.set(any(byte[].class), any(byte[].class), any(SetArgs.class))).thenReturn(reply);
+        when(reply.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(status));
+    }
+
+    @Test
+    void setIfAbsent_reportsCreatedKey() {
+        redisReplies("OK");
+
+        assertTrue(sut.setIfAbsent("ABC", "123").join());
+        assertTrue(sut.setIfAbsent("DEF", "456").join());
+
+        // La conexión se abre una sola vez
+        verify(client, times(1)).connect(ByteArrayCodec.INSTANCE);
+    }
+
+    @Test
+    void setIfAbsent_reportsExistingKey() {
+        redisReplies(null);
+
+        assertFalse(sut.setIfAbsent("ABC", "123").join());
+    }
+
+    @Test
+    void setIfAbsent_withKeyTtl_keepsNx_andRenewsTheExpiry() {
+        ReflectionTestUtils.setField(sut, "keyTtl", Duration.ofMinutes(10));
+        redisReplies(null);
+        RedisFuture<Boolean> renewed = mock(RedisFuture.class);
+        when(renewed.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(true));
+        when(commands.pexpire(any(byte[].class), anyLong())).thenReturn(renewed);
+
+        assertFalse(sut.setIfAbsent("ABC", "123").join());
+
+        ArgumentCaptor<SetArgs> args = ArgumentCaptor.forClass(SetArgs.class);
+        verify(commands).set(any(byte[].class), any(byte[].class), args.capture());
+        var built = new CommandArgs<>(ByteArrayCodec.INSTANCE);
+        args.getValue().build(built);
+        assertTrue(built.toCommandString().contains("NX"));
+        assertTrue(built.toCommandString().contains("PX 900000"));
+        verify(commands).pexpire("ABC".getBytes(StandardCharsets.UTF_8), 900_000L);
+    }
+
+    @Test
+    void destroy_closesConnectionOnlyWhenOpened() {
+        sut.destroy();
+        verifyNoInteractions(connectionFactory);
+
+        redisReplies("OK");
+        sut.setIfAbsent("ABC", "123").join();
+        sut.destroy();
+
+        verify(connection).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setIfAbsent_batch_dispatchesOnePipeline_standalone() {
+        connect();
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("A", "1");
+        batch.put("B", "2");
+
+        var replies = sut.setIfAbsent(batch);
+
+        ArgumentCaptor<Collection<RedisCommand<byte[], byte[], ?>>> dispatched = ArgumentCaptor.forClass(Collection.class);
+        verify(connection, times(1)).dispatch(dispatched.capture());
+        List<RedisCommand<byte[], byte[], ?>> commands = List.copyOf(dispatched.getValue());
+        assertEquals(2, commands.size());
+        assertEquals(CommandType.SET, commands.get(0).getType());
+        ((RedisCommand<byte[], byte[], String>) commands.get(0)).getOutput().set(StandardCharsets.UTF_8.encode("OK"));
+        commands.forEach(RedisCommand::complete);
+
+        assertTrue(replies.get(0).join());
+        assertFalse(replies.get(1).join());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setIfAbsent_batch_withKeyTtl_pipelinesPexpireAfterEachSet() {
+        ReflectionTestUtils.setField(sut, "keyTtl", Duration.ofMinutes(10));
+        connect();
+
+        var replies = sut.setIfAbsent(Map.of("A", "1"));
+
+        ArgumentCaptor<Collection<RedisCommand<byte[], byte[], ?>>> dispatched = ArgumentCaptor.forClass(Collection.class);
+        verify(connection, times(1)).dispatch(dispatched.capture());
+        List<RedisCommand<byte[], byte[], ?>> commands = List.copyOf(dispatched.getValue());
+        assertEquals(List.of(CommandType.SET, CommandType.PEXPIRE), commands.stream().map(RedisCommand::getType).toList());
+        assertTrue(commands.get(0).getArgs().toCommandString().contains("NX"));
+        assertTrue(commands.get(0).getArgs().toCommandString().contains("PX 900000"));
+        assertTrue(commands.get(1).getArgs().toCommandString().endsWith("900000"));
+        // La clave ya existía: el SET NX no escribe y el PEXPIRE renueva
+        ((RedisCommand<byte[], byte[], Long>) commands.get(1)).getOutput().set(1L);
+        commands.get(0).complete();
+        assertFalse(replies.get(0).isDone());
+        commands.get(1).complete();
+
+        assertFalse(replies.get(0).join());
+    }
+}
@@ -0,0 +1,63 @@
+package com.labs.repartitioner.redis;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBatchWriterTest {
+
+    @Mock RedisAsyncWriter asyncWriter;
+
+    RedisBatchWriter sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new RedisBatchWriter(asyncWriter);
+    }
+
+    @Test
+    void setIfAbsent_sendsOneSetNxPerKey_andKeepsIterationOrder() {
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("ABC", "123");
+        batch.put("XYZ", "new");
+        when(asyncWriter.setIfAbsent(batch)).thenReturn(List.of(
+                CompletableFuture.supplyAsync(() -> true), CompletableFuture.completedFuture(false)));
+
+        List<Boolean> created = sut.setIfAbsent(batch);
+
+        assertEquals(List.of(true, false), created);
+    }
+
+    @Test
+    void setIfAbsent_rethrowsRedisFailure() {
+        var timeout = new RedisCommandTimeoutException("timeout");
+        when(asyncWriter.setIfAbsent(Map.of("ABC", "123"))).thenReturn(List.of(CompletableFuture.failedFuture(timeout)));
+
+        var thrown = assertThrows(RedisCommandTimeoutException.class, () -> sut.setIfAbsent(Map.of("ABC", "123")));
+
+        assertEquals(timeout, thrown);
+    }
+
+    @Test
+    void setIfAbsent_skipsRedis_whenBatchIsEmpty() {
+        assertEquals(List.of(), sut.setIfAbsent(Map.of()));
+
+        verify(asyncWriter, never()).setIfAbsent(anyMap());
+    }
+}
@@ -0,0 +1,193 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisConfig;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.support.InMemoryRedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * La near cache contra Lettuce real y el {@link InMemoryRedisServer} con RESP3: valida que los push de
+ * invalidación llegan y la vacían, y que sin RESP3 las lecturas no se cachean.
+ */
+class RedisCachedReaderTest {
+
+    static InMemoryRedisServer server;
+    static LettuceConnectionFactory connectionFactory;
+    static RedisTemplate<String, Object> redisTemplate;
+
+    RedisCachedReader reader;
+    SimpleMeterRegistry registry;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new InMemoryRedisServer();
+        server.enableResp3();
+        connectionFactory = connectionFactory(server);
+        redisTemplate = redisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @BeforeEach
+    void setup() {
+        server.reset();
+        reader = new RedisCachedReader(connectionFactory, redisTemplate, true, DataSize.ofMegabytes(1));
+        registry = new SimpleMeterRegistry();
+        reader.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reader.destroy();
+    }
+
+    @Test
+    void servesRepeatedReadsFromTheCache_untilAnotherConnectionWritesTheKey() throws Exception {
+        redisTemplate.opsForValue().set("K", "first");
+        long clientCommands = server.commandCount("CLIENT");
+
+        assertEquals("first", reader.get("K"));
+        assertEquals("first", reader.get("K"));
+        assertEquals(1, server.commandCount("GET"));
+        // CLIENT TRACKING ON, además de los CLIENT SETINFO con que Lettuce abre cada conexión
+        assertEquals(clientCommands + 3, server.commandCount("CLIENT"));
+
+        redisTemplate.opsForValue().set("K", "second");
+        await(() -> size() == 0);
+
+        assertEquals("second", reader.get("K"));
+        assertEquals(2, server.commandCount("GET"));
+        assertEquals(1.0, gets("hit"));
+        assertEquals(2.0, gets("miss"));
+        assertEquals(1.0, registry.get("redis.near.cache.invalidations").functionCounter().count());
+    }
+
+    @Test
+    void missingKeys_areNotCached() {
+        assertNull(reader.get("NOPE"));
+        assertNull(reader.get("NOPE"));
+
+        assertEquals(2, server.commandCount("GET"));
+        assertEquals(0, size());
+    }
+
+    @Test
+    void getAll_readsOnlyMissesWithOneMget_inRequestOrder() {
+        redisTemplate.opsForValue().set("A", "1");
+        redisTemplate.opsForValue().set("B", "2");
+        reader.get("B");
+
+        Map<String, Object> values = reader.getAll(List.of("A", "B", "C"));
+
+        assertEquals(List.of("A", "B"), List.copyOf(values.keySet()));
+        assertEquals("1", values.get("A"));
+        assertEquals("2", values.get("B"));
+        assertEquals(1, server.commandCount("MGET"));
+        assertEquals(2, size());
+
+        assertEquals(Map.of("A", "1", "B", "2"), reader.getAll(List.of("A", "B")));
+        assertEquals(1, server.commandCount("MGET"));
+    }
+
+    @Test
+    void reconnect_clearsTheCache_andTrackingIsEnabledAgain() throws Exception {
+        redisTemplate.opsForValue().set("K", "first");
+        reader.get("K");
+
+        server.disconnectClients();
+        await(() -> size() == 0);
+        await(() -> reader.get("K") != null && size() == 1);
+
+        redisTemplate.opsForValue().set("K", "second");
+        await(() -> size() == 0);
+        assertEquals("second", reader.get("K"));
+    }
+
+    @Test
+    void withoutResp3_readsGoThroughTheTemplate() throws Exception {
+        try (var resp2 = new InMemoryRedisServer()) {
+            var factory = connectionFactory(resp2);
+            var template = redisTemplate(factory);
+            var fallback = new RedisCachedReader(factory, template, true, DataSize.ofMegabytes(1));
+            try {
+                template.opsForValue().set("K", "v");
+
+                assertEquals("v", fallback.get("K"));
+                assertEquals("v", fallback.get("K"));
+                assertEquals(Map.of("K", "v"), fallback.getAll(List.of("K", "NOPE")));
+                assertEquals(2, resp2.commandCount("GET"));
+                assertEquals(1, resp2.commandCount("MGET"));
+            } finally {
+                fallback.destroy();
+                factory.destroy();
+            }
+        }
+    }
+
+    @Test
+    void disabled_readsGoThroughTheTemplate() {
+        var disabled = new RedisCachedReader(connectionFactory, redisTemplate, false, DataSize.ofMegabytes(1));
+        redisTemplate.opsForValue().set("K", "v");
+        long clientCommands = server.commandCount("CLIENT");
+
+        assertEquals("v", disabled.get("K"));
+        assertEquals("v", disabled.get("K"));
+        assertEquals(2, server.commandCount("GET"));
+        assertEquals(clientCommands, server.commandCount("CLIENT"));
+        disabled.destroy();
+    }
+
+    private double size() {
+        return registry.get("redis.near.cache.size").gauge().value();
+    }
+
+    private double gets(String result) {
+        return registry.get("redis.near.cache.gets").tag("result", result).functionCounter().count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the near cache");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static LettuceConnectionFactory connectionFactory(InMemoryRedisServer server) {
+        var factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", server.port()));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    private static RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory factory) {
+        var config = new RedisConfig();
+        var serializer = config.valueSerializer(RedisValueCodec.UTF8, config.serializer(config.objectMapper()));
+        var template = config.objectRedisTemplate(factory, serializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
@@ -0,0 +1,97 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisConfig;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.support.InMemoryRedisCluster;
+import com.labs.repartitioner.support.InMemoryRedisServer;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los writers contra Lettuce en modo cluster y un {@link InMemoryRedisCluster} de tres nodos:
+ * un pipeline por nodo sin redirecciones, y MOVED cuando un slot cambia de nodo.
+ */
+class RedisClusterRoundTripTest {
+
+    static InMemoryRedisCluster cluster;
+    static LettuceConnectionFactory connectionFactory;
+    static RedisTemplate<String, Object> redisTemplate;
+    static RedisAsyncWriter asyncWriter;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        cluster = new InMemoryRedisCluster(3);
+        connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(cluster.addresses()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        var config = new RedisConfig();
+        var serializer = config.valueSerializer(RedisValueCodec.UTF8, config.serializer(config.objectMapper()));
+        redisTemplate = config.objectRedisTemplate(connectionFactory, serializer);
+        redisTemplate.afterPropertiesSet();
+        asyncWriter = new RedisAsyncWriter(connectionFactory, redisTemplate);
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        asyncWriter.destroy();
+        connectionFactory.destroy();
+        cluster.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        cluster.reset();
+    }
+
+    @Test
+    void batchWriterSendsEachKeyToTheNodeOwningItsSlot() {
+        var writer = new RedisBatchWriter(asyncWriter);
+        Map<String, String> batch = new LinkedHashMap<>();
+        IntStream.range(0, 300).forEach(i -> batch.put("KEY-" + i, String.valueOf(i)));
+
+        assertTrue(writer.setIfAbsent(batch).stream().allMatch(created -> created));
+        assertEquals(List.of(false), writer.setIfAbsent(Map.of("KEY-7", "other")));
+
+        assertEquals("7", cluster.get("KEY-7"));
+        assertEquals("7", redisTemplate.opsForValue().get("KEY-7"));
+        assertEquals(300, cluster.nodes().stream().mapToInt(InMemoryRedisServer::size).sum());
+        assertTrue(cluster.nodes().stream().allMatch(node -> node.size() > 0));
+        // Ni MOVED ni reintentos: cada SET llegó una vez a su nodo
+        assertEquals(301, cluster.commandCount("SET"));
+    }
+
+    @Test
+    void batchWriterFollowsMovedSlots() {
+        var writer = new RedisBatchWriter(asyncWriter);
+        writer.setIfAbsent(Map.of("WARMUP", "1"));
+        String key = "MOVED-KEY";
+        int slot = SlotHash.getSlot(key);
+        var previous = cluster.owner(slot);
+        var target = cluster.nodes().stream().filter(node -> node != previous).findFirst().orElseThrow();
+        cluster.moveSlot(slot, target);
+
+        try {
+            assertEquals(List.of(true), writer.setIfAbsent(Map.of(key, "v")));
+            assertEquals("v", target.get(key));
+            assertNull(previous.get(key));
+        } finally {
+            cluster.moveSlot(slot, previous);
+        }
+    }
+}
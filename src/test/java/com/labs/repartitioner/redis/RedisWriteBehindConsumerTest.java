@@ -0,0 +1,87 @@
+package com.labs.repartitioner.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisWriteBehindConsumerTest {
+
+    private static final String TOPIC = "uppercase-redis-sink";
+
+    @Mock RedisBatchWriter writer;
+    @Mock Consumer<String, String> consumer;
+    @Mock Consumer<String, String> otherConsumer;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void writesBatchWithFirstValuePerKey_andCountsResults() {
+        var sut = new RedisWriteBehindConsumer(writer, registry);
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("ABC", "1");
+        expected.put("DEF", "3");
+        when(writer.setIfAbsent(expected)).thenReturn(List.of(true, false));
+        when(consumer.assignment()).thenReturn(Set.of());
+
+        sut.write(List.of(record(0, "ABC", "1"), record(1, "ABC", "2"), record(2, "DEF", "3"),
+                record(3, null, "4")), consumer);
+
+        verify(writer).setIfAbsent(expected);
+        assertEquals(1, registry.get("redis.write.behind.keys").tag("result", "created").counter().count());
+        assertEquals(1, registry.get("redis.write.behind.keys").tag("result", "existing").counter().count());
+        assertEquals(2, registry.get("redis.write.behind.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void failsTheBatch_whenRedisFails_soItIsRetried() {
+        var sut = new RedisWriteBehindConsumer(writer, registry);
+        when(writer.setIfAbsent(anyMap())).thenThrow(new IllegalStateException("redis down"));
+
+        assertThrows(IllegalStateException.class, () -> sut.write(List.of(record(0, "ABC", "1")), consumer));
+        verify(consumer, never()).assignment();
+    }
+
+    @Test
+    void reportsLag_summedAcrossConsumers() {
+        var sut = new RedisWriteBehindConsumer(writer, registry);
+        var p0 = new TopicPartition(TOPIC, 0);
+        var p1 = new TopicPartition(TOPIC, 1);
+        when(consumer.assignment()).thenReturn(Set.of(p0));
+        when(consumer.currentLag(p0)).thenReturn(OptionalLong.of(40));
+        when(otherConsumer.assignment()).thenReturn(Set.of(p1));
+        when(otherConsumer.currentLag(p1)).thenReturn(OptionalLong.of(2));
+
+        sut.write(List.of(), consumer);
+        sut.write(List.of(), otherConsumer);
+
+        assertEquals(42, registry.get("redis.write.behind.lag").gauge().value());
+
+        when(consumer.currentLag(p0)).thenReturn(OptionalLong.of(0));
+        sut.write(List.of(), consumer);
+        assertEquals(2, registry.get("redis.write.behind.lag").gauge().value());
+        verify(writer, never()).setIfAbsent(anyMap());
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String key, String value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, key, value);
+    }
+}
@@ -0,0 +1,107 @@
+package com.labs.repartitioner.redis;
+
+import com.labs.repartitioner.config.RedisConfig;
+import com.labs.repartitioner.constant.RedisValueCodec;
+import com.labs.repartitioner.support.InMemoryRedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los writers contra Lettuce real y el {@link InMemoryRedisServer}: valida el protocolo
+ * (pipeline, SET NX) que los tests con mocks no cubren.
+ */
+class RedisWriterRoundTripTest {
+
+    static InMemoryRedisServer server;
+    static LettuceConnectionFactory connectionFactory;
+    static RedisTemplate<String, Object> redisTemplate;
+    static RedisAsyncWriter asyncWriter;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new InMemoryRedisServer();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", server.port()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        var config = new RedisConfig();
+        var serializer = config.valueSerializer(RedisValueCodec.UTF8, config.serializer(config.objectMapper()));
+        redisTemplate = config.objectRedisTemplate(connectionFactory, serializer);
+        redisTemplate.afterPropertiesSet();
+        asyncWriter = new RedisAsyncWriter(connectionFactory, redisTemplate);
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        asyncWriter.destroy();
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        server.reset();
+    }
+
+    @Test
+    void batchWriterSendsSetNxOverTheSharedConnection() {
+        var writer = new RedisBatchWriter(asyncWriter);
+        Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("A", "1");
+        batch.put("B", "2");
+
+        assertEquals(List.of(true, true), writer.setIfAbsent(batch));
+        assertEquals(List.of(false, false), writer.setIfAbsent(Map.of("A", "x", "B", "y")));
+        assertEquals("1", server.get("A"));
+        assertEquals("2", server.get("B"));
+        assertEquals(4, server.commandCount("SET"));
+        // Sin conexión dedicada por lote: como mucho la conexión compartida
+        assertTrue(server.connectionCount() <= 1);
+    }
+
+    @Test
+    void asyncWriterKeepsFirstValue() throws Exception {
+        assertTrue(asyncWriter.setIfAbsent("K", "first").get(5, TimeUnit.SECONDS));
+        assertFalse(asyncWriter.setIfAbsent("K", "second").get(5, TimeUnit.SECONDS));
+        assertEquals("first", server.get("K"));
+        assertEquals("first", redisTemplate.opsForValue().get("K"));
+    }
+
+    @Test
+    void withKeyTtl_writesWithExpiry_andRenewsIt() throws Exception {
+        var ttlWriter = new RedisAsyncWriter(connectionFactory, redisTemplate);
+        ReflectionTestUtils.setField(ttlWriter, "keyTtl", Duration.ofMinutes(10));
+        try {
+            assertEquals(List.of(true), new RedisBatchWriter(ttlWriter).setIfAbsent(Map.of("K", "first")));
+            long ttl = redisTemplate.getExpire("K", TimeUnit.MILLISECONDS);
+            // TTL y media: cubre la media TTL que una clave activa puede pasar sin renovarse
+            assertTrue(ttl > Duration.ofMinutes(10).toMillis() && ttl <= Duration.ofMinutes(15).toMillis());
+
+            // La renovación de una clave activa conserva el primer valor y vuelve a poner la expiración
+            redisTemplate.expire("K", Duration.ofSeconds(30));
+            assertFalse(ttlWriter.setIfAbsent("K", "renewed").get(5, TimeUnit.SECONDS));
+            assertEquals("first", server.get("K"));
+            assertTrue(redisTemplate.getExpire("K", TimeUnit.MILLISECONDS) > Duration.ofMinutes(10).toMillis());
+            assertEquals(List.of(false), new RedisBatchWriter(ttlWriter).setIfAbsent(Map.of("K", "again")));
+            assertEquals("first", server.get("K"));
+        } finally {
+            ttlWriter.destroy();
+        }
+    }
+}
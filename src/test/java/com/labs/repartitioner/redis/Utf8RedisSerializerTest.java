@@ -0,0 +1,63 @@
+package com.labs.repartitioner.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Utf8RedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(new ObjectMapper());
+    private final Utf8RedisSerializer sut = new Utf8RedisSerializer(json);
+
+    @Test
+    void writesPlainUtf8() {
+        assertArrayEquals("año".getBytes(StandardCharsets.UTF_8), sut.serialize("año"));
+        assertArrayEquals("42".getBytes(StandardCharsets.UTF_8), sut.serialize(42));
+        assertEquals(0, sut.serialize(null).length);
+        byte[] raw = {1, 2};
+        assertSame(raw, sut.serialize(raw));
+    }
+
+    @Test
+    void roundTripsPlainValues() {
+        assertEquals("bar", sut.deserialize(sut.serialize("bar")));
+        assertEquals("\"quoted", sut.deserialize(sut.serialize("\"quoted")));
+        assertEquals("{not json", sut.deserialize(sut.serialize("{not json")));
+        assertNull(sut.deserialize(new byte[0]));
+        assertNull(sut.deserialize(null));
+    }
+
+    @Test
+    void roundTripsTextThatLooksLikeJson() {
+        for (String text : new String[] {"{\"a\":1}", "\"x\"", "[1,2]", "{a}", "\"\""}) {
+            assertEquals(text, sut.deserialize(sut.serialize(text)));
+        }
+        // El texto plano sólo cambia de forma cuando hace falta
+        assertArrayEquals(json.serialize("{\"a\":1}"), sut.serialize("{\"a\":1}"));
+    }
+
+    @Test
+    void readsEntriesWrittenByJsonCodec() {
+        assertEquals("bar", sut.deserialize(json.serialize("bar")));
+        assertEquals(Map.of("a", 1), sut.deserialize(json.serialize(Map.of("a", 1))));
+    }
+
+    @Test
+    void fallsBackToPlainText_whenJsonLookalikeIsInvalid() {
+        assertEquals("{a}", sut.deserialize("{a}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void isSmallerThanJson_forStrings() {
+        assertTrue(sut.serialize("value-123").length < json.serialize("value-123").length);
+    }
+}
@@ -0,0 +1,58 @@
+package com.labs.repartitioner.serde;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UpperCaseKeyDeserializerTest {
+
+    private final UpperCaseKeyDeserializer deserializer = new UpperCaseKeyDeserializer();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", "abc", "ABC", "foo", "xyz", "customer-123", "order_42:line.7", "MiXeD-CaSe", "a{b}[c]`~@",
+            "año", "straße", "éèê", "ıi", "ǆ", "ﬁ", "日本語", "emoji-😀-key", "key-ñ-tail"
+    })
+    void matchesStringToUpperCase(String key) {
+        assertSameAsStringPath(key);
+    }
+
+    @Test
+    void matchesStringToUpperCase_forRandomAsciiKeys() {
+        var random = new Random(42);
+        for (int n = 0; n < 10_000; n++) {
+            var chars = new char[1 + random.nextInt(40)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) random.nextInt(128);
+            }
+            assertSameAsStringPath(new String(chars));
+        }
+    }
+
+    @Test
+    void upperCasesAsciiKeyInPlace() {
+        byte[] data = "abc".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(data, deserializer.deserialize("uppercase", data));
+        assertArrayEquals("ABC".getBytes(StandardCharsets.UTF_8), data);
+    }
+
+    @Test
+    void keepsNullKey() {
+        assertNull(deserializer.deserialize("uppercase", null));
+    }
+
+    private void assertSameAsStringPath(String key) {
+        byte[] expected = key.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(expected, deserializer.deserialize("uppercase", key.getBytes(StandardCharsets.UTF_8)), key);
+    }
+}
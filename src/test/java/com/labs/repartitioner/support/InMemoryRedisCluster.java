@@ -0,0 +1,92 @@
+package com.labs.repartitioner.support;
+
+import io.lettuce.core.cluster.SlotHash;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Redis Cluster en proceso: varios {@link InMemoryRedisServer} (todos masters, sin réplicas) que se
+ * reparten los 16384 slots a partes iguales. Cada nodo publica la topología con CLUSTER NODES y
+ * redirige con MOVED las claves de otros nodos, como un cluster real tras mover slots.
+ */
+public class InMemoryRedisCluster implements AutoCloseable {
+
+    private final List<InMemoryRedisServer> nodes = new ArrayList<>();
+    private final AtomicReferenceArray<InMemoryRedisServer> slots = new AtomicReferenceArray<>(SlotHash.SLOT_COUNT);
+
+    public InMemoryRedisCluster(int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            var node = new InMemoryRedisServer();
+            node.joinCluster(this);
+            nodes.add(node);
+        }
+        for (int slot = 0; slot < SlotHash.SLOT_COUNT; slot++) {
+            slots.set(slot, nodes.get(slot * size / SlotHash.SLOT_COUNT));
+        }
+    }
+
+    public List<InMemoryRedisServer> nodes() {
+        return nodes;
+    }
+
+    /** Direcciones {@code host:port} de los nodos, para {@code spring.data.redis.cluster.nodes}. */
+    public List<String> addresses() {
+        return nodes.stream().map(node -> "127.0.0.1:" + node.port()).toList();
+    }
+
+    public InMemoryRedisServer owner(int slot) {
+        return slots.get(slot);
+    }
+
+    /** Mueve un slot a otro nodo; los clientes lo descubren por el MOVED siguiente. */
+    public void moveSlot(int slot, InMemoryRedisServer target) {
+        slots.set(slot, target);
+    }
+
+    public String get(String key) {
+        return owner(SlotHash.getSlot(key)).get(key);
+    }
+
+    public long commandCount(String command) {
+        return nodes.stream().mapToLong(node -> node.commandCount(command)).sum();
+    }
+
+    public void reset() {
+        nodes.forEach(InMemoryRedisServer::reset);
+    }
+
+    String nodeId(InMemoryRedisServer node) {
+        return "%040x".formatted(node.port());
+    }
+
+    /** Formato de CLUSTER NODES: id, dirección, flags, master, ping, pong, epoch, estado y rangos de slots. */
+    String nodesReply(InMemoryRedisServer self) {
+        StringBuilder reply = new StringBuilder();
+        for (InMemoryRedisServer node : nodes) {
+            reply.append(nodeId(node)).append(" 127.0.0.1:").append(node.port()).append('@').append(node.port() + 10000)
+                    .append(node == self ? " myself,master" : " master").append(" - 0 0 1 connected");
+            int start = -1;
+            for (int slot = 0; slot <= SlotHash.SLOT_COUNT; slot++) {
+                boolean owned = slot < SlotHash.SLOT_COUNT && slots.get(slot) == node;
+                if (owned && start < 0) {
+                    start = slot;
+                } else if (!owned && start >= 0) {
+                    reply.append(' ').append(start == slot - 1 ? String.valueOf(start) : start + "-" + (slot - 1));
+                    start = -1;
+                }
+            }
+            reply.append('\n');
+        }
+        return reply.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (InMemoryRedisServer node : nodes) {
+            node.close();
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.labs.repartitioner.support;
+
+import io.lettuce.core.cluster.SlotHash;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Redis mínimo en proceso (RESP2) para pruebas y benchmarks: soporta los comandos que usan la
+ * aplicación y Lettuce al conectar (PING, AUTH, CLIENT, SELECT, SET con NX/XX/EX/PX, GET, MGET, DEL,
+ * EXISTS, PTTL, PEXPIRE, DBSIZE, FLUSHALL). Cuenta los comandos recibidos por nombre.
+ * Con {@link #enableResp3()} acepta además HELLO 3 y CLIENT TRACKING ON: las claves leídas por una
+ * conexión con tracking se invalidan con un push {@code invalidate} al modificarse, como en Redis 6.
+ * Como nodo de un {@link InMemoryRedisCluster} responde además CLUSTER NODES e INFO, y MOVED o
+ * CROSSSLOT a las claves de slots que no son suyos.
+ * Un listener opcional recibe cada clave escrita (la prueba de carga mide así la latencia hasta Redis).
+ */
+public class InMemoryRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, byte[]> data = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final LongAdder connections = new LongAdder();
+    private volatile InMemoryRedisCluster cluster;
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    /** Conexiones con tracking que leyeron cada clave; se olvidan al invalidarla */
+    private final Map<String, Set<Client>> tracked = new ConcurrentHashMap<>();
+    private final Set<Client> tracking = ConcurrentHashMap.newKeySet();
+    private volatile boolean resp3;
+    private volatile boolean running = true;
+    private volatile Consumer<String> writeListener = key -> { };
+
+    public InMemoryRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "in-memory-redis-" + port());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String get(String key) {
+        byte[] value = read(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        data.keySet().forEach(this::read);
+        return data.size();
+    }
+
+    public long commandCount(String command) {
+        LongAdder counter = commandCounts.get(command.toUpperCase(Locale.ROOT));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** Conexiones aceptadas desde el último {@link #reset()}. */
+    public long connectionCount() {
+        return connections.sum();
+    }
+
+    /** Se llama con cada clave que un SET llega a escribir, en el hilo de la conexión. */
+    public void onWrite(Consumer<String> listener) {
+        this.writeListener = listener;
+    }
+
+    public void enableResp3() {
+        this.resp3 = true;
+    }
+
+    /** Cierra las conexiones abiertas (el servidor sigue aceptando): simula un corte de red. */
+    public void disconnectClients() throws IOException {
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    void joinCluster(InMemoryRedisCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public void reset() {
+        data.clear();
+        expiresAt.clear();
+        commandCounts.clear();
+        connections.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                connections.increment();
+                Thread handler = new Thread(() -> serve(socket), "in-memory-redis-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Client client = null;
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            client = new Client(out);
+            while (running) {
+                List<byte[]> command = readCommand(in);
+                // Los push de invalidación llegan desde otros hilos: la respuesta se escribe con el cliente tomado
+                synchronized (client) {
+                    execute(command, client);
+                    // Se vacía sólo cuando no quedan comandos del pipeline por leer
+                    if (in.available() == 0) {
+                        out.flush();
+                    }
+                }
+                // Fuera del bloqueo propio: dos escritores no se esperan el uno al otro
+                for (String key : client.modified) {
+                    invalidate(key);
+                }
+                client.modified.clear();
+            }
+        } catch (IOException e) {
+            // cliente desconectado
+        } finally {
+            clients.remove(socket);
+            if (client != null) {
+                tracking.remove(client);
+            }
+        }
+    }
+
+    private void execute(List<byte[]> args, Client client) throws IOException {
+        OutputStream out = client.out;
+        String name = text(args.get(0)).toUpperCase(Locale.ROOT);
+        commandCounts.computeIfAbsent(name, k -> new LongAdder()).increment();
+        if (cluster != null && !ownsKeys(name, args, out)) {
+            return;
+        }
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "AUTH", "SELECT", "READONLY" -> simple(out, "OK");
+            case "HELLO" -> hello(args, out);
+            case "CLIENT" -> {
+                if (args.size() > 2 && "TRACKING".equalsIgnoreCase(text(args.get(1)))) {
+                    if ("ON".equalsIgnoreCase(text(args.get(2)))) {
+                        tracking.add(client);
+                    } else {
+                        tracking.remove(client);
+                    }
+                }
+                simple(out, "OK");
+            }
+            case "QUIT" -> {
+                simple(out, "OK");
+                out.flush();
+                throw new EOFException();
+            }
+            case "SET" -> set(args, client);
+            case "GET" -> bulk(out, trackedRead(client, key(args, 1)));
+            case "MGET" -> {
+                out.write(("*" + (args.size() - 1) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                for (int i = 1; i < args.size(); i++) {
+                    bulk(out, trackedRead(client, key(args, i)));
+                }
+            }
+            case "DEL" -> {
+                long removed = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    if (read(key(args, i)) != null) {
+                        data.remove(key(args, i));
+                        expiresAt.remove(key(args, i));
+                        client.modified.add(key(args, i));
+                        removed++;
+                    }
+                }
+                integer(out, removed);
+            }
+            case "EXISTS" -> {
+                long found = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    found += read(key(args, i)) != null ? 1 : 0;
+                }
+                integer(out, found);
+            }
+            case "PTTL" -> {
+                String key = key(args, 1);
+                Long expiry = expiresAt.get(key);
+                integer(out, read(key) == null ? -2 : expiry == null ? -1 : expiry - System.currentTimeMillis());
+            }
+            case "PEXPIRE" -> {
+                String key = key(args, 1);
+                synchronized (data) {
+                    boolean exists = read(key) != null;
+                    if (exists) {
+                        expiresAt.put(key, System.currentTimeMillis() + Long.parseLong(text(args.get(2))));
+                    }
+                    integer(out, exists ? 1 : 0);
+                }
+            }
+            case "DBSIZE" -> integer(out, size());
+            case "CLUSTER" -> cluster(args, out);
+            case "INFO" -> bulk(out, ("# Clients\r\nconnected_clients:" + clients.size()
+                    + "\r\n# Replication\r\nrole:master\r\nmaster_repl_offset:0\r\n").getBytes(StandardCharsets.UTF_8));
+            case "FLUSHALL", "FLUSHDB" -> {
+                data.clear();
+                expiresAt.clear();
+                tracked.clear();
+                simple(out, "OK");
+                // Redis avisa del vaciado con una invalidación sin claves
+                for (Client target : tracking) {
+                    if (target != client) {
+                        push(target, null);
+                    }
+                }
+                if (tracking.contains(client)) {
+                    invalidation(out, null);
+                }
+            }
+            default -> error(out, "ERR unknown command '" + name + "'");
+        }
+    }
+
+    /** Comprueba que las claves del comando son de un mismo slot de este nodo; si no, responde el error. */
+    private boolean ownsKeys(String name, List<byte[]> args, OutputStream out) throws IOException {
+        int lastKey = switch (name) {
+            case "SET", "GET", "PTTL", "PEXPIRE" -> 1;
+            case "DEL", "EXISTS", "MGET" -> args.size() - 1;
+            default -> 0;
+        };
+        if (lastKey == 0) {
+            return true;
+        }
+        int slot = SlotHash.getSlot(args.get(1));
+        for (int i = 2; i <= lastKey; i++) {
+            if (SlotHash.getSlot(args.get(i)) != slot) {
+                error(out, "CROSSSLOT Keys in request don't hash to the same slot");
+                return false;
+            }
+        }
+        InMemoryRedisServer owner = cluster.owner(slot);
+        if (owner != this) {
+            error(out, "MOVED " + slot + " 127.0.0.1:" + owner.port());
+            return false;
+        }
+        return true;
+    }
+
+    private void cluster(List<byte[]> args, OutputStream out) throws IOException {
+        String subcommand = args.size() > 1 ? text(args.get(1)).toUpperCase(Locale.ROOT) : "";
+        switch (cluster == null ? "" : subcommand) {
+            case "NODES" -> bulk(out, cluster.nodesReply(this).getBytes(StandardCharsets.UTF_8));
+            case "MYID" -> bulk(out, cluster.nodeId(this).getBytes(StandardCharsets.UTF_8));
+            default -> error(out, "ERR This instance has cluster support disabled");
+        }
+    }
+
+    private void set(List<byte[]> args, Client client) throws IOException {
+        OutputStream out = client.out;
+        String key = key(args, 1);
+        byte[] value = args.get(2);
+        boolean nx = false;
+        boolean xx = false;
+        long ttlMillis = -1;
+        for (int i = 3; i < args.size(); i++) {
+            switch (text(args.get(i)).toUpperCase(Locale.ROOT)) {
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "EX" -> ttlMillis = Long.parseLong(text(args.get(++i))) * 1000;
+                case "PX" -> ttlMillis = Long.parseLong(text(args.get(++i)));
+                default -> {
+                    error(out, "ERR syntax error");
+                    return;
+                }
+            }
+        }
+        synchronized (data) {
+            boolean exists = read(key) != null;
+            if ((nx && exists) || (xx && !exists)) {
+                bulk(out, null);
+                return;
+            }
+            data.put(key, value);
+            if (ttlMillis > 0) {
+                expiresAt.put(key, System.currentTimeMillis() + ttlMillis);
+            } else {
+                expiresAt.remove(key);
+            }
+        }
+        client.modified.add(key);
+        writeListener.accept(key);
+        simple(out, "OK");
+    }
+
+    private void hello(List<byte[]> args, OutputStream out) throws IOException {
+        if (!resp3 || args.size() < 2 || !"3".equals(text(args.get(1)))) {
+            error(out, resp3 ? "NOPROTO unsupported protocol version" : "ERR unknown command 'HELLO'");
+            return;
+        }
+        out.write("%7\r\n".getBytes(StandardCharsets.UTF_8));
+        bulk(out, bytes("server"));
+        bulk(out, bytes("redis"));
+        bulk(out, bytes("version"));
+        bulk(out, bytes("7.2.0"));
+        bulk(out, bytes("proto"));
+        integer(out, 3);
+        bulk(out, bytes("id"));
+        integer(out, connections.sum());
+        bulk(out, bytes("mode"));
+        bulk(out, bytes(cluster == null ? "standalone" : "cluster"));
+        bulk(out, bytes("role"));
+        bulk(out, bytes("master"));
+        bulk(out, bytes("modules"));
+        out.write("*0\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Con tracking, la clave se registra antes de leerla: una escritura posterior siempre la invalida. */
+    private byte[] trackedRead(Client client, String key) {
+        if (tracking.contains(client)) {
+            tracked.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(client);
+        }
+        return read(key);
+    }
+
+    private void invalidate(String key) {
+        Set<Client> targets = tracked.remove(key);
+        if (targets != null) {
+            for (Client target : targets) {
+                push(target, key);
+            }
+        }
+    }
+
+    private static void push(Client target, String key) {
+        synchronized (target) {
+            try {
+                invalidation(target.out, key);
+                target.out.flush();
+            } catch (IOException e) {
+                // cliente desconectado
+            }
+        }
+    }
+
+    /** Push RESP3 {@code invalidate} de una clave, o sin claves ({@code null}) tras un FLUSHALL. */
+    private static void invalidation(OutputStream out, String key) throws IOException {
+        out.write(">2\r\n".getBytes(StandardCharsets.UTF_8));
+        bulk(out, bytes("invalidate"));
+        if (key == null) {
+            out.write("_\r\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.write("*1\r\n".getBytes(StandardCharsets.UTF_8));
+            bulk(out, key.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] read(String key) {
+        Long expiry = expiresAt.get(key);
+        if (expiry != null && expiry <= System.currentTimeMillis()) {
+            data.remove(key);
+            expiresAt.remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    private static String key(List<byte[]> args, int index) {
+        return new String(args.get(index), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            throw new EOFException();
+        }
+        if (type != '*') {
+            // Comando inline (p. ej. desde redis-cli o telnet)
+            String line = (char) type + readLine(in);
+            List<byte[]> args = new ArrayList<>();
+            for (String part : line.trim().split("\\s+")) {
+                args.add(part.getBytes(StandardCharsets.UTF_8));
+            }
+            return args;
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] arg = in.readNBytes(length);
+            in.skipNBytes(2);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    /** Una conexión: su salida y las claves que modificó el último comando, para invalidarlas después. */
+    private static final class Client {
+        private final OutputStream out;
+        private final List<String> modified = new ArrayList<>();
+
+        private Client(OutputStream out) {
+            this.out = out;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void simple(OutputStream out, String message) throws IOException {
+        out.write(('+' + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(('-' + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import org.apache.kafka.streams.errors.StreamsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncRedisSinkTest {
+
+    @Mock RedisAsyncWriter writer;
+
+    final List<CompletableFuture<Boolean>> inFlight = new ArrayList<>();
+
+    AsyncRedisSink sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new AsyncRedisSink(writer, 2, Duration.ofMillis(50));
+    }
+
+    private void writerKeepsCommandsInFlight() {
+        when(writer.setIfAbsent(anyString(), anyString())).thenAnswer(inv -> {
+            var future = new CompletableFuture<Boolean>();
+            inFlight.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void add_doesNotWaitForRedisReply() {
+        writerKeepsCommandsInFlight();
+
+        sut.add("A", "1");
+        sut.add("B", "2");
+
+        assertEquals(2, sut.pendingCount());
+        inFlight.forEach(f -> f.complete(true));
+        assertEquals(0, sut.pendingCount());
+    }
+
+    @Test
+    void add_blocksStreamThread_whenWindowIsFull() {
+        writerKeepsCommandsInFlight();
+        sut.add("A", "1");
+        sut.add("B", "2");
+
+        assertThrows(StreamsException.class, () -> sut.add("C", "3"));
+    }
+
+    @Test
+    void flush_waitsForAllInFlightCommands() {
+        writerKeepsCommandsInFlight();
+        sut.add("A", "1");
+
+        assertThrows(StreamsException.class, sut::flush);
+
+        inFlight.get(0).complete(false);
+        assertDoesNotThrow(sut::flush);
+    }
+
+    @Test
+    void flush_surfacesFailedCommand() {
+        writerKeepsCommandsInFlight();
+        sut.add("A", "1");
+        inFlight.get(0).completeExceptionally(new IllegalStateException("redis down"));
+
+        assertThrows(StreamsException.class, sut::punctuate);
+        assertEquals(0, sut.pendingCount());
+    }
+
+    @Test
+    void add_releasesWindow_whenCommandCannotBeSent() {
+        when(writer.setIfAbsent(anyString(), anyString())).thenThrow(new IllegalStateException("no connection"));
+
+        assertThrows(IllegalStateException.class, () -> sut.add("A", "1"));
+        assertEquals(0, sut.pendingCount());
+    }
+
+    @Test
+    void acquire_restoresInterruptFlag() {
+        Thread.currentThread().interrupt();
+
+        assertThrows(StreamsException.class, sut::flush);
+        assertEquals(true, Thread.interrupted());
+    }
+}
@@ -0,0 +1,66 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.redis.RedisBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BatchRedisSinkTest {
+
+    @Mock RedisBatchWriter writer;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    BatchRedisSink sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new BatchRedisSink(writer, 2, new TopologyMetrics(registry, RedisSinkMode.BATCH));
+    }
+
+    @Test
+    void add_flushesWhenBatchIsFull() {
+        sut.add("A", "1");
+        verify(writer, never()).setIfAbsent(anyMap());
+
+        sut.add("B", "2");
+
+        verify(writer).setIfAbsent(Map.of("A", "1", "B", "2"));
+        assertEquals(0, sut.pendingCount());
+        assertEquals(1, registry.get("redis.sink.batch.size").summary().count());
+        assertEquals(2, registry.get("redis.sink.batch.size").summary().totalAmount());
+        assertEquals(1, registry.get("redis.sink.batch.write").timer().count());
+    }
+
+    @Test
+    void add_keepsFirstValueForRepeatedKey() {
+        sut.add("A", "1");
+        sut.add("A", "2");
+        sut.punctuate();
+
+        verify(writer).setIfAbsent(Map.of("A", "1"));
+    }
+
+    @Test
+    void flush_keepsBatch_whenRedisFails() {
+        doThrow(new IllegalStateException("redis down")).when(writer).setIfAbsent(any());
+        sut.add("A", "1");
+
+        assertThrows(IllegalStateException.class, sut::flush);
+        assertEquals(1, sut.pendingCount());
+    }
+}
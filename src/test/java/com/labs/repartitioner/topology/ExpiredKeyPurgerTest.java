@@ -0,0 +1,75 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.TopicEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpiredKeyPurgerTest {
+
+    static final long TTL = 1000;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    TopologyMetrics metrics = new TopologyMetrics(registry, RedisSinkMode.BATCH);
+    TimestampedKeyValueStore<byte[], byte[]> table;
+
+    @BeforeEach
+    void setup() {
+        var context = new MockProcessorContext<Void, Void>();
+        table = Stores.timestampedKeyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(TopicEnum.UPPERCASE_STORAGE.getName()),
+                        Serdes.ByteArray(), Serdes.ByteArray())
+                .withLoggingDisabled()
+                .build();
+        table.init(context.getStateStoreContext(), table);
+    }
+
+    @Test
+    void purge_deletesOnlyEntriesOlderThanTtl() {
+        put("OLD", 100);
+        put("FRESH", 1500);
+        var purger = new ExpiredKeyPurger(table, TTL, 100, metrics);
+
+        assertEquals(1, purger.purge(2000));
+
+        assertNull(table.get(bytes("OLD")));
+        assertNotNull(table.get(bytes("FRESH")));
+        assertEquals(1, registry.get("topology.keys.expired").counter().count());
+    }
+
+    @Test
+    void purge_scansInBatches_andResumesWhereItStopped() {
+        for (String key : new String[] {"A", "B", "C", "D", "E"}) {
+            put(key, 0);
+        }
+        var purger = new ExpiredKeyPurger(table, TTL, 2, metrics);
+
+        assertEquals(2, purger.purge(5000));
+        assertEquals(2, purger.purge(5000));
+        assertEquals(1, purger.purge(5000));
+        // Vuelta completa: la siguiente pasada empieza de nuevo por el principio
+        put("F", 0);
+        assertEquals(1, purger.purge(5000));
+        assertEquals(0, table.approximateNumEntries());
+    }
+
+    private void put(String key, long timestamp) {
+        table.put(bytes(key), ValueAndTimestamp.make(bytes("v"), timestamp));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.TopicEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FirstSeenKeyProcessorTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    TopologyMetrics metrics = new TopologyMetrics(registry, RedisSinkMode.WRITE_BEHIND);
+    MockProcessorContext<byte[], byte[]> context;
+    TimestampedKeyValueStore<byte[], byte[]> table;
+
+    @BeforeEach
+    void setup() {
+        context = new MockProcessorContext<>();
+        table = Stores.timestampedKeyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(TopicEnum.UPPERCASE_STORAGE.getName()),
+                        Serdes.ByteArray(), Serdes.ByteArray())
+                .withLoggingDisabled()
+                .build();
+        table.init(context.getStateStoreContext(), table);
+        context.addStateStore(table);
+    }
+
+    @Test
+    void forwardsOnlyKeysNotSeenByTheTask() {
+        var processor = new FirstSeenKeyProcessor(1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("NEW"), bytes("2"), 0L));
+        processor.process(new Record<>(bytes("NEW"), bytes("3"), 0L));
+        processor.process(new Record<>(null, bytes("4"), 0L));
+
+        assertEquals(List.of("NEW=2"), forwarded());
+        assertEquals(1, registry.get("topology.keys").tag("result", "first_seen").counter().count());
+        assertEquals(1, registry.get("topology.keys").tag("result", "already_seen").counter().count());
+    }
+
+    @Test
+    void forwardsKeysAlreadyInTableStore_afterTaskRestart() {
+        // Tras una caída el changelog pudo llegar sin su registro de sink: el store no sirve de filtro
+        table.put(bytes("OLD"), ValueAndTimestamp.make(bytes("0"), 0L));
+        var processor = new FirstSeenKeyProcessor(1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+        processor.process(new Record<>(bytes("OLD"), bytes("1"), 0L));
+
+        processor.init(context);
+        processor.process(new Record<>(bytes("OLD"), bytes("1"), 0L));
+
+        assertEquals(List.of("OLD=1", "OLD=1"), forwarded());
+    }
+
+    @Test
+    void forwardsEveryKey_whenSeenKeysAreDisabled() {
+        var processor = new FirstSeenKeyProcessor(0, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        processor.process(new Record<>(bytes("ABC"), bytes("2"), 0L));
+
+        assertEquals(List.of("ABC=1", "ABC=2"), forwarded());
+    }
+
+    private List<String> forwarded() {
+        return context.forwarded().stream()
+                .map(f -> new String(f.record().key(), StandardCharsets.UTF_8) + "="
+                        + new String(f.record().value(), StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
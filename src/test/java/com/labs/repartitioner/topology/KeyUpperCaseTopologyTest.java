@@ -1,11 +1,19 @@
 package com.labs.repartitioner.topology;
 
 import com.labs.repartitioner.constant.TopicEnum;
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.redis.RedisAsyncWriter;
+import com.labs.repartitioner.redis.RedisBatchWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyDescription;
 import org.apache.kafka.streams.TopologyTestDriver;
 import org.apache.kafka.streams.state.KeyValueStore;
 import org.junit.jupiter.api.AfterEach;
@@ -15,14 +23,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -33,16 +47,16 @@ class KeyUpperCaseTopologyTest {
     private KeyUpperCaseTopology keyUpperCaseTopology;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisBatchWriter redisBatchWriter;
 
     @Mock
-    private ValueOperations<String, Object> valueOps;
+    private RedisAsyncWriter redisAsyncWriter;
 
     private TestInputTopic<String, String> inputTopic;
 
     private TopologyTestDriver testDriver;
 
-    private KeyValueStore<String, String> keyValueStore;
+    private KeyValueStore<byte[], byte[]> keyValueStore;
 
     private final String INPUT_TOPIC = TopicEnum.UPPERCASE.getName();
 
@@ -51,10 +65,25 @@ class KeyUpperCaseTopologyTest {
 
     @BeforeEach
     void init() {
-        keyUpperCaseTopology = new KeyUpperCaseTopology(redisTemplate);
+        keyUpperCaseTopology = topology(List.of(TransformPipeline.UPPERCASE_KEY));
 
         var builder = new StreamsBuilder();
         var topology = keyUpperCaseTopology.createTopology(builder);
+        startDriver(topology);
+    }
+
+    private KeyUpperCaseTopology topology(List<String> pipeline) {
+        var topology = new KeyUpperCaseTopology(redisBatchWriter, redisAsyncWriter, new SimpleMeterRegistry(),
+                new RecordTracer(1.0, List.of(), 100, new SimpleMeterRegistry()), new TransformPipeline(pipeline));
+        ReflectionTestUtils.setField(topology, "sinkMode", RedisSinkMode.BATCH);
+        ReflectionTestUtils.setField(topology, "batchSize", 100);
+        ReflectionTestUtils.setField(topology, "flushInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(topology, "seenKeysMaxSize", DataSize.ofKilobytes(64));
+        return topology;
+    }
+
+    private void startDriver(Topology topology) {
+        if (testDriver != null) testDriver.close();
 
         var properties = new Properties();
         properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-app");
@@ -77,39 +106,193 @@ class KeyUpperCaseTopologyTest {
     void uppercasesKey_andWritesToStateStore() {
         var key = "foo";
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null);
-
         inputTopic.pipeInput(key, "bar");
 
-        Assertions.assertEquals("bar", keyValueStore.get(key.toUpperCase()));
+        Assertions.assertArrayEquals(bytes("bar"), keyValueStore.get(bytes(key.toUpperCase())));
+    }
+
+    @Test
+    void uppercasesNonAsciiKey_throughStringFallback() {
+        inputTopic.pipeInput("año", "1");
+
+        Assertions.assertArrayEquals(bytes("1"), keyValueStore.get(bytes("AÑO")));
+        verify(redisBatchWriter).setIfAbsent(Map.of("AÑO", "1"));
+    }
+
+    @Test
+    void flushesRedisBatch_beforeCommit() {
+        inputTopic.pipeInput("abc", "123");
+
+        // El driver hace commit tras cada registro: el buffer se vacía aunque no llegue al tamaño de lote
+        verify(redisBatchWriter, times(1)).setIfAbsent(Map.of("ABC", "123"));
+    }
+
+    @Test
+    void sendsRepeatedKeyToRedisOnlyOnce() {
+        inputTopic.pipeInput("abc", "123");
+        inputTopic.pipeInput("ABC", "456");
+
+        verify(redisBatchWriter, times(1)).setIfAbsent(anyMap());
+        verify(redisBatchWriter).setIfAbsent(Map.of("ABC", "123"));
+    }
+
+    @Test
+    void resendsKeyToRedis_whenFlushFailsAndRecordIsReplayed() {
+        // En async el comando fallido no queda en ningún buffer: sólo el reproceso lo vuelve a enviar
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "sinkMode", RedisSinkMode.ASYNC);
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "maxInFlight", 10);
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "awaitTimeout", Duration.ofSeconds(1));
+        when(redisAsyncWriter.setIfAbsent("ABC", "123"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("redis down")))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        startDriver(keyUpperCaseTopology.createTopology(new StreamsBuilder()));
+
+        Assertions.assertThrows(RuntimeException.class, () -> inputTopic.pipeInput("abc", "123"));
+        // Sin commit el registro se vuelve a procesar, aunque uppercase-key-store ya tenga la clave
+        Assertions.assertArrayEquals(bytes("123"), keyValueStore.get(bytes("ABC")));
+        inputTopic.pipeInput("abc", "123");
+
+        verify(redisAsyncWriter, times(2)).setIfAbsent("ABC", "123");
+    }
+
+    @Test
+    void flushesRedisBatch_onWallClockPunctuation() {
+        inputTopic.pipeInput("abc", "123");
+        testDriver.advanceWallClockTime(Duration.ofSeconds(2));
+
+        verify(redisBatchWriter, times(1)).setIfAbsent(anyMap());
     }
 
     @Test
-    void writesToRedis_whenKeyNotPresent() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null);
+    void sendsAsyncCommands_inAsyncMode() {
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "sinkMode", RedisSinkMode.ASYNC);
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "maxInFlight", 10);
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "awaitTimeout", Duration.ofSeconds(1));
+        when(redisAsyncWriter.setIfAbsent("ABC", "123")).thenReturn(CompletableFuture.completedFuture(true));
+        startDriver(keyUpperCaseTopology.createTopology(new StreamsBuilder()));
 
         inputTopic.pipeInput("abc", "123");
 
-        verify(valueOps, times(1)).set("ABC", "123");
+        verify(redisAsyncWriter).setIfAbsent("ABC", "123");
+        verify(redisBatchWriter, never()).setIfAbsent(any());
     }
 
     @Test
-    void doesNotWriteToRedis_whenKeyAlreadyPresent() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get(anyString())).thenReturn(null);
-        when(valueOps.get("XYZ")).thenReturn("old");
+    void publishesFirstSeenKeysToSinkTopic_inWriteBehindMode() {
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "sinkMode", RedisSinkMode.WRITE_BEHIND);
+        startDriver(keyUpperCaseTopology.createTopology(new StreamsBuilder()));
+        var sinkTopic = testDriver.createOutputTopic(TopicEnum.REDIS_SINK.getName(),
+                new StringDeserializer(), new StringDeserializer());
 
-        inputTopic.pipeInput("xyz", "new");
+        inputTopic.pipeInput("abc", "123");
+        inputTopic.pipeInput("ABC", "456");
+        inputTopic.pipeInput("def", "789");
+
+        Assertions.assertEquals(List.of(KeyValue.pair("ABC", "123"), KeyValue.pair("DEF", "789")),
+                sinkTopic.readKeyValuesToList());
+        Assertions.assertArrayEquals(bytes("456"), keyValueStore.get(bytes("ABC")));
+        verify(redisBatchWriter, never()).setIfAbsent(any());
+        verify(redisAsyncWriter, never()).setIfAbsent(any(), any());
+    }
+
+    @Test
+    void keepsRepartitionTopicName() {
+        var description = keyUpperCaseTopology.createTopology(new StreamsBuilder()).describe().toString();
+
+        Assertions.assertTrue(description.contains("uppercase-table-repartition"));
+    }
+
+    @Test
+    void skipsRepartition_whenInputIsCoPartitioned() {
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "coPartitioned", true);
+        var topology = keyUpperCaseTopology.createTopology(new StreamsBuilder());
+        startDriver(topology);
+
+        inputTopic.pipeInput("foo", "bar");
+
+        Assertions.assertFalse(topology.describe().toString().contains("-repartition"));
+        Assertions.assertArrayEquals(bytes("bar"), keyValueStore.get(bytes("FOO")));
+        verify(redisBatchWriter).setIfAbsent(Map.of("FOO", "bar"));
+    }
 
-        verify(valueOps, never()).set(eq("XYZ"), any());
+    @Test
+    void fusesChainedPipelineSteps_intoSourceNode_withSingleRepartition() {
+        keyUpperCaseTopology = topology(List.of("trim-key", "strip-key-prefix:tenant-", "uppercase-key",
+                "add-key-prefix:t/", "trim-value", "add-value-suffix:!"));
+        var topology = keyUpperCaseTopology.createTopology(new StreamsBuilder());
+        startDriver(topology);
+
+        inputTopic.pipeInput(" tenant-foo ", " bar ");
+
+        // El nodo fuente va directo a la repartición: lo que llega a ella es la salida de sus serdes
+        var source = topology.describe().subtopologies().stream()
+                .flatMap(s -> s.nodes().stream())
+                .filter(node -> node instanceof TopologyDescription.Source src && src.topicSet().contains(INPUT_TOPIC))
+                .findFirst().orElseThrow();
+        var path = new ArrayList<String>();
+        for (var node = source; !(node instanceof TopologyDescription.Sink); node = node.successors().iterator().next()) {
+            Assertions.assertEquals(1, node.successors().size(), node.toString());
+            path.add(node.successors().iterator().next().name());
+        }
+        Assertions.assertTrue(path.stream().noneMatch(name -> name.contains("MAP")), path.toString());
+        var repartition = testDriver.createOutputTopic("test-app-uppercase-table-repartition",
+                new StringDeserializer(), new StringDeserializer());
+        Assertions.assertEquals(List.of(KeyValue.pair("t/FOO", "bar!")), repartition.readKeyValuesToList());
+        Assertions.assertEquals(List.of("test-app-uppercase-table-repartition"), testDriver.producedTopicNames().stream()
+                .filter(topic -> topic.endsWith("-repartition"))
+                .toList());
+    }
+
+    @Test
+    void appliesChainedPipelineSteps_toStoredKeyAndValue() {
+        keyUpperCaseTopology = topology(List.of("trim-key", "strip-key-prefix:tenant-", "uppercase-key",
+                "add-key-prefix:t/", "trim-value", "add-value-suffix:!"));
+        startDriver(keyUpperCaseTopology.createTopology(new StreamsBuilder()));
+
+        inputTopic.pipeInput(" tenant-foo ", " bar ");
+
+        Assertions.assertArrayEquals(bytes("bar!"), keyValueStore.get(bytes("t/FOO")));
+        verify(redisBatchWriter).setIfAbsent(Map.of("t/FOO", "bar!"));
+    }
+
+    @Test
+    void rejectsCoPartitionedInput_whenPipelineChangesKeyBeyondUppercase() {
+        var topology = topology(List.of(TransformPipeline.UPPERCASE_KEY, "trim-key"));
+        ReflectionTestUtils.setField(topology, "coPartitioned", true);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> topology.createTopology(new StreamsBuilder()));
+    }
+
+    @Test
+    void purgesExpiredKeys_withTombstoneToChangelog_whenKeyTtlIsSet() {
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "keyTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "purgeInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(keyUpperCaseTopology, "purgeBatchSize", 100);
+        startDriver(keyUpperCaseTopology.createTopology(new StreamsBuilder()));
+        var changelog = testDriver.createOutputTopic("test-app-" + STORE_NAME + "-changelog",
+                new StringDeserializer(), new StringDeserializer());
+        Instant now = Instant.now();
+
+        // La caducidad sigue al reloj de pared, no al timestamp de evento del registro
+        inputTopic.pipeInput("old", "1", now);
+        testDriver.advanceWallClockTime(Duration.ofMinutes(59));
+        inputTopic.pipeInput("new", "2", now.minus(Duration.ofHours(2)));
+        testDriver.advanceWallClockTime(Duration.ofMinutes(2));
+
+        Assertions.assertNull(keyValueStore.get(bytes("OLD")));
+        Assertions.assertArrayEquals(bytes("2"), keyValueStore.get(bytes("NEW")));
+        Assertions.assertEquals(List.of(KeyValue.pair("OLD", "1"), KeyValue.pair("NEW", "2"), KeyValue.pair("OLD", null)),
+                changelog.readKeyValuesToList());
     }
 
     @Test
     void skipsRedisInteraction_whenKeyIsNull() {
         inputTopic.pipeInput(null, "value");
 
-        verify(redisTemplate, never()).opsForValue();
+        verify(redisBatchWriter, never()).setIfAbsent(any());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
     }
 }
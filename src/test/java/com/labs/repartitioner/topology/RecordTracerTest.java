@@ -0,0 +1,97 @@
+package com.labs.repartitioner.topology;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordTracerTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    Logger traceLogger = (Logger) LoggerFactory.getLogger("com.labs.repartitioner.trace");
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        traceLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        traceLogger.detachAppender(appender);
+    }
+
+    @Test
+    void tracesSampledRecords() {
+        var sut = new RecordTracer(1.0, List.of(), 100, registry);
+
+        sut.trace(bytes("ABC"), bytes("1"));
+
+        assertEquals(1, appender.list.size());
+        assertEquals("key: ABC - Value: 1", appender.list.get(0).getFormattedMessage());
+        assertEquals(1, registry.get("topology.trace.records").tag("result", "logged").counter().count());
+    }
+
+    @Test
+    void tracesAllowlistedPrefixes_withoutSampling() {
+        var sut = new RecordTracer(0.0, List.of(" order-", ""), 100, registry);
+
+        sut.trace(bytes("ORDER-1"), bytes("1"));
+        sut.trace(bytes("OTHER-1"), bytes("2"));
+        sut.trace(bytes("ORD"), bytes("3"));
+        sut.trace(null, bytes("4"));
+
+        assertEquals(1, appender.list.size());
+        assertEquals(List.of("ORDER-"), sut.settings().prefixes());
+    }
+
+    @Test
+    void dropsLines_overTheRateLimit() {
+        var sut = new RecordTracer(1.0, List.of(), 2, registry);
+
+        for (int i = 0; i < 5; i++) {
+            sut.trace(bytes("K" + i), null);
+        }
+
+        assertEquals(2, appender.list.size());
+        assertEquals(3, registry.get("topology.trace.records").tag("result", "rate_limited").counter().count());
+    }
+
+    @Test
+    void zeroRate_disablesTracing() {
+        var sut = new RecordTracer(1.0, List.of("ABC"), 0, registry);
+
+        sut.trace(bytes("ABC"), bytes("1"));
+
+        assertEquals(0, appender.list.size());
+    }
+
+    @Test
+    void update_keepsUnsetValues_andValidates() {
+        var sut = new RecordTracer(0.5, List.of("A"), 10, registry);
+
+        var updated = sut.update(0.1, null, null);
+
+        assertEquals(new RecordTracer.Settings(0.1, List.of("A"), 10), updated);
+        assertEquals(List.of("B"), sut.update(null, List.of("b"), null).prefixes());
+        assertEquals(20, sut.update(null, null, 20).ratePerSecond());
+        assertThrows(IllegalArgumentException.class, () -> sut.update(1.5, null, null));
+        assertThrows(IllegalArgumentException.class, () -> sut.update(null, null, -1));
+        assertEquals(20, sut.settings().ratePerSecond());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
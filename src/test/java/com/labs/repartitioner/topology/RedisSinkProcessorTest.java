@@ -0,0 +1,217 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import com.labs.repartitioner.constant.TopicEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.Punctuator;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSinkProcessorTest {
+
+    @Mock RedisSink sink;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    TopologyMetrics metrics = new TopologyMetrics(registry, RedisSinkMode.BATCH);
+    MockProcessorContext<Void, Void> context;
+    TimestampedKeyValueStore<byte[], byte[]> table;
+    RedisSinkStore sinkStore;
+
+    @BeforeEach
+    void setup() {
+        context = new MockProcessorContext<>();
+
+        table = Stores.timestampedKeyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(TopicEnum.UPPERCASE_STORAGE.getName()),
+                        Serdes.ByteArray(), Serdes.ByteArray())
+                .withLoggingDisabled()
+                .build();
+        table.init(context.getStateStoreContext(), table);
+        context.addStateStore(table);
+
+        sinkStore = new RedisSinkStore(sink, metrics);
+        sinkStore.init(context.getStateStoreContext(), sinkStore);
+        context.addStateStore(sinkStore);
+    }
+
+    @Test
+    void skipsRedis_forKeysAlreadySeenByTheTask() {
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        processor.process(new Record<>(bytes("ABC"), bytes("2"), 0L));
+
+        verify(sink, times(1)).add(anyString(), anyString());
+        verify(sink).add("ABC", "1");
+        assertEquals(1, registry.get("topology.keys").tag("result", "first_seen").counter().count());
+        assertEquals(1, registry.get("topology.keys").tag("result", "already_seen").counter().count());
+        assertEquals(2, registry.get("topology.record.process").timer().count());
+    }
+
+    @Test
+    void startsWithEmptySeenKeys_evenIfTableStoreHasTheKey() {
+        // El store se escribe antes que Redis: tener la clave no garantiza que llegara
+        table.put(bytes("OLD"), ValueAndTimestamp.make(bytes("1"), 0L));
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("OLD"), bytes("2"), 0L));
+
+        verify(sink).add("OLD", "2");
+    }
+
+    @Test
+    void marksKeysSeen_onlyAfterConfirmedFlush() {
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        sinkStore.flush();
+
+        processor.init(context);
+        processor.process(new Record<>(bytes("ABC"), bytes("2"), 0L));
+        sinkStore.flush();
+        processor.process(new Record<>(bytes("ABC"), bytes("3"), 0L));
+
+        verify(sink).add("ABC", "1");
+        verify(sink).add("ABC", "2");
+        verify(sink, never()).add("ABC", "3");
+    }
+
+    @Test
+    void resendsKey_whenFlushFailsAndTheRecordIsReplayed() {
+        doThrow(new IllegalStateException("redis down")).doNothing().when(sink).flush();
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        assertThrows(IllegalStateException.class, sinkStore::flush);
+        // Sin commit, la tarea vuelve a leer el registro
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        sinkStore.flush();
+
+        verify(sink, times(2)).add("ABC", "1");
+    }
+
+    @Test
+    void sendsEveryKey_whenSeenKeysAreDisabled() {
+        table.put(bytes("OLD"), ValueAndTimestamp.make(bytes("1"), 0L));
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 0, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("OLD"), bytes("2"), 0L));
+        processor.process(new Record<>(bytes("OLD"), bytes("3"), 0L));
+
+        verify(sink, times(2)).add(anyString(), anyString());
+    }
+
+    @Test
+    void passesNullValueThrough_andIgnoresNullKeys() {
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(null, bytes("1"), 0L));
+        processor.process(new Record<>(bytes("ABC"), null, 0L));
+
+        verify(sink, times(1)).add("ABC", null);
+    }
+
+    @Test
+    void schedulesWallClockPunctuation() {
+        var processor = new RedisSinkProcessor(Duration.ofMillis(100), 0, KeyExpiry.NONE, metrics);
+        processor.init(context);
+
+        assertEquals(1, context.scheduledPunctuators().size());
+        context.scheduledPunctuators().get(0).getPunctuator().punctuate(0L);
+
+        verify(sink).punctuate();
+    }
+
+    @Test
+    void withKeyTtl_rewritesKeysEveryHalfTtl_andPurgesExpiredEntries() {
+        table.put(bytes("OLD"), ValueAndTimestamp.make(bytes("1"), 0L));
+        table.put(bytes("GONE"), ValueAndTimestamp.make(bytes("1"), 0L));
+        var keyExpiry = new KeyExpiry(Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, keyExpiry, metrics);
+        processor.init(context);
+
+        // Sin reconstruir el filtro: la primera aparición tras asignarse la tarea renueva la clave en Redis
+        processor.process(new Record<>(bytes("OLD"), bytes("2"), 0L));
+        processor.process(new Record<>(bytes("OLD"), bytes("3"), 0L));
+        sinkStore.flush();
+        punctuator(Duration.ofMinutes(5)).punctuate(0L);
+        processor.process(new Record<>(bytes("OLD"), bytes("4"), 0L));
+
+        verify(sink).add("OLD", "2");
+        verify(sink, never()).add("OLD", "3");
+        verify(sink).add("OLD", "4");
+
+        table.put(bytes("OLD"), ValueAndTimestamp.make(bytes("4"), Duration.ofMinutes(9).toMillis()));
+        punctuator(Duration.ofMinutes(1)).punctuate(Duration.ofMinutes(11).toMillis());
+
+        assertNull(table.get(bytes("GONE")));
+        assertNotNull(table.get(bytes("OLD")));
+        assertEquals(1, registry.get("topology.keys.expired").counter().count());
+    }
+
+    @Test
+    void withKeyTtl_rewritesKey_writtenBeforeTheHalfTtlClearButConfirmedAfterIt() {
+        var keyExpiry = new KeyExpiry(Duration.ofMinutes(10), Duration.ofMinutes(1), 100);
+        var processor = new RedisSinkProcessor(Duration.ofSeconds(1), 1024, keyExpiry, metrics);
+        processor.init(context);
+
+        processor.process(new Record<>(bytes("ABC"), bytes("1"), 0L));
+        punctuator(Duration.ofMinutes(5)).punctuate(0L);
+        sinkStore.flush();
+        // Si la escritura previa al vaciado pasara al filtro, la clave no renovaría su expiración en otra media TTL
+        processor.process(new Record<>(bytes("ABC"), bytes("2"), 0L));
+
+        verify(sink).add("ABC", "1");
+        verify(sink).add("ABC", "2");
+    }
+
+    @Test
+    void redisTtl_coversTheTtlSinceTheLastRecord_whenTheRenewalIsHalfTtlOld() {
+        Duration ttl = Duration.ofMinutes(10);
+        // Peor caso: la última escritura fue justo tras un vaciado y la clave siguió filtrada media TTL
+        Duration lastWrite = Duration.ZERO;
+        Duration lastRecord = lastWrite.plus(ttl.dividedBy(2));
+
+        assertEquals(Duration.ofMinutes(15), KeyExpiry.redisTtl(ttl));
+        assertTrue(lastWrite.plus(KeyExpiry.redisTtl(ttl)).compareTo(lastRecord.plus(ttl)) >= 0);
+    }
+
+    private Punctuator punctuator(Duration interval) {
+        return context.scheduledPunctuators().stream()
+                .filter(p -> p.getInterval().equals(interval))
+                .findFirst().orElseThrow().getPunctuator();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
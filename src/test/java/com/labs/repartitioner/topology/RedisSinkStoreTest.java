@@ -0,0 +1,102 @@
+package com.labs.repartitioner.topology;
+
+import com.labs.repartitioner.constant.RedisSinkMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSinkStoreTest {
+
+    @Mock RedisSink sink;
+    @Mock StateStoreContext context;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    TopologyMetrics metrics = new TopologyMetrics(registry, RedisSinkMode.ASYNC);
+    RedisSinkStore sut;
+
+    @BeforeEach
+    void setup() {
+        sut = new RedisSinkStore.Builder(() -> sink, metrics).build();
+        sut.init(context, sut);
+    }
+
+    @Test
+    void delegatesToTaskSink() {
+        when(sink.pendingCount()).thenReturn(1);
+
+        sut.add("A", "1");
+        sut.punctuate();
+        sut.flush();
+
+        verify(sink).add("A", "1");
+        verify(sink).punctuate();
+        verify(sink).flush();
+        assertEquals(1, sut.pendingCount());
+        assertEquals(1, registry.get("redis.sink.commit.wait").tag("mode", "async").timer().count());
+    }
+
+    @Test
+    void flush_tellsListenerWhetherRedisConfirmed() {
+        List<Boolean> flushes = new ArrayList<>();
+        sut.setFlushListener(flushes::add);
+        doNothing().doThrow(new IllegalStateException("redis down")).when(sink).flush();
+
+        sut.flush();
+        assertThrows(IllegalStateException.class, sut::flush);
+
+        assertEquals(List.of(true, false), flushes);
+    }
+
+    @Test
+    void close_flushesPendingKeys() {
+        assertTrue(sut.isOpen());
+
+        sut.close();
+
+        verify(sink).flush();
+        assertFalse(sut.isOpen());
+        assertFalse(sut.persistent());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void init_registersStore_withLegacyProcessorContext() {
+        var legacyContext = mock(org.apache.kafka.streams.processor.ProcessorContext.class);
+        var store = new RedisSinkStore(sink, metrics);
+
+        store.init(legacyContext, store);
+
+        verify(legacyContext).register(eq(store), any());
+        assertTrue(store.isOpen());
+    }
+
+    @Test
+    void builder_describesAnUnloggedStore() {
+        var builder = new RedisSinkStore.Builder(() -> sink, metrics);
+
+        assertEquals(RedisSinkStore.NAME, builder.withCachingEnabled().withCachingDisabled()
+                .withLoggingEnabled(Map.of()).withLoggingDisabled().name());
+        assertFalse(builder.loggingEnabled());
+        assertTrue(builder.logConfig().isEmpty());
+    }
+}
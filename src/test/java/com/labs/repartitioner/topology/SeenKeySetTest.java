@@ -0,0 +1,99 @@
+package com.labs.repartitioner.topology;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeenKeySetTest {
+
+    @Test
+    void add_returnsFalse_forKnownFingerprint() {
+        var set = new SeenKeySet(1024);
+        long fp = SeenKeySet.fingerprint(bytes("ABC"));
+
+        assertTrue(set.add(fp));
+        assertFalse(set.add(fp));
+        assertTrue(set.contains(fp));
+        assertFalse(set.contains(SeenKeySet.fingerprint(bytes("XYZ"))));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void add_handlesZeroFingerprint() {
+        var set = new SeenKeySet(1024);
+
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+    }
+
+    @Test
+    void clear_forgetsEveryFingerprint() {
+        var set = new SeenKeySet(1024);
+        long fp = SeenKeySet.fingerprint(bytes("ABC"));
+        set.add(fp);
+
+        set.clear();
+
+        assertFalse(set.contains(fp));
+        assertEquals(0, set.size());
+        assertTrue(set.add(fp));
+    }
+
+    @Test
+    void moveTo_transfersFingerprintsAndEmptiesSource() {
+        var pending = new SeenKeySet(1024);
+        var seen = new SeenKeySet(1024);
+        pending.add(1L);
+        pending.add(0L);
+
+        pending.moveTo(seen);
+
+        assertEquals(0, pending.size());
+        assertTrue(pending.add(1L));
+        assertFalse(seen.add(1L));
+        assertFalse(seen.add(0L));
+    }
+
+    @Test
+    void memoryBudget_boundsCapacity() {
+        // 1000 bytes -> 64 slots de 8 bytes -> 48 claves con factor de carga 0,75
+        var set = new SeenKeySet(1000);
+
+        for (int i = 0; i < 100; i++) {
+            set.add(SeenKeySet.fingerprint(bytes("KEY-" + i)));
+        }
+
+        assertEquals(48, set.capacity());
+        assertEquals(48, set.size());
+        assertTrue(set.isFull());
+        assertEquals(52, set.rejected());
+    }
+
+    @Test
+    void add_reportsNewKey_whenFull() {
+        var set = new SeenKeySet(16);
+        set.add(1L);
+
+        // Lleno: una clave nueva no se registra pero debe seguir yendo a Redis
+        assertTrue(set.isFull());
+        assertTrue(set.add(2L));
+        assertFalse(set.add(1L));
+        assertFalse(set.contains(2L));
+    }
+
+    @Test
+    void fingerprint_isStableAndSpreadsSimilarKeys() {
+        assertEquals(SeenKeySet.fingerprint(bytes("ABC")), SeenKeySet.fingerprint("ABC".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(SeenKeySet.fingerprint(bytes("KEY-1")), SeenKeySet.fingerprint(bytes("KEY-2")));
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
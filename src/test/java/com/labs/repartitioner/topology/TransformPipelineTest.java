@@ -0,0 +1,82 @@
+package com.labs.repartitioner.topology;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransformPipelineTest {
+
+    @Test
+    void appliesKeyStepsInOrder() {
+        var pipeline = new TransformPipeline(List.of("trim-key", "strip-key-prefix:tenant-", "uppercase-key",
+                "add-key-prefix:t/"));
+
+        assertArrayEquals(bytes("t/FOO"), pipeline.key(bytes("  tenant-foo\t")));
+        assertArrayEquals(bytes("t/BAR"), pipeline.key(bytes("bar")));
+    }
+
+    @Test
+    void appliesValueSteps_andLeavesKeyStepsOut() {
+        var pipeline = new TransformPipeline(List.of("uppercase-key", "trim-value", "add-value-prefix:<",
+                "add-value-suffix:>"));
+
+        assertArrayEquals(bytes("<a b>"), pipeline.value(bytes(" a b ")));
+        assertArrayEquals(bytes("ABC"), pipeline.key(bytes("abc")));
+    }
+
+    @Test
+    void lowercasesNonAsciiKey() {
+        var pipeline = new TransformPipeline(List.of("lowercase-key"));
+
+        assertArrayEquals(bytes("año"), pipeline.key(bytes("AÑO")));
+    }
+
+    @Test
+    void argumentKeepsColonsAndSpaces() {
+        var pipeline = new TransformPipeline(List.of("add-key-prefix:ns: "));
+
+        assertArrayEquals(bytes("ns: k"), pipeline.key(bytes("k")));
+    }
+
+    @Test
+    void serdesApplySteps_andPassNullsThrough() {
+        var pipeline = new TransformPipeline(List.of("uppercase-key", "add-value-suffix:!"));
+
+        assertArrayEquals(bytes("ABC"), pipeline.keySerde().deserializer().deserialize("t", bytes("abc")));
+        assertArrayEquals(bytes("v!"), pipeline.valueSerde().deserializer().deserialize("t", bytes("v")));
+        assertNull(pipeline.keySerde().deserializer().deserialize("t", null));
+        assertNull(pipeline.value(null));
+    }
+
+    @Test
+    void emptyPipeline_leavesRecordsUntouched() {
+        var pipeline = new TransformPipeline(List.of(""));
+
+        assertArrayEquals(bytes("abc"), pipeline.key(bytes("abc")));
+        assertFalse(pipeline.isUpperCaseKeyOnly());
+    }
+
+    @Test
+    void isUpperCaseKeyOnly_ignoresValueSteps() {
+        assertTrue(new TransformPipeline(List.of("uppercase-key", "trim-value")).isUpperCaseKeyOnly());
+        assertFalse(new TransformPipeline(List.of("uppercase-key", "trim-key")).isUpperCaseKeyOnly());
+    }
+
+    @Test
+    void rejectsUnknownSteps_andWrongArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TransformPipeline(List.of("reverse-key")));
+        assertThrows(IllegalArgumentException.class, () -> new TransformPipeline(List.of("add-key-prefix")));
+        assertThrows(IllegalArgumentException.class, () -> new TransformPipeline(List.of("trim-key:x")));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
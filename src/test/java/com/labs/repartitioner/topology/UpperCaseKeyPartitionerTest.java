@@ -0,0 +1,54 @@
+package com.labs.repartitioner.topology;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpperCaseKeyPartitionerTest {
+
+    private final UpperCaseKeyPartitioner partitioner = new UpperCaseKeyPartitioner();
+
+    @Test
+    void partitionsLikeDefaultPartitionerOnNormalizedKey() {
+        for (String key : new String[]{"abc", "ABC", "customer-42", "año"}) {
+            int expected = Utils.toPositive(Utils.murmur2(bytes(key.toUpperCase()))) % 3;
+
+            assertEquals(expected, UpperCaseKeyPartitioner.partitionFor(bytes(key), 3), key);
+        }
+        assertEquals(UpperCaseKeyPartitioner.partitionFor(bytes("abc"), 3),
+                UpperCaseKeyPartitioner.partitionFor(bytes("ABC"), 3));
+    }
+
+    @Test
+    void partition_usesTopicPartitionCount_withoutTouchingKeyBytes() {
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.partitionCountForTopic("uppercase")).thenReturn(3);
+        byte[] key = bytes("abc");
+
+        int partition = partitioner.partition("uppercase", "abc", key, "v", bytes("v"), cluster);
+
+        assertEquals(UpperCaseKeyPartitioner.partitionFor(bytes("ABC"), 3), partition);
+        assertArrayEquals(bytes("abc"), key);
+        partitioner.configure(Map.of());
+        partitioner.close();
+    }
+
+    @Test
+    void partition_rejectsNullKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> partitioner.partition("uppercase", null, null, "v", bytes("v"), mock(Cluster.class)));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}